@@ -1,41 +1,96 @@
 import javafx.animation.*;
 import javafx.application.Application;
 import javafx.application.Platform;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.collections.FXCollections;
 import javafx.geometry.*;
 import javafx.scene.*;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.control.*;
 import javafx.scene.effect.*;
+import javafx.scene.image.ImageView;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
 import javafx.scene.input.MouseButton;
 import javafx.scene.layout.*;
 import javafx.scene.paint.*;
 import javafx.scene.shape.*;
 import javafx.scene.text.*;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import javafx.util.Duration;
 import javafx.scene.transform.Rotate;
 
-import blackjack.CardModel.*;
+import blackjack.Advisor;
+import blackjack.Advisor.Advice;
+import blackjack.CardAtlas;
+import blackjack.CountTracker;
+import blackjack.CountTracker.CountSystem;
+import blackjack.DiagnosticsOverlay;
+import blackjack.QualityGovernor;
+import blackjack.EngineThread;
+import blackjack.GameEvent;
 import blackjack.HUDComponents;
-
+import blackjack.HandHistoryWriter;
+import blackjack.ParticleField;
+import blackjack.ReplayViewer;
+import blackjack.RoundEngine;
+import blackjack.RoundJournal;
+import blackjack.RoundEngine.Outcome;
+import blackjack.RoundEngine.Phase;
+import blackjack.RoundEngine.Strategy;
+import blackjack.SceneGraphStats;
+import blackjack.SessionChart;
+import blackjack.SessionHistory;
+import blackjack.SessionRecorder;
+import blackjack.SessionReplay;
+import blackjack.Strategies;
+import blackjack.TableRules;
+import blackjack.TweenEngine;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
 
 public class BlackJack extends Application {
 
-    // ===== Game Model =====
-    private Deck deck;
-    private final List<Card> playerHand = new ArrayList<>();
-    private final List<Card> dealerHand = new ArrayList<>();
+    // ===== Game Model (runs on its own thread; see ENGINE EVENTS) =====
+    private EngineThread engine;
+    private final Deque<GameEvent> script = new ArrayDeque<>();
+    private final Consumer<GameEvent> scriptSink = script::addLast;
+    private boolean presenting = false;
+
+    // ===== Hints (advisor runs off the FX thread) =====
+    // The table lays out a single player hand, so a split rule set is played with NS
+    private final TableRules requestedRules = TableRules.parse(System.getProperty("blackjack.rules", "CLASSIC"));
+    private final TableRules rules = requestedRules.maxHands == 1 ? requestedRules : TableRules.parse(requestedRules.name + " NS");
+    private final Advisor advisor = new Advisor(rules);
+    private final ExecutorService hintExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "advisor");
+        t.setDaemon(true);
+        return t;
+    });
+    private long hintToken = 0;
 
     // ===== UI containers =====
     private Pane tablePane;
     private StackPane rootStack;
+    private AnchorPane overlay;
 
     private VBox hudTopLeft;
     private VBox hudTopRight;
     private VBox hudBottomRight;
+    private VBox hudCount;
     private VBox chipRack;
     private HBox controlsBar;
 
@@ -43,54 +98,160 @@ public class BlackJack extends Application {
     private Label balanceLabel, betLabel, statusLabel;
     private Label dealerTotalLabel, playerTotalLabel;
     private Label gamesLabel, winsLabel, lossesLabel, pushesLabel, streakLabel, biggestWinLabel;
+    private Label hitEvLabel, standEvLabel, doubleEvLabel;
+    private Label[] countLabels;
+    private Label decksLeftLabel;
 
     // Buttons
-    private Button hitBtn, standBtn, doubleBtn, playAgainBtn, clearBetBtn;
+    private Button hitBtn, standBtn, doubleBtn, surrenderBtn, playAgainBtn, clearBetBtn, turboBtn;
+    private ComboBox<String> strategyBox, rateBox;
 
     private Canvas graphCanvas;
 
     // ===== Values =====
     private int balance = 1000;
     private int bet = 100;
-    private boolean dealerRevealed = false;
-    private boolean roundOver = false;
+    private Phase tablePhase = Phase.BETTING;   // of the round as presented so far
+
+    // ===== Count trainer (F6, or -Dblackjack.trainer=true) =====
+    private long count;                         // packed CountTracker counts as shown
+    private int countUnseen;
+
+    // ===== Totals overlay (retained nodes bound to these) =====
+    private final IntegerProperty playerTotalValue = new SimpleIntegerProperty();
+    private final IntegerProperty dealerShownValue = new SimpleIntegerProperty();
+    private Group totalsLayer;
+    private Text dealerCenterText, playerCenterText;
+
+    private final SceneGraphStats sceneStats = new SceneGraphStats();
+    private DiagnosticsOverlay diagnostics;
 
-    private int playerTotal = 0;
-    private int dealerTotal = 0;
+    // ===== Render quality (stepped by the governor) =====
+    private QualityGovernor governor;
+    private boolean glowEnabled = true;
+    private boolean cacheCardsInFlight = false;
 
     // ===== Stats =====
-    private int gamesPlayed = 0;
-    private int wins = 0;
-    private int losses = 0;
-    private int pushes = 0;
+    private long gamesPlayed = 0;
+    private long wins = 0;
+    private long losses = 0;
+    private long pushes = 0;
     private int bestStreak = 0;
     private int currentStreak = 0;
     private int biggestWin = 0;
 
-    private final Deque<Integer> last10 = new ArrayDeque<>();
+    // Settled rounds persist across runs in ~/.blackjack; null if it could not be opened
+    private RoundJournal journal;
+    private HandHistoryWriter handHistory;      // -Dblackjack.hands=true
+    private SessionRecorder recording;          // -Dblackjack.record=true
+
+    // ===== Replay (F5) =====
+    private ReplayViewer replay;                // null while playing live
+    private int liveBalance, liveBet;
+    private Phase livePhase;
+
+    private final SessionHistory history = new SessionHistory();
+    private SessionChart historyChart;
+    private Label historyLabel;
+
+    // Balance, stats and graph are redrawn at most once per pulse
+    private boolean hudDirty = false;
+
+    // ===== Turbo / auto-play =====
+    private static final String[] STRATEGY_NAMES = {"Basic", "Mimic", "Safe"};
+    private static final Strategy[] STRATEGIES = {Strategies.BASIC, Strategies.MIMIC_DEALER, Strategies.NEVER_BUST};
+    private static final String[] RATE_NAMES = {"10", "100", "1k", "10k", "Max"};
+    private static final int[] RATES = {10, 100, 1_000, 10_000, 0};      // rounds/s, 0 = unthrottled
+
+    private boolean turbo = false;
 
     // ===== Card Nodes =====
     private final List<Node> playerNodes = new ArrayList<>();
     private final List<Node> dealerNodes = new ArrayList<>();
     private Node lastGlow;
+    private DropShadow glow;                       // shared by whichever card was dealt last
+    private final TweenEngine tweens = new TweenEngine();
 
-    private Timeline dealerLoop;
+    // Card faces and back, rendered once per output scale
+    private CardAtlas atlas;
 
     // Card sizes
     private static final double CARD_W = 130;
     private static final double CARD_H = 180;
+    private static final double DEAL_STAGGER = 150;   // ms between overlapped opening cards
+    private static final double DEALER_PAUSE = 60;    // ms before each dealer draw lands
+    private static final double TABLE_TILT = 2.5;
 
     private double deckX = 28;
     private double deckY = 28;
 
+    // Launcher thread: the journal is opened and replayed before the FX thread needs it
+    @Override
+    public void init(){
+        Path home = Path.of(System.getProperty("user.home"), ".blackjack");
+        if(Boolean.getBoolean("blackjack.hands")){
+            String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+            try {
+                handHistory = new HandHistoryWriter(home.resolve("hands").resolve("hands-" + stamp + ".bjh"));
+            } catch(IOException ex){
+                System.err.println("Hand history unavailable: " + ex);
+            }
+        }
+
+        long t0 = System.nanoTime();
+        try {
+            journal = RoundJournal.open(home, balance);
+        } catch(IOException | UncheckedIOException ex){
+            System.err.println("Round journal unavailable, progress will not be saved: " + ex);
+            return;
+        }
+
+        RoundJournal.Totals t = journal.totals();
+        balance = t.balance;
+        gamesPlayed = t.games;
+        wins = t.wins;
+        losses = t.losses;
+        pushes = t.pushes;
+        currentStreak = t.currentStreak;
+        bestStreak = t.bestStreak;
+        biggestWin = t.biggestWin;
+        System.out.printf("Journal: %,d records resumed in %.1f ms%n", t.records, (System.nanoTime() - t0) / 1e6);
+    }
+
+    // Sessions are recorded from the restored balance on, for the replay viewer
+    private void openRecording(){
+        if(!Boolean.getBoolean("blackjack.record")) return;
+        String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        try {
+            recording = new SessionRecorder(sessionsDir().resolve("session-" + stamp + ".bjr"), balance);
+        } catch(IOException ex){
+            System.err.println("Session recording unavailable: " + ex);
+        }
+    }
+
+    private static Path sessionsDir(){
+        return Path.of(System.getProperty("user.home"), ".blackjack", "sessions");
+    }
+
+    @Override
+    public void stop(){
+        if(replay != null) replay.close();
+        engine.shutdown();          // closes the journal after the engine's last round
+    }
+
     @Override
     public void start(Stage stage) {
 
+        atlas = new CardAtlas(CARD_W, CARD_H);
+        long seed = Long.getLong("blackjack.seed", System.nanoTime());
+        openRecording();
+        engine = new EngineThread(balance, seed, rules, () -> Platform.runLater(Platform::requestNextPulse), journal, handHistory, recording);
+
         // ===== Table setup =====
         tablePane = new Pane();
         tablePane.setMinSize(1100, 700);
         tablePane.setRotationAxis(Rotate.X_AXIS);
-        tablePane.setRotate(2.5);
+        tablePane.setRotate(TABLE_TILT);
 
         tablePane.setBackground(new Background(
                 new BackgroundFill(Color.web("#0A5E20"), CornerRadii.EMPTY, Insets.EMPTY)
@@ -116,6 +277,7 @@ public class BlackJack extends Application {
 
         tablePane.getChildren().addAll(felt, vignette);
         drawDeck();
+        buildTotalsLayer();
 
         // ===== Main base =====
         BorderPane base = new BorderPane();
@@ -124,22 +286,26 @@ public class BlackJack extends Application {
         // ===== HUD =====
         buildHUD();
 
-        AnchorPane overlay = new AnchorPane(hudTopLeft, hudTopRight, hudBottomRight, chipRack, controlsBar);
+        overlay = new AnchorPane(hudTopLeft, hudTopRight, hudCount, hudBottomRight, chipRack, controlsBar);
         AnchorPane.setTopAnchor(hudTopLeft, 340.0);
         AnchorPane.setLeftAnchor(hudTopLeft, 20.0);
 
         AnchorPane.setTopAnchor(hudTopRight, 20.0);
         AnchorPane.setRightAnchor(hudTopRight, 20.0);
 
+        AnchorPane.setTopAnchor(hudCount, 170.0);
+        AnchorPane.setRightAnchor(hudCount, 20.0);
+
         AnchorPane.setBottomAnchor(hudBottomRight, 20.0);
         AnchorPane.setRightAnchor(hudBottomRight, 20.0);
 
         AnchorPane.setTopAnchor(chipRack, 580.0);
         AnchorPane.setLeftAnchor(chipRack, 20.0);
 
+        // Between the chip rack and the stats card
         AnchorPane.setBottomAnchor(controlsBar, 20.0);
-        AnchorPane.setLeftAnchor(controlsBar, 0.0);
-        AnchorPane.setRightAnchor(controlsBar, 0.0);
+        AnchorPane.setLeftAnchor(controlsBar, 230.0);
+        AnchorPane.setRightAnchor(controlsBar, 320.0);
 
         StackPane layered = new StackPane(base, overlay);
 
@@ -150,12 +316,46 @@ public class BlackJack extends Application {
 
         rootStack = new StackPane(layered, startScreen);
 
+        // ===== Diagnostics (F3 show/hide, F4 dump to ~/.blackjack/diagnostics) =====
+        diagnostics = new DiagnosticsOverlay(rootStack, tweens::inFlight, engine::toString);
+        overlay.getChildren().add(diagnostics.node());
+        AnchorPane.setTopAnchor(diagnostics.node(), 20.0);
+        AnchorPane.setLeftAnchor(diagnostics.node(), 200.0);
+
         Scene scene = new Scene(rootStack, 1250, 760);
-        stage.setTitle("Blackjack (JavaFX)");
+        diagnostics.attach(scene);
+        scene.addEventFilter(KeyEvent.KEY_PRESSED, e -> {
+            if(e.getCode() == KeyCode.F3) diagnostics.toggle();
+            else if(e.getCode() == KeyCode.F4) dumpDiagnostics();
+            else if(e.getCode() == KeyCode.F5) onReplay();
+            else if(e.getCode() == KeyCode.F6) toggleCount();
+        });
+        scene.addPreLayoutPulseListener(this::drainEvents);
+        scene.addPreLayoutPulseListener(this::flushHud);
+
+        // -Dblackjack.quality=high|medium|low pins a tier instead of adapting
+        governor = new QualityGovernor(diagnostics.frames(), this::applyQuality, System.getProperty("blackjack.quality"));
+        scene.addPostLayoutPulseListener(() -> governor.onPulse(System.nanoTime()));
+        diagnostics.watch("Quality", governor::toString);
+        sceneStats.watchTree(rootStack);
+        stage.setOnHidden(e -> {
+            System.out.println("Scene graph: " + SceneGraphStats.nodeCount(rootStack) + " nodes, " + sceneStats);
+            System.out.println("Engine queue: " + engine);
+        });
+        if(rules != requestedRules){
+            System.err.println("This table cannot lay out split hands; playing " + rules.name + " instead of " + requestedRules.name
+                    + ". The simulator and table server still split.");
+        }
+        stage.setTitle("Blackjack (JavaFX) - " + rules.name);
         stage.setScene(scene);
         stage.show();
 
+        // Pre-render the atlas for this screen and redo it when moved to another DPI
+        atlas.ensureScale(stage.getOutputScaleX());
+        stage.outputScaleXProperty().addListener((a,b,c)-> atlas.ensureScale(c.doubleValue()));
+
         Platform.runLater(this::layoutAllCards);
+        markHudDirty();         // show the totals restored from the journal
 
         tablePane.widthProperty().addListener((a,b,c)-> layoutAllCards());
         tablePane.heightProperty().addListener((a,b,c)-> layoutAllCards());
@@ -172,7 +372,7 @@ public class BlackJack extends Application {
 
     balanceLabel = HUDComponents.hudValue("Balance: ₹" + balance);
     betLabel = HUDComponents.hudValue("Bet: ₹" + bet);
-    statusLabel = HUDComponents.hudValue("Click Play to begin");
+    statusLabel = HUDComponents.hudValue(rules == requestedRules ? "Click Play to begin" : "No splits here: playing " + rules.name + ". Click Play to begin");
 
     hudTopLeft.getChildren().addAll(balanceLabel, betLabel, statusLabel);
 
@@ -180,12 +380,27 @@ public class BlackJack extends Application {
     // -------- Top Right (Totals) --------
     hudTopRight = HUDComponents.glassCard("Totals");
 
-    dealerTotalLabel = HUDComponents.statHeader("Dealer: 0");
-    playerTotalLabel = HUDComponents.statHeader("You: 0");
+    dealerTotalLabel = HUDComponents.statHeader("");
+    playerTotalLabel = HUDComponents.statHeader("");
+    dealerTotalLabel.textProperty().bind(dealerShownValue.asString("Dealer: %d"));
+    playerTotalLabel.textProperty().bind(playerTotalValue.asString("You: %d"));
 
     hudTopRight.getChildren().addAll(dealerTotalLabel, playerTotalLabel);
 
 
+    // -------- Count trainer (under Totals) --------
+    hudCount = HUDComponents.glassCard("Count");
+
+    countLabels = new Label[CountSystem.values().length];
+    for(int i = 0; i < countLabels.length; i++){
+        countLabels[i] = HUDComponents.statLabel("");
+        hudCount.getChildren().add(countLabels[i]);
+    }
+    decksLeftLabel = HUDComponents.statLabel("");
+    hudCount.getChildren().add(decksLeftLabel);
+    hudCount.setVisible(Boolean.getBoolean("blackjack.trainer"));
+
+
     // -------- Bottom Right (Stats) --------
     hudBottomRight = HUDComponents.glassCard("Stats");
 
@@ -197,12 +412,14 @@ public class BlackJack extends Application {
     biggestWinLabel = HUDComponents.statLabel("Biggest Win: ₹0");
 
     graphCanvas = HUDComponents.makeGraphCanvas();
+    historyChart = new SessionChart(history, graphCanvas, this::markHudDirty);
+    historyLabel = HUDComponents.statLabel(historyChart.describe());
 
     hudBottomRight.getChildren().addAll(
             new HBox(16, gamesLabel, winsLabel),
             new HBox(16, lossesLabel, pushesLabel),
             new HBox(16, streakLabel, biggestWinLabel),
-            HUDComponents.statLabel("Last 10 (win=↑ loss=↓)"),
+            historyLabel,
             graphCanvas
     );
 
@@ -250,30 +467,74 @@ public class BlackJack extends Application {
 
 
     // -------- Controls --------
-    controlsBar = new HBox(16);
-    controlsBar.setAlignment(Pos.CENTER);
+    controlsBar = new HBox(10);
+    controlsBar.setAlignment(Pos.TOP_CENTER);
     controlsBar.setPadding(new Insets(8));
 
     hitBtn = makeButton("Hit");
     standBtn = makeButton("Stand");
     doubleBtn = makeButton("Double");
+    surrenderBtn = makeButton("Surrender");
+    surrenderBtn.setPrefWidth(140);
     playAgainBtn = makeButton("Play");
+    turboBtn = makeButton("Turbo");
+
+    strategyBox = turboChoice(STRATEGY_NAMES, 84);
+    rateBox = turboChoice(RATE_NAMES, 70);
+    rateBox.getSelectionModel().select(1);
+    rateBox.getSelectionModel().selectedIndexProperty().addListener((a,b,c) -> {
+        if(turbo) engine.turboRate(RATES[c.intValue()]);
+    });
+    HBox turboSettings = new HBox(4, strategyBox, rateBox);
+    turboSettings.setAlignment(Pos.CENTER);
+
+    hitEvLabel = HUDComponents.statLabel("");
+    standEvLabel = HUDComponents.statLabel("");
+    doubleEvLabel = HUDComponents.statLabel("");
 
-    controlsBar.getChildren().addAll(hitBtn, standBtn, doubleBtn, playAgainBtn);
+    controlsBar.getChildren().addAll(
+            withEv(hitBtn, hitEvLabel),
+            withEv(standBtn, standEvLabel),
+            withEv(doubleBtn, doubleEvLabel),
+            withEv(surrenderBtn, HUDComponents.statLabel("")),
+            withEv(playAgainBtn, HUDComponents.statLabel("")),
+            new VBox(4, turboBtn, turboSettings));
 
     hitBtn.setOnAction(e -> onHit());
     standBtn.setOnAction(e -> onStand());
     doubleBtn.setOnAction(e -> onDouble());
+    surrenderBtn.setOnAction(e -> onSurrender());
+
+    // Only at tables that offer it
+    surrenderBtn.getParent().setVisible(rules.lateSurrender);
+    surrenderBtn.getParent().setManaged(rules.lateSurrender);
     playAgainBtn.setOnAction(e -> onPlayAgain());
+    turboBtn.setOnAction(e -> onTurbo());
 
     setButtonsEnabled(false);
     playAgainBtn.setDisable(false);
 }
 
 
+    // Button with its EV hint underneath
+    private VBox withEv(Button b, Label ev){
+        VBox box = new VBox(4, b, ev);
+        box.setAlignment(Pos.CENTER);
+        return box;
+    }
+
+    // Small picker under the Turbo button
+    private ComboBox<String> turboChoice(String[] items, double width){
+        ComboBox<String> c = new ComboBox<>(FXCollections.observableArrayList(items));
+        c.getSelectionModel().select(0);
+        c.setPrefWidth(width);
+        c.setStyle("-fx-font-size: 11px;");
+        return c;
+    }
+
     private Button makeButton(String text){
         Button b = new Button(text);
-        b.setPrefWidth(140);
+        b.setPrefWidth(116);
         b.setPrefHeight(46);
         b.setFont(Font.font("Segoe UI", FontWeight.BOLD, 17));
         b.setTextFill(Color.WHITE);
@@ -344,26 +605,14 @@ public class BlackJack extends Application {
                 new Stop(1, Color.color(0, 0, 0, 0))
         ));
 
-        // --- Floating particles (slower, smoother) ---
-        Group particles = new Group();
-        for (int i = 0; i < 38; i++) {
-            Circle dot = new Circle(ThreadLocalRandom.current().nextDouble(1.2, 2.8));
-            dot.setFill(Color.color(1, 1, 1, ThreadLocalRandom.current().nextDouble(0.03, 0.08)));
-            dot.setEffect(new BoxBlur(3, 3, 2));
-
-            dot.setTranslateX(ThreadLocalRandom.current().nextDouble(0, 1300));
-            dot.setTranslateY(ThreadLocalRandom.current().nextDouble(0, 800));
-
-            TranslateTransition drift = new TranslateTransition(
-                    Duration.seconds(ThreadLocalRandom.current().nextDouble(12, 22)), dot);
-            drift.setByY(-ThreadLocalRandom.current().nextDouble(60, 140));
-            drift.setByX(ThreadLocalRandom.current().nextDouble(-20, 20));
-            drift.setAutoReverse(true);
-            drift.setCycleCount(Animation.INDEFINITE);
-            drift.play();
-
-            particles.getChildren().add(dot);
-        }
+        // --- Floating particles: one canvas, density via -Dblackjack.particles (per megapixel) ---
+        ParticleField particles = new ParticleField(1300, 800,
+                Double.parseDouble(System.getProperty("blackjack.particles", "40")));
+        Canvas dust = particles.canvas();
+        dust.setManaged(false);
+        dust.widthProperty().bind(splash.widthProperty());
+        dust.heightProperty().bind(splash.heightProperty());
+        particles.start();
 
         Label clubIcon = new Label("♣");
         clubIcon.setFont(Font.font("Segoe UI", FontWeight.EXTRA_BOLD, 110));
@@ -400,7 +649,7 @@ public class BlackJack extends Application {
         VBox box = new VBox(20,clubIcon, title, subtitle, startBtn);
         box.setAlignment(Pos.CENTER);
 
-        splash.getChildren().addAll(bg, glow, particles, box);
+        splash.getChildren().addAll(bg, glow, dust, box);
 
         // Fade out the entire screen when button is clicked
         startBtn.setOnAction(e -> {
@@ -409,6 +658,9 @@ public class BlackJack extends Application {
             fade.setInterpolator(Interpolator.EASE_BOTH);
 
             fade.setOnFinished(ev -> {
+                dust.widthProperty().unbind();
+                dust.heightProperty().unbind();
+                particles.stop();
                 rootStack.getChildren().remove(splash);
                 if (onStart != null) onStart.run();
             });
@@ -426,185 +678,230 @@ public class BlackJack extends Application {
 
     private void onPlayAgain(){
         if(balance <= 0){
-            if(!confirm("Balance is 0. Refill ₹1000?")) return;
-            balance = 1000;
-            balanceLabel.setText("Balance: ₹1000");
+            confirm("Balance is 0. Refill ₹1000?", () -> {
+                balance = 1000;
+                engine.refill(1000);
+                markHudDirty();
+                startRound();
+            });
+            return;
         }
-        setButtonsEnabled(false);
         startRound();
     }
 
-    private void startRound() {
-    stopDealerLoop();
-
-    roundOver = false;
-    dealerRevealed = false;
-
-    playerHand.clear();
-    dealerHand.clear();
-    playerNodes.clear();
-    dealerNodes.clear();
-
-    tablePane.getChildren().removeIf(n -> "CARD".equals(n.getUserData()));
-
-    deck = new Deck();
-
-    if (bet > balance) bet = balance;
-    if (bet <= 0) bet = Math.min(100, balance);
-
-    balance -= bet;
-    balanceLabel.setText("Balance: ₹" + balance);
-    betLabel.setText("Bet: ₹" + bet);
-
-    statusLabel.setText("Dealing...");
-
-    // --------- Deal order: P1 → D1 → P2 → D2(hidden) ---------
-
-    dealTo(playerHand, playerNodes, true, false, () -> {
-
-        dealTo(dealerHand, dealerNodes, true, false, () -> {
-
-            dealTo(playerHand, playerNodes, true, false, () -> {
-
-                dealTo(dealerHand, dealerNodes, false, true, () -> {
-
-                    computeTotals();
-                    checkNaturalBlackjack();
-
-                    if (!roundOver) {
-                        setButtonsEnabled(true);
-                        statusLabel.setText("Your move: Hit / Stand / Double");
-                    }
-
-                });
-
-            });
+    // The engine thread deals; the cards come back as events
+    private void startRound(){
+        awaitEngine();
+        engine.deal(bet);
+    }
 
-        });
+    // The buttons are only enabled on a decision; a command the round's phase
+    // does not allow is answered with the same decision again
+    private void onHit(){
+        awaitEngine();
+        engine.hit();
+    }
 
-    });
-}
+    private void onStand(){
+        awaitEngine();
+        engine.stand();
+    }
 
+    private void onDouble(){
+        awaitEngine();
+        engine.doubleDown();
+    }
 
-    private void onHit(){
-        if(roundOver) return;
-        dealTo(playerHand, playerNodes, true, false, () -> {
-            computeTotals();
-            if(playerTotal > 21){
-                dealerRevealed = true;
-                revealDealer(() -> endRound("You busted. Dealer wins.", false,false));
-            }
-        });
+    private void onSurrender(){
+        awaitEngine();
+        engine.surrender();
     }
 
-    private void onStand(){
-        if(roundOver) return;
-        dealerRevealed = true;
+    // Buttons stay off until the engine asks for the next decision or settles
+    private void awaitEngine(){
         setButtonsEnabled(false);
-        revealDealer(this::dealerTurn);
+        playAgainBtn.setDisable(true);
+        turboBtn.setDisable(true);
+        clearHints();
     }
 
-    private void onDouble(){
-        if(roundOver) return;
-        if(balance < bet){
-            alert("Not enough balance to double.");
+    private void endRound(GameEvent e){
+        tablePhase = Phase.SETTLED;
+
+        statusLabel.setText(e.message);
+        if(replay != null){
+            replay.roundShown();        // recorded stats come from the replay
             return;
         }
+        recordOutcome(e.outcome, e.net);
 
-        balance -= bet;
-        bet *= 2;
+        setButtonsEnabled(false);
+        playAgainBtn.setDisable(false);
+    }
 
-        balanceLabel.setText("Balance: ₹"+balance);
-        betLabel.setText("Bet: ₹"+bet);
+    private void recordOutcome(Outcome outcome, int net){
+        if(outcome.isPush()){
+            pushes++;
+            currentStreak = 0;
+            addResult(0, balance);
 
-        setButtonsEnabled(false);
+        } else if(outcome.isWin()){
+            wins++;
+            currentStreak++;
+            bestStreak = Math.max(bestStreak, currentStreak);
+            biggestWin = Math.max(biggestWin, net);
+            addResult(1, balance);
 
-        dealTo(playerHand, playerNodes, true, false, () -> {
-            computeTotals();
-            if(playerTotal > 21){
-                dealerRevealed = true;
-                revealDealer(() -> endRound("You busted after doubling.", false,false));
-            } else {
-                dealerRevealed = true;
-                revealDealer(this::dealerTurn);
-            }
-        });
+        } else {
+            losses++;
+            currentStreak = 0;
+            addResult(-1, balance);
+        }
+
+        gamesPlayed++;
     }
 
-    private void dealerTurn(){
-        stopDealerLoop();
-        dealerLoop = new Timeline(new KeyFrame(Duration.millis(380), e -> {
-            if(roundOver){ stopDealerLoop(); return; }
-            computeTotals();
-            if(dealerTotal < 17){
-                dealTo(dealerHand, dealerNodes, true, false, null);
-            } else {
-                stopDealerLoop();
-                decideOutcome();
-            }
-        }));
-        dealerLoop.setCycleCount(Animation.INDEFINITE);
-        dealerLoop.play();
+    // ===============================================================================================
+    // ENGINE EVENTS
+    // ===============================================================================================
+
+    // Pre-layout pulse listener: take everything the engine published since the last pulse
+    private void drainEvents(){
+        if(engine.drain(scriptSink) > 0) present();
     }
 
-    private void stopDealerLoop(){
-        if(dealerLoop != null){
-            dealerLoop.stop();
-            dealerLoop = null;
+    // Events are shown in order; an animated one holds back the rest until it finishes
+    private void present(){
+        while(!presenting && !script.isEmpty()){
+            presenting = play(script.pollFirst());
         }
     }
 
-    private void decideOutcome(){
-        if(roundOver) return;
+    private void presented(){
+        presenting = false;
+        present();
+    }
 
-        boolean pBust = playerTotal > 21;
-        boolean dBust = dealerTotal > 21;
+    // True when e started an animation that will call presented()
+    private boolean play(GameEvent e){
+        balance = e.balance;
+        count = e.count;
+        countUnseen = e.countUnseen;
+        markHudDirty();
+
+        switch(e.type){
+            case GameEvent.ROUND_START:
+                clearTable(e);
+                return false;
+
+            case GameEvent.CARD:
+                if(e.doubled) bet = e.bet;
+
+                // Opening cards overlap; later ones land one at a time
+                boolean opening = e.deal >= 0;
+                boolean holds = !opening || e.deal == 3;
+                double delay = opening ? e.deal * DEAL_STAGGER : e.toPlayer ? 0 : DEALER_PAUSE;
+
+                showCard(e.toPlayer, e.code, e.hidden, delay, () -> {
+                    applyTotals(e);
+                    if(holds) presented();
+                });
+                return holds;
 
-        if(pBust && dBust){ endRound("Both busted. Push.", false,true); return; }
-        if(pBust){ endRound("You busted. Dealer wins.", false,false); return; }
-        if(dBust){ endRound("Dealer busted! You win!", true,false); return; }
+            case GameEvent.REVEAL:
+                tablePhase = Phase.DEALER_TURN;
+                revealDealer(e.code, () -> {
+                    applyTotals(e);
+                    presented();
+                });
+                return true;
+
+            case GameEvent.DECISION:
+                applyTotals(e);
+                if(e.insurance){
+                    tablePhase = Phase.INSURANCE;
+                    statusLabel.setText("Dealer shows an ace");
+                    confirm("Insurance for ₹" + e.bet / 2 + "?", () -> engine.insure(true), () -> engine.insure(false));
+                    return false;
+                }
+                tablePhase = Phase.PLAYER_TURN;
+                setButtonsEnabled(true);
+                doubleBtn.setDisable(!e.canDouble);
+                surrenderBtn.setDisable(!e.canSurrender);
+                statusLabel.setText("Your move: Hit / Stand" + (e.canDouble ? " / Double" : "") + (e.canSurrender ? " / Surrender" : ""));
+                requestHints(e);
+                return false;
+
+            case GameEvent.OUTCOME:
+                endRound(e);
+                return false;
+
+            case GameEvent.TURBO:
+                bet = e.bet;
+                recordBatch(e);
+                statusLabel.setText(String.format("Turbo: %,d rounds (%,.0f/s)", e.turboRounds, e.turboRate));
+                return false;
+
+            case GameEvent.TURBO_END:
+                turboEnded(e.message);
+                return false;
+
+            default:
+                alert(e.message);
+                if(betweenRounds()) playAgainBtn.setDisable(false);
+                return false;
+        }
+    }
 
-        if(playerTotal > dealerTotal) endRound("You win!", true,false);
-        else if(dealerTotal > playerTotal) endRound("Dealer wins.", false,false);
-        else endRound("Push.", false,true);
+    private boolean betweenRounds(){
+        return tablePhase == Phase.BETTING || tablePhase == Phase.SETTLED;
     }
 
-    private void endRound(String message, boolean playerWon, boolean push){
-        if(roundOver) return;
-        roundOver = true;
+    private void clearTable(GameEvent e){
+        tablePhase = Phase.DEALING;
+        bet = e.bet;
 
-        statusLabel.setText(message);
+        playerNodes.clear();
+        dealerNodes.clear();
+        lastGlow = null;
 
-        int winAmount = 0;
+        tablePane.getChildren().removeIf(n -> "CARD".equals(n.getUserData()));
 
-        if(push){
-            balance += bet;
-            pushes++;
-            currentStreak = 0;
-            addResult(0);
+        statusLabel.setText(e.shuffled ? "Shuffling shoe... Dealing..." : "Dealing...");
+    }
 
-        } else if(playerWon){
-            balance += bet * 2;
-            wins++;
-            currentStreak++;
-            winAmount = bet;
-            bestStreak = Math.max(bestStreak, currentStreak);
-            biggestWin = Math.max(biggestWin, winAmount);
-            addResult(1);
+    // ===============================================================================================
+    // HINTS
+    // ===============================================================================================
 
-        } else {
-            losses++;
-            currentStreak = 0;
-            addResult(-1);
-        }
+    // The engine snapshots the decision; evaluate it on the advisor thread
+    private void requestHints(GameEvent e){
+        long token = ++hintToken;
 
-        gamesPlayed++;
-        updateStatsHUD();
+        hintExecutor.execute(() -> {
+            Advice a = advisor.advise(e.hard, e.hasAce, e.upSlot, e.unseen, e.canDouble);
+            Platform.runLater(() -> {
+                if(token == hintToken) showHints(a);
+            });
+        });
+    }
 
-        balanceLabel.setText("Balance: ₹"+balance);
+    private void showHints(Advice a){
+        showEv(hitEvLabel, a.hit, a.best == RoundEngine.Action.HIT);
+        showEv(standEvLabel, a.stand, a.best == RoundEngine.Action.STAND);
+        showEv(doubleEvLabel, a.dbl, a.best == RoundEngine.Action.DOUBLE);
+    }
 
-        setButtonsEnabled(false);
-        playAgainBtn.setDisable(false);
+    private void showEv(Label l, double ev, boolean best){
+        l.setText(Double.isNaN(ev) ? "" : String.format("EV %+.3f", ev));
+        l.setTextFill(best ? Color.web("#FFD966") : Color.web("#E8EEF2"));
+    }
+
+    private void clearHints(){
+        hintToken++;
+        hitEvLabel.setText("");
+        standEvLabel.setText("");
+        doubleEvLabel.setText("");
     }
 
     // ===============================================================================================
@@ -612,6 +909,16 @@ public class BlackJack extends Application {
     // ===============================================================================================
 
     private void updateStatsHUD(){
+        if(replay != null){
+            RoundJournal.Totals t = replay.shown();
+            gamesLabel.setText("Games: " + t.games);
+            winsLabel.setText("Wins: " + t.wins);
+            lossesLabel.setText("Losses: " + t.losses);
+            pushesLabel.setText("Pushes: " + t.pushes);
+            streakLabel.setText("Best Streak: " + t.bestStreak);
+            biggestWinLabel.setText("Biggest Win: ₹" + t.biggestWin);
+            return;
+        }
         gamesLabel.setText("Games: " + gamesPlayed);
         winsLabel.setText("Wins: " + wins);
         lossesLabel.setText("Losses: " + losses);
@@ -620,363 +927,385 @@ public class BlackJack extends Application {
         biggestWinLabel.setText("Biggest Win: ₹" + biggestWin);
     }
 
-    private void addResult(int r){
-        last10.addLast(r);
-        if(last10.size() > 10) last10.removeFirst();
-        drawGraph();
+    private void toggleCount(){
+        hudCount.setVisible(!hudCount.isVisible());
+        markHudDirty();
     }
 
-    private void drawGraph(){
-        GraphicsContext g = graphCanvas.getGraphicsContext2D();
-        double w = graphCanvas.getWidth();
-        double h = graphCanvas.getHeight();
-
-        g.setFill(Color.color(1,1,1,0.08));
-        g.fillRect(0,0,w,h);
-
-        g.setStroke(Color.WHITE);
-        g.setLineWidth(1.5);
-        g.setGlobalAlpha(0.25);
-        g.strokeLine(0, h*0.75, w, h*0.75);
-        g.strokeLine(0, h*0.5, w, h*0.5);
-        g.strokeLine(0, h*0.25, w, h*0.25);
-        g.setGlobalAlpha(1.0);
-
-        if(last10.isEmpty()) return;
-
-        int n = last10.size();
-        double step = w / Math.max(1, n - 1);
-
-        Iterator<Integer> it = last10.iterator();
-        double px = 0, py = 0;
-        boolean first = true;
-
-        for(int i=0; i<n; i++){
-            int val = it.next();
-            double y = (val == -1 ? h*0.75 : val == 0 ? h*0.5 : h*0.25);
-            double x = i * step;
-
-            if(first){
-                px = x; py = y;
-                first = false;
-            } else {
-                g.strokeLine(px, py, x, y);
-                px = x; py = y;
+    // Running and true counts of the cards shown so far; nothing is shown before the first deal
+    private void updateCountHUD(){
+        for(CountSystem s : CountSystem.values()){
+            Label l = countLabels[s.ordinal()];
+            if(countUnseen == 0){
+                l.setText(s.label + ": -");
+                continue;
             }
-
-            g.fillOval(x-3,y-3,6,6);
+            int rc = CountTracker.running(count, s);
+            l.setText(s.balanced
+                    ? String.format("%s: RC %+d  TC %+.1f", s.label, rc, CountTracker.trueCount(count, countUnseen, s))
+                    : String.format("%s: RC %+d", s.label, rc));
         }
+        decksLeftLabel.setText(String.format("Decks left: %.1f", countUnseen / 52.0));
     }
 
-    // ===============================================================================================
-    // CARDS + ANIMATION
-    // ===============================================================================================
-
-    private void dealTo(List<Card> hand, List<Node> nodes, boolean faceUp, boolean hideDealerSecond, Runnable after){
-        Card card = deck.draw();
-        hand.add(card);
-
-        boolean faceDown = (hand == dealerHand && !dealerRevealed && hand.size() == 2 && hideDealerSecond);
-
-        Node cardNode = createCardNode(card, !faceDown);
-        cardNode.setUserData("CARD");
-        nodes.add(cardNode);
+    private void addResult(int r, int balanceAfter){
+        history.add(r, balanceAfter);
+    }
 
-        cardNode.setLayoutX(deckX);
-        cardNode.setLayoutY(deckY);
-        tablePane.getChildren().add(cardNode);
+    private void markHudDirty(){
+        if(hudDirty) return;
+        hudDirty = true;
+        Platform.requestNextPulse();
+    }
 
-        Platform.runLater(() -> {
-            int count = hand.size();
-
-            double totalW = Math.max(1, tablePane.getWidth());
-            double margin = 40;
-            double usable = totalW - 2*margin;
-            double spacing = (count <= 1) ? 0 : Math.min(160, Math.max(60,(usable - CARD_W)/(count - 1)));
-            double groupWidth = (count - 1) * spacing + CARD_W;
-            double startX = (totalW - groupWidth)/2.0;
-
-            int index = count - 1;
-            double tx = startX + index*spacing;
-            double ty = (hand == playerHand) ? (tablePane.getHeight()-320) : 120;
-
-            TranslateTransition tt = new TranslateTransition(Duration.millis(340), cardNode);
-            tt.setToX(tx - deckX);
-            tt.setToY(ty - deckY);
-            tt.setInterpolator(Interpolator.EASE_OUT);
-
-            RotateTransition rt = new RotateTransition(Duration.millis(260), cardNode);
-            rt.setByAngle(ThreadLocalRandom.current().nextDouble(-6,6));
-
-            ParallelTransition pt = new ParallelTransition(tt, rt);
-
-            pt.setOnFinished(ev -> {
-                cardNode.setTranslateX(0);
-                cardNode.setTranslateY(0);
-                cardNode.setLayoutX(tx);
-                cardNode.setLayoutY(ty);
-                applyGlow(cardNode);
-                if(after != null) after.run();
-            });
+    // Pre-layout pulse listener
+    private void flushHud(){
+        if(!hudDirty) return;
+        hudDirty = false;
 
-            pt.play();
-        });
+        balanceLabel.setText("Balance: ₹" + balance);
+        betLabel.setText("Bet: ₹" + bet);
+        updateStatsHUD();
+        if(hudCount.isVisible()) updateCountHUD();
+        drawGraph();
     }
 
-    private Node createCardNode(Card c, boolean faceUp){
-        StackPane sp = new StackPane();
-        sp.setPrefSize(CARD_W, CARD_H);
+    private void drawGraph(){
+        historyChart.redraw();
+        historyLabel.setText(historyChart.describe());
+    }
 
-        Rectangle rect = new Rectangle(CARD_W, CARD_H);
-        rect.setArcWidth(18); rect.setArcHeight(18);
-        rect.setStroke(Color.color(0,0,0,0.75));
-        rect.setStrokeWidth(2);
+    // ===============================================================================================
+    // TURBO
+    // ===============================================================================================
 
-        if(faceUp){
-            rect.setFill(Color.WHITE);
+    // Rounds are played on the engine thread with no cards on the table
+    private void onTurbo(){
+        if(turbo){
+            turboBtn.setDisable(true);                  // until the engine confirms
+            engine.stopTurbo();
+            return;
+        }
+        if(!betweenRounds() || presenting || !script.isEmpty()) return;     // finish the hand first
 
-            Rectangle shine = new Rectangle(CARD_W - 6, 36);
-            shine.setArcWidth(14); shine.setArcHeight(14);
-            shine.setTranslateY(CARD_H/2 - 22);
-            shine.setFill(new LinearGradient(0,0,0,1,true, CycleMethod.NO_CYCLE,
-                    new Stop(0, Color.color(0,0,0,0)),
-                    new Stop(1, Color.color(0,0,0,0.22))));
+        turbo = true;
+        clearHints();
+        clearCards();
 
-            Text tl = new Text(c.rank.label);
-            tl.setFont(Font.font("SansSerif", FontWeight.BOLD, 22));
-            tl.setTranslateX(-CARD_W/2 + 16);
-            tl.setTranslateY(-CARD_H/2 + 28);
+        setButtonsEnabled(false);
+        playAgainBtn.setDisable(true);
+        strategyBox.setDisable(true);
+        turboBtn.setText("Stop");
+
+        engine.startTurbo(
+                STRATEGIES[strategyBox.getSelectionModel().getSelectedIndex()],
+                RATES[rateBox.getSelectionModel().getSelectedIndex()],
+                bet);
+    }
 
-            Text sl = new Text(c.suit.symbol);
-            sl.setFont(Font.font("SansSerif", FontWeight.BOLD, 22));
-            sl.setTranslateX(-CARD_W/2 + 16);
-            sl.setTranslateY(-CARD_H/2 + 54);
+    private void turboEnded(String msg){
+        turbo = false;
 
-            Text big = new Text(c.suit.symbol);
-            big.setFont(Font.font("SansSerif", FontWeight.BOLD, 48));
+        turboBtn.setText("Turbo");
+        strategyBox.setDisable(false);
+        statusLabel.setText(msg);
+        setButtonsEnabled(false);
+    }
 
-            Paint color = c.suit.isRed() ? Color.web("#C21E1E") : Color.BLACK;
-            tl.setFill(color);
-            sl.setFill(color);
-            big.setFill(color);
+    // Fold a batch of auto-played rounds into the session stats
+    private void recordBatch(GameEvent e){
+        gamesPlayed += e.rounds;
+        wins += e.wins;
+        losses += e.losses;
+        pushes += e.pushes;
 
-            sp.getChildren().addAll(rect, shine, tl, sl, big);
+        bestStreak = Math.max(bestStreak, Math.max(e.bestRun, currentStreak + e.leadWins));
+        currentStreak = e.leadWins == e.rounds ? currentStreak + e.rounds : e.tailWins;
+        biggestWin = Math.max(biggestWin, e.biggestNet);
 
-        } else {
-            rect.setFill(Color.web("#1E3278"));
-            rect.setStroke(Color.WHITE);
+        for(int i = 0; i < e.rounds; i++) addResult(e.resultAt(i), e.balanceAt(i));
+    }
 
-            Rectangle pattern = new Rectangle(CARD_W - 24, CARD_H - 24);
-            pattern.setArcWidth(14);
-            pattern.setArcHeight(14);
-            pattern.setFill(Color.color(1,1,1,0.15));
+    // ===============================================================================================
+    // REPLAY
+    // ===============================================================================================
 
-            sp.getChildren().addAll(rect, pattern);
+    // F5: pick a recorded session and play it back in place of the live table; F5 again leaves
+    private void onReplay(){
+        if(replay != null){
+            closeReplay();
+            return;
         }
+        if(turbo || !betweenRounds() || presenting || !script.isEmpty()) return;     // finish the hand first
 
-        return sp;
-    }
-
-    private void revealDealer(Runnable after){
-        if(dealerNodes.size() >= 2){
-            Node n = dealerNodes.get(1);
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Replay session");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Recorded sessions", "*.bjr"));
+        File dir = sessionsDir().toFile();
+        if(dir.isDirectory()) chooser.setInitialDirectory(dir);
 
-            ScaleTransition s1 = new ScaleTransition(Duration.millis(120), n);
-            s1.setToX(0);
+        File file = chooser.showOpenDialog(rootStack.getScene().getWindow());
+        if(file != null) openReplay(file.toPath());
+    }
 
-            ScaleTransition s2 = new ScaleTransition(Duration.millis(120), n);
-            s2.setToX(1);
+    private void openReplay(Path file){
+        SessionReplay session;
+        try {
+            session = new SessionReplay(file);
+        } catch(IOException | RuntimeException ex){
+            alert("Cannot replay " + file.getFileName() + ": " + ex.getMessage());
+            return;
+        }
 
-            s1.setOnFinished(e -> setCardFaceUp(n, dealerHand.get(1)));
+        liveBalance = balance;
+        liveBet = bet;
+        livePhase = tablePhase;
+        clearHints();
+        clearCards();
+
+        replay = new ReplayViewer(session, tweens, this::makeButton, e -> {
+            script.addLast(e);
+            present();
+        }, this::resetTable, this::closeReplay);
+
+        chipRack.setVisible(false);
+        controlsBar.setVisible(false);
+        Node bar = replay.node();
+        overlay.getChildren().add(bar);
+        AnchorPane.setBottomAnchor(bar, 20.0);
+        AnchorPane.setLeftAnchor(bar, 20.0);
+        AnchorPane.setRightAnchor(bar, 320.0);
+
+        statusLabel.setText("Replaying " + file.getFileName());
+        replay.start();
+    }
 
-            SequentialTransition seq = new SequentialTransition(s1, s2);
-            seq.setOnFinished(e -> {
-                computeTotals();
-                if(after != null) after.run();
-            });
+    private void closeReplay(){
+        overlay.getChildren().remove(replay.node());
+        replay.close();
+        replay = null;
+
+        tweens.setSpeed(1);
+        resetTable();
+        balance = liveBalance;
+        bet = liveBet;
+        tablePhase = livePhase;
+
+        chipRack.setVisible(true);
+        controlsBar.setVisible(true);
+        statusLabel.setText("Replay closed");
+        markHudDirty();
+    }
 
-            seq.play();
+    // Drop whatever the replay had queued or in flight and clear the cards
+    private void resetTable(){
+        script.clear();
+        tweens.finishAll();
+        presenting = false;
+        clearCards();
+    }
 
-        } else {
-            if(after != null) after.run();
-        }
+    private void clearCards(){
+        tablePane.getChildren().removeIf(n -> "CARD".equals(n.getUserData()));
+        playerNodes.clear();
+        dealerNodes.clear();
+        lastGlow = null;
+        totalsLayer.setVisible(false);
     }
 
-    private void setCardFaceUp(Node node, Card c){
-        if(!(node instanceof StackPane sp)) return;
+    // ===============================================================================================
+    // CARDS + ANIMATION
+    // ===============================================================================================
+
+    // Cards fly from the deck on the shared tween engine; several can be in flight at once
+    private void showCard(boolean toPlayer, int code, boolean hidden, double delay, Runnable after){
+        List<Node> nodes = toPlayer ? playerNodes : dealerNodes;
 
-        sp.getChildren().clear();
+        Node cardNode = createCardNode(code, !hidden);
+        cardNode.setUserData("CARD");
+        cardNode.getProperties().put("anim", Boolean.TRUE);
+        nodes.add(cardNode);
 
-        Rectangle rect = new Rectangle(CARD_W, CARD_H);
-        rect.setArcWidth(18);
-        rect.setArcHeight(18);
-        rect.setFill(Color.WHITE);
-        rect.setStroke(Color.color(0,0,0,0.75));
+        cardNode.setLayoutX(deckX);
+        cardNode.setLayoutY(deckY);
+        tablePane.getChildren().add(cardNode);
+        cacheInFlight(cardNode, true);
 
-        Rectangle shine = new Rectangle(CARD_W - 6, 36);
-        shine.setArcWidth(14);
-        shine.setArcHeight(14);
-        shine.setTranslateY(CARD_H/2 - 22);
-        shine.setFill(new LinearGradient(0,0,0,1,true, CycleMethod.NO_CYCLE,
-                new Stop(0, Color.color(0,0,0,0)),
-                new Stop(1, Color.color(0,0,0,0.22))));
+        int count = nodes.size();
 
-        Text tl = new Text(c.rank.label);
-        tl.setFont(Font.font("SansSerif", FontWeight.BOLD, 22));
-        tl.setTranslateX(-CARD_W/2 + 16);
-        tl.setTranslateY(-CARD_H/2 + 28);
+        double totalW = Math.max(1, tablePane.getWidth());
+        double margin = 40;
+        double usable = totalW - 2*margin;
+        double spacing = (count <= 1) ? 0 : Math.min(160, Math.max(60,(usable - CARD_W)/(count - 1)));
+        double groupWidth = (count - 1) * spacing + CARD_W;
+        double startX = (totalW - groupWidth)/2.0;
+
+        int index = count - 1;
+        double tx = startX + index*spacing;
+        double ty = toPlayer ? (tablePane.getHeight()-320) : 120;
+
+        double angle = ThreadLocalRandom.current().nextDouble(-6,6);
+        tweens.to(cardNode, TweenEngine.ROTATE, angle, 260, delay, TweenEngine.LINEAR, null);
+        tweens.to(cardNode, TweenEngine.TRANSLATE_X, tx - deckX, 340, delay, TweenEngine.EASE_OUT, null);
+        tweens.to(cardNode, TweenEngine.TRANSLATE_Y, ty - deckY, 340, delay, TweenEngine.EASE_OUT, () -> {
+            cardNode.getProperties().remove("anim");
+            cardNode.setTranslateX(0);
+            cardNode.setTranslateY(0);
+            cardNode.setLayoutX(tx);
+            cardNode.setLayoutY(ty);
+            cacheInFlight(cardNode, false);
+            applyGlow(cardNode);
+            if(after != null) after.run();
+        });
+    }
 
-        Text sl = new Text(c.suit.symbol);
-        sl.setFont(Font.font("SansSerif", FontWeight.BOLD, 22));
-        sl.setTranslateX(-CARD_W/2 + 16);
-        sl.setTranslateY(-CARD_H/2 + 54);
+    private Node createCardNode(int code, boolean faceUp){
+        return atlas.createView(faceUp ? code : CardAtlas.BACK);
+    }
 
-        Text big = new Text(c.suit.symbol);
-        big.setFont(Font.font("SansSerif", FontWeight.BOLD, 48));
+    private void revealDealer(int code, Runnable after){
+        if(dealerNodes.size() >= 2){
+            Node n = dealerNodes.get(1);
+            cacheInFlight(n, true);
+
+            tweens.to(n, TweenEngine.SCALE_X, 0, 120, 0, TweenEngine.EASE_BOTH, () -> {
+                setCardFaceUp(n, code);
+                n.setCache(false);          // drop the bitmap of the back
+                cacheInFlight(n, true);
+                tweens.to(n, TweenEngine.SCALE_X, 1, 120, 0, TweenEngine.EASE_BOTH, () -> {
+                    cacheInFlight(n, false);
+                    if(after != null) after.run();
+                });
+            });
 
-        Paint color = c.suit.isRed() ? Color.web("#C21E1E") : Color.BLACK;
-        tl.setFill(color);
-        sl.setFill(color);
-        big.setFill(color);
+        } else {
+            if(after != null) after.run();
+        }
+    }
 
-        sp.getChildren().addAll(rect, shine, tl, sl, big);
+    private void setCardFaceUp(Node node, int code){
+        if(node instanceof ImageView v) atlas.show(v, code);
     }
 
     private void applyGlow(Node n){
         if(lastGlow != null) lastGlow.setEffect(null);
+        lastGlow = n;
+        if(!glowEnabled) return;
 
-        DropShadow glow = new DropShadow();
-        glow.setRadius(24);
-        glow.setSpread(0.12);
-        glow.setColor(Color.color(1,1,0.7,0.8));
+        if(glow == null){
+            glow = new DropShadow();
+            glow.setRadius(24);
+            glow.setSpread(0.12);
+            glow.setColor(Color.color(1,1,0.7,0.8));
+        }
 
         n.setEffect(glow);
-        lastGlow = n;
+    }
+
+    // Bitmap-cache a moving card at lower tiers; translate/rotate/scale then reuse the bitmap
+    private void cacheInFlight(Node n, boolean moving){
+        if(moving && !cacheCardsInFlight) return;
+        n.setCache(moving);
+        n.setCacheHint(moving ? CacheHint.SPEED : CacheHint.DEFAULT);
     }
 
     // ===============================================================================================
-    // TOTALS + LAYOUT
+    // RENDER QUALITY
     // ===============================================================================================
 
-    private void computeTotals(){
-        playerTotal = handValue(playerHand);
-        dealerTotal = handValue(dealerHand);
+    private void applyQuality(int tier){
+        glowEnabled = tier == QualityGovernor.HIGH;
+        cacheCardsInFlight = tier >= QualityGovernor.MEDIUM;
 
-        int shownDealer = dealerRevealed ?
-                dealerTotal :
-                (dealerHand.isEmpty() ? 0 : cardValue(dealerHand.get(0)));
+        if(!glowEnabled && lastGlow != null) lastGlow.setEffect(null);
 
-        dealerTotalLabel.setText("Dealer: " + shownDealer);
-        playerTotalLabel.setText("You: " + playerTotal);
-
-        layoutAllCards();
+        for(Node n : tablePane.getChildren()){
+            if("DECK".equals(n.getUserData())) setShadow(n, tier == QualityGovernor.HIGH);
+        }
+        for(Node n : List.of(hudTopLeft, hudTopRight, hudCount, hudBottomRight, chipRack, diagnostics.node())){
+            setShadow(n, tier < QualityGovernor.LOW);
+        }
 
-        // ✅ ADD THIS
-        centerTotalsBetweenCards();
+        tablePane.setRotate(tier == QualityGovernor.LOW ? 0 : TABLE_TILT);
     }
 
+    // Park a node's effect in its properties while shadows are off
+    private void setShadow(Node n, boolean on){
+        if(on){
+            Object e = n.getProperties().remove("qualityEffect");
+            if(e != null) n.setEffect((Effect) e);
+        } else if(n.getEffect() != null){
+            n.getProperties().put("qualityEffect", n.getEffect());
+            n.setEffect(null);
+        }
+    }
 
-   private void centerTotalsBetweenCards() {
-
-        tablePane.getChildren().removeIf(n -> "CENTER_TOTAL".equals(n.getUserData()));
-
-        double w = tablePane.getWidth();
-
-        // ===== EASY VALUES YOU CAN CHANGE =====
-        double centerX = w / 2 + 10;   // ← change this to move left / right
-        double dealerY = 370;         // ← dealer total vertical position
-        double playerY = 430;         // ← your total vertical position
-        // =====================================
-
-        int shownDealer = dealerRevealed ?
-                dealerTotal :
-                (dealerHand.isEmpty() ? 0 : cardValue(dealerHand.get(0)));
-
-        // Dealer text
-        Text dealerText = new Text("Dealer: " + shownDealer);
-        dealerText.setFont(Font.font("Segoe UI", FontWeight.BOLD, 26));
-        dealerText.setFill(Color.WHITE);
-        dealerText.setUserData("CENTER_TOTAL");
-
-        dealerText.setLayoutX(centerX - dealerText.getBoundsInLocal().getWidth()/2);
-        dealerText.setLayoutY(dealerY);
-
-
-        // Player text
-        Text playerText = new Text("You: " + playerTotal);
-        playerText.setFont(Font.font("Segoe UI", FontWeight.BOLD, 26));
-        playerText.setFill(Color.WHITE);
-        playerText.setUserData("CENTER_TOTAL");
+    // ===============================================================================================
+    // TOTALS + LAYOUT
+    // ===============================================================================================
 
-        playerText.setLayoutX(centerX - playerText.getBoundsInLocal().getWidth()/2);
-        playerText.setLayoutY(playerY);
+    private void applyTotals(GameEvent e){
+        // Bound labels and center texts only update when a value really changes
+        dealerShownValue.set(e.dealerShown);
+        playerTotalValue.set(e.playerTotal);
+        totalsLayer.setVisible(true);
 
-        tablePane.getChildren().addAll(dealerText, playerText);
+        layoutAllCards();
     }
 
+    // Persistent center totals; they only move when the table width or their text changes
+    private void buildTotalsLayer(){
+        dealerCenterText = totalsText();
+        dealerCenterText.textProperty().bind(dealerShownValue.asString("Dealer: %d"));
 
+        playerCenterText = totalsText();
+        playerCenterText.textProperty().bind(playerTotalValue.asString("You: %d"));
 
+        totalsLayer = new Group(dealerCenterText, playerCenterText);
+        totalsLayer.setManaged(false);
+        totalsLayer.setMouseTransparent(true);
+        totalsLayer.setViewOrder(-1);     // stay above cards dealt later
+        totalsLayer.setVisible(false);
 
-    private static int handValue(List<Card> hand){
-        int sum = 0;
-        int aces = 0;
-
-        for(Card c : hand){
-            sum += cardValue(c);
-            if(c.rank == Rank.ACE) aces++;
-        }
-
-        while(sum > 21 && aces > 0){
-            sum -= 10;
-            aces--;
-        }
+        tablePane.widthProperty().addListener((a,b,c)-> positionTotals());
+        dealerCenterText.layoutBoundsProperty().addListener((a,b,c)-> positionTotals());
+        playerCenterText.layoutBoundsProperty().addListener((a,b,c)-> positionTotals());
 
-        return sum;
+        tablePane.getChildren().add(totalsLayer);
+        positionTotals();
     }
 
-    private static int cardValue(Card c){
-        if(c.rank == Rank.ACE) return 11;
-        if(c.rank.numeric >= 10) return 10;
-        return c.rank.numeric;
+    private Text totalsText(){
+        Text t = new Text();
+        t.setFont(Font.font("Segoe UI", FontWeight.BOLD, 26));
+        t.setFill(Color.WHITE);
+        return t;
     }
 
-    private void checkNaturalBlackjack(){
-        if(playerTotal == 21){
-            dealerRevealed = true;
+    private void positionTotals() {
 
-            revealDealer(() -> {
-                if(dealerTotal == 21){
-                    endRound("Push! Both have 21.", false,true);
-                } else {
-                    roundOver = true;
-                    balance += bet + Math.round(1.5 * bet);
-                    balanceLabel.setText("Balance: ₹"+balance);
-
-                    statusLabel.setText("Blackjack! You win (3:2)");
+        double w = tablePane.getWidth();
 
-                    wins++;
-                    gamesPlayed++;
-                    currentStreak++;
-                    bestStreak = Math.max(bestStreak, currentStreak);
-                    biggestWin = Math.max(biggestWin, (int)Math.round(1.5 * bet));
+        // ===== EASY VALUES YOU CAN CHANGE =====
+        double centerX = w / 2 + 10;   // ← change this to move left / right
+        double dealerY = 370;         // ← dealer total vertical position
+        double playerY = 430;         // ← your total vertical position
+        // =====================================
 
-                    addResult(1);
-                    updateStatsHUD();
+        dealerCenterText.setLayoutX(centerX - dealerCenterText.getLayoutBounds().getWidth()/2);
+        dealerCenterText.setLayoutY(dealerY);
 
-                    setButtonsEnabled(false);
-                    playAgainBtn.setDisable(false);
-                }
-            });
-        }
+        playerCenterText.setLayoutX(centerX - playerCenterText.getLayoutBounds().getWidth()/2);
+        playerCenterText.setLayoutY(playerY);
     }
 
     private void layoutAllCards(){
-        layoutHand(dealerHand, dealerNodes, false, 120);
-        layoutHand(playerHand, playerNodes, true, tablePane.getHeight() - 320);
+        layoutHand(dealerNodes, 120);
+        layoutHand(playerNodes, tablePane.getHeight() - 320);
     }
 
-    private void layoutHand(List<Card> hand, List<Node> nodes, boolean isPlayer, double y){
-        int count = hand.size();
+    private void layoutHand(List<Node> nodes, double y){
+        int count = nodes.size();
         if(count == 0) return;
 
         double W = tablePane.getWidth();
@@ -1023,24 +1352,43 @@ public class BlackJack extends Application {
     // UTILS
     // ===============================================================================================
 
+    private void dumpDiagnostics(){
+        Path dir = Path.of(System.getProperty("user.home"), ".blackjack", "diagnostics");
+        diagnostics.dump(dir).whenComplete((file, ex) -> {
+            System.out.println(ex == null ? "Diagnostics: " + file : "Diagnostics dump failed: " + ex);
+            Platform.runLater(() -> statusLabel.setText(ex == null ? "Diagnostics saved" : "Diagnostics dump failed"));
+        });
+    }
+
+    // Dialogs never block: no nested event loop in the middle of game flow
     private void alert(String msg){
         Alert a = new Alert(Alert.AlertType.INFORMATION, msg, ButtonType.OK);
         a.setHeaderText(null);
-        a.showAndWait();
+        a.show();
+    }
+
+    private void confirm(String msg, Runnable onYes){
+        confirm(msg, onYes, () -> { });
     }
 
-    private boolean confirm(String msg){
+    // onNo also runs when the dialog is closed without an answer
+    private void confirm(String msg, Runnable onYes, Runnable onNo){
         Alert a = new Alert(Alert.AlertType.CONFIRMATION, msg, ButtonType.YES, ButtonType.NO);
         a.setHeaderText(null);
-        Optional<ButtonType> r = a.showAndWait();
-        return r.isPresent() && r.get() == ButtonType.YES;
+        a.setOnHidden(e -> {
+            if(a.getResult() == ButtonType.YES) onYes.run();
+            else onNo.run();
+        });
+        a.show();
     }
 
     private void setButtonsEnabled(boolean enabled){
         hitBtn.setDisable(!enabled);
         standBtn.setDisable(!enabled);
         doubleBtn.setDisable(!enabled);
+        surrenderBtn.setDisable(!enabled);
         playAgainBtn.setDisable(enabled);
+        turboBtn.setDisable(enabled);
     }
 
     // ===============================================================================================
@@ -0,0 +1,44 @@
+package blackjack.bench;
+
+import blackjack.CardModel;
+import blackjack.DealerOdds;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Dealer final-total distribution: a cold computation versus a memoized hit
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DealerOddsBenchmark {
+
+    // Upcard slot: 0 = ace, 1 = two ... 9 = ten
+    @Param({"0", "1", "5", "9"})
+    public int upSlot;
+
+    @Param({"6"})
+    public int decks;
+
+    private final int[] unseen = new int[CardModel.VALUES];
+    private final DealerOdds warm = new DealerOdds();
+
+    @Setup(Level.Trial)
+    public void setup(){
+        for(int v = 0; v < CardModel.VALUES; v++) unseen[v] = (v == 9 ? 16 : 4) * decks;
+        unseen[upSlot]--;
+        warm.finalTotals(upSlot, unseen);
+    }
+
+    @Benchmark
+    public double[] cold(){
+        return new DealerOdds().finalTotals(upSlot, unseen);
+    }
+
+    @Benchmark
+    public double[] cached(){
+        return warm.finalTotals(upSlot, unseen);
+    }
+}
@@ -0,0 +1,72 @@
+package blackjack.bench;
+
+import blackjack.CardModel.Card;
+import blackjack.CardModel.Deck;
+import blackjack.CardModel.Shoe;
+import blackjack.Rngs;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.random.RandomGenerator;
+import java.util.concurrent.TimeUnit;
+
+// Deck construction, shuffle and draw, plus the Shoe that replaced per-round decks
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DeckBenchmark {
+
+    private RandomGenerator random;
+    private Deck deck;
+    private Shoe shoe;
+
+    @Setup(Level.Trial)
+    public void setup(){
+        random = Rngs.create(Rngs.DEFAULT, 42);
+        deck = new Deck(random);
+        shoe = new Shoe(6, 0.75, random);
+    }
+
+    @Benchmark
+    public Deck construct(){
+        return new Deck(random);
+    }
+
+    @Benchmark
+    public Deck shuffle(){
+        deck.shuffle();
+        return deck;
+    }
+
+    // A fresh deck per invocation, drained completely
+    @State(Scope.Thread)
+    public static class FullDeck {
+        Deck deck;
+
+        @Setup(Level.Invocation)
+        public void fill(DeckBenchmark b){
+            deck = new Deck(b.random);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(52)
+    public void deckDraw(FullDeck d, Blackhole bh){
+        for(int i = 0; i < 52; i++) bh.consume(d.deck.draw());
+    }
+
+    @Benchmark
+    public Card shoeDraw(){
+        if(shoe.cutCardReached()) shoe.shuffle();
+        return shoe.draw();
+    }
+
+    @Benchmark
+    public Shoe shoeShuffle(){
+        shoe.shuffle();
+        return shoe;
+    }
+}
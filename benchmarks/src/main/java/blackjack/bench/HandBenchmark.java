@@ -0,0 +1,58 @@
+package blackjack.bench;
+
+import blackjack.CardModel;
+import blackjack.CardModel.Card;
+import blackjack.Hand;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Card values and incremental hand evaluation
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HandBenchmark {
+
+    private static final int HANDS = 1024;
+
+    // Cards per hand
+    @Param({"2", "4", "6"})
+    public int cards;
+
+    private int[][] codes;
+    private final Hand hand = new Hand();
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup(){
+        SplittableRandom r = new SplittableRandom(42);
+        codes = new int[HANDS][cards];
+        for(int[] h : codes){
+            for(int i = 0; i < h.length; i++) h[i] = r.nextInt(CardModel.CODES);
+        }
+    }
+
+    @Benchmark
+    public int cardValue(){
+        int[] h = codes[next++ & (HANDS - 1)];
+        return Card.of(h[0]).value();
+    }
+
+    // Build a hand from scratch and read every derived flag
+    @Benchmark
+    public int handValue(){
+        int[] h = codes[next++ & (HANDS - 1)];
+        hand.clear();
+        for(int c : h) hand.add(c);
+        return hand.total() + (hand.isSoft() ? 32 : 0) + (hand.isBust() ? 64 : 0);
+    }
+
+    @Benchmark
+    public int handTotalQuery(){
+        return hand.total();
+    }
+}
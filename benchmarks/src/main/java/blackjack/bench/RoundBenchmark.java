@@ -0,0 +1,40 @@
+package blackjack.bench;
+
+import blackjack.CardModel.Shoe;
+import blackjack.Rngs;
+import blackjack.RoundEngine;
+import blackjack.RoundEngine.Outcome;
+import blackjack.Strategies;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// One complete headless round: deal, player strategy, dealer play and settlement
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RoundBenchmark {
+
+    @Param({"BASIC", "MIMIC_DEALER"})
+    public String strategy;
+
+    @Param({"1", "6"})
+    public int decks;
+
+    private RoundEngine engine;
+    private RoundEngine.Strategy playerStrategy;
+
+    @Setup(Level.Trial)
+    public void setup(){
+        engine = new RoundEngine(new Shoe(decks, 0.75, Rngs.create(Rngs.DEFAULT, 42)));
+        playerStrategy = Strategies.byName(strategy);
+    }
+
+    @Benchmark
+    public Outcome round(){
+        return engine.playRound(100, playerStrategy);
+    }
+}
@@ -0,0 +1,34 @@
+package blackjack.bench;
+
+import blackjack.CardModel.Shoe;
+import blackjack.Rngs;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Six-deck shoe shuffle throughput per generator. Run with -t N to check
+// that per-thread streams shuffle without contention.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ShuffleBenchmark {
+
+    @Param({"Random", "SplittableRandom", "L64X128MixRandom", "L64X256MixRandom", "Xoshiro256PlusPlus"})
+    public String algorithm;
+
+    private Shoe shoe;
+
+    @Setup(Level.Trial)
+    public void setup(){
+        shoe = new Shoe(6, 0.75, Rngs.create(algorithm, 42));
+    }
+
+    @Benchmark
+    public Shoe shuffle(){
+        shoe.shuffle();
+        return shoe;
+    }
+}
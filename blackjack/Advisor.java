@@ -0,0 +1,205 @@
+package blackjack;
+
+import blackjack.RoundEngine.Action;
+
+// Composition-dependent expected value of Hit / Stand / Double for the
+// current player hand, dealer upcard and unseen cards. EVs are per unit of the
+// current bet and exact for draws without replacement.
+//
+// Sub-results are memoized in LRU-bounded caches keyed by the canonical
+// (hand, upcard, peeked, composition) state, so memory stays flat over a session.
+// Not thread-safe: the table runs it on one background thread.
+public class Advisor {
+
+    private static final int MAX_ENTRIES = 1 << 16;
+
+    // ===== Result =====
+    public static class Advice {
+        public final double hit;
+        public final double stand;
+        public final double dbl;      // NaN when doubling is not allowed
+        public final Action best;
+
+        Advice(double hit, double stand, double dbl){
+            this.hit = hit;
+            this.stand = stand;
+            this.dbl = dbl;
+
+            Action b = stand >= hit ? Action.STAND : Action.HIT;
+            if(!Double.isNaN(dbl) && dbl > Math.max(hit, stand)) b = Action.DOUBLE;
+            this.best = b;
+        }
+
+        public double ev(Action a){
+            switch(a){
+                case HIT: return hit;
+                case DOUBLE: return dbl;
+                default: return stand;
+            }
+        }
+    }
+
+    // ===== Canonical state key =====
+    private static final class Key {
+        final long comp;
+        final int state;      // hard total, peek and soft flags, upcard slot
+
+        Key(long comp, int hard, boolean hasAce, int upSlot, boolean peeked){
+            this.comp = comp;
+            this.state = (hard << 6) | (peeked ? 32 : 0) | (hasAce ? 16 : 0) | upSlot;
+        }
+
+        @Override
+        public boolean equals(Object o){
+            if(!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return k.comp == comp && k.state == state;
+        }
+
+        @Override
+        public int hashCode(){
+            return Long.hashCode(comp * 31 + state);
+        }
+    }
+
+    private final DealerOdds dealer;
+    private final boolean peek;
+    private final LruCache<Key, Double> standCache = new LruCache<>(MAX_ENTRIES);
+    private final LruCache<Key, Double> hitCache = new LruCache<>(MAX_ENTRIES);
+
+    public Advisor(){
+        this(TableRules.CLASSIC);
+    }
+
+    // The dealer draws by these rules
+    public Advisor(TableRules rules){
+        dealer = new DealerOdds(rules);
+        peek = rules.peek;
+    }
+
+    // hard: player total with aces as 1; unseen: composition, not modified
+    public Advice advise(int hard, boolean hasAce, int upSlot, int[] unseen, boolean canDouble){
+        return advise(hard, hasAce, upSlot, unseen, canDouble, peek);
+    }
+
+    // peeked: the dealer has checked an ace or ten upcard for a natural and has none
+    public Advice advise(int hard, boolean hasAce, int upSlot, int[] unseen, boolean canDouble, boolean peeked){
+        peeked &= upSlot == 0 || upSlot == 9;
+        int[] comp = unseen.clone();
+        double stand = stand(hard, hasAce, upSlot, peeked, comp);
+        double hit = hit(hard, hasAce, upSlot, peeked, comp);
+        double dbl = canDouble ? doubleDown(hard, hasAce, upSlot, peeked, comp) : Double.NaN;
+        return new Advice(hit, stand, dbl);
+    }
+
+    public Advice advise(Hand hand, int upSlot, int[] unseen, boolean canDouble){
+        return advise(hand.hardTotal(), hand.aces() > 0, upSlot, unseen, canDouble);
+    }
+
+    // Hand the RoundEngine's current round to the advisor
+    public Advice advise(RoundEngine round){
+        int[] unseen = new int[CardModel.VALUES];
+        round.unseen(unseen);
+        return advise(round.playerHand().hardTotal(), round.playerHand().aces() > 0, round.dealerUpSlot(), unseen,
+                round.canDouble(), round.rules().peek);
+    }
+
+    public DealerOdds dealerOdds(){
+        return dealer;
+    }
+
+    // ===============================================================================================
+    // EV RECURSION
+    // ===============================================================================================
+
+    private double stand(int hard, boolean hasAce, int upSlot, boolean peeked, int[] comp){
+        long packed = DealerOdds.pack(comp);
+        Key key = packed >= 0 ? new Key(packed, hard, hasAce, upSlot, peeked) : null;
+
+        if(key != null){
+            Double hit = standCache.get(key);
+            if(hit != null) return hit;
+        }
+
+        int total = best(hard, hasAce);
+        double[] d = dealer.finalTotals(upSlot, comp, peeked);
+
+        double ev = d[DealerOdds.BUST];
+        for(int i = 0; i < DealerOdds.BUST; i++){
+            int t = 17 + i;
+            if(total > t) ev += d[i];
+            else if(total < t) ev -= d[i];
+        }
+
+        if(key != null) standCache.put(key, ev);
+        return ev;
+    }
+
+    // Best of hit-again or stand after every possible card
+    private double hit(int hard, boolean hasAce, int upSlot, boolean peeked, int[] comp){
+        long packed = DealerOdds.pack(comp);
+        Key key = packed >= 0 ? new Key(packed, hard, hasAce, upSlot, peeked) : null;
+
+        if(key != null){
+            Double hit = hitCache.get(key);
+            if(hit != null) return hit;
+        }
+
+        int left = 0;
+        for(int n : comp) left += n;
+
+        double ev = 0;
+        for(int v = 0; v < CardModel.VALUES; v++){
+            int n = comp[v];
+            if(n == 0) continue;
+
+            int h = hard + (v == 0 ? 1 : v + 1);
+            boolean a = hasAce || v == 0;
+            double p = (double) n / left;
+
+            if(h > 21){
+                ev -= p;
+                continue;
+            }
+
+            comp[v] = n - 1;
+            double next = best(h, a) == 21
+                    ? stand(h, a, upSlot, peeked, comp)
+                    : Math.max(stand(h, a, upSlot, peeked, comp), hit(h, a, upSlot, peeked, comp));
+            comp[v] = n;
+            ev += p * next;
+        }
+
+        if(key != null) hitCache.put(key, ev);
+        return ev;
+    }
+
+    // One card, then stand, for twice the stake
+    private double doubleDown(int hard, boolean hasAce, int upSlot, boolean peeked, int[] comp){
+        int left = 0;
+        for(int n : comp) left += n;
+
+        double ev = 0;
+        for(int v = 0; v < CardModel.VALUES; v++){
+            int n = comp[v];
+            if(n == 0) continue;
+
+            int h = hard + (v == 0 ? 1 : v + 1);
+            double p = (double) n / left;
+
+            if(h > 21){
+                ev -= p;
+                continue;
+            }
+
+            comp[v] = n - 1;
+            ev += p * stand(h, hasAce || v == 0, upSlot, peeked, comp);
+            comp[v] = n;
+        }
+        return 2 * ev;
+    }
+
+    private static int best(int hard, boolean hasAce){
+        return hasAce && hard + 10 <= 21 ? hard + 10 : hard;
+    }
+}
@@ -0,0 +1,74 @@
+package blackjack;
+
+import blackjack.CardModel.Shoe;
+import blackjack.CountTracker.CountSystem;
+
+// A betting ramp on one count: one unit below the threshold, two at it, then
+// one more unit per step of the count above it, up to max units. The count is
+// read from the tracker the shoe keeps current, so picking a bet never counts
+// the shoe again. Balanced systems ramp on the true count, KO on its running count.
+public class BetSpread {
+
+    private static final int UNIT = 100;    // bet per unit in main, large enough that 3:2 pays exactly
+
+    // The KO ramp runs from the six-deck key count (-4) to the pivot (+4);
+    // level-2 Omega II counts run about twice as high as Hi-Lo
+    public static final BetSpread[] PRESETS = {
+            new BetSpread("Hi-Lo 1-4", CountSystem.HI_LO, 2, 1, 4),
+            new BetSpread("Hi-Lo 1-8", CountSystem.HI_LO, 2, 1, 8),
+            new BetSpread("Hi-Lo 1-12", CountSystem.HI_LO, 2, 0.5, 12),
+            new BetSpread("KO 1-8", CountSystem.KO, -4, 4.0 / 3, 8),
+            new BetSpread("Omega II 1-8", CountSystem.OMEGA_II, 4, 2, 8),
+    };
+
+    public final String name;
+    public final CountSystem system;
+    public final double threshold;
+    public final double step;
+    public final int max;
+
+    public BetSpread(String name, CountSystem system, double threshold, double step, int max){
+        if(step <= 0 || max < 1) throw new IllegalArgumentException("step must be > 0 and max >= 1");
+        this.name = name;
+        this.system = system;
+        this.threshold = threshold;
+        this.step = step;
+        this.max = max;
+    }
+
+    // Units to bet on the next round dealt from shoe
+    public int units(CountTracker counts, Shoe shoe){
+        if(shoe.cutCardReached()) return 1;         // begin() reshuffles, the count starts over
+        double index = counts.trueCount(system);
+        if(index < threshold) return 1;
+        return (int) Math.min(max, 2 + (index - threshold) / step);
+    }
+
+    // ===============================================================================================
+    // MAIN
+    // ===============================================================================================
+
+    // Basic strategy, flat and under every preset spread, on the same seed
+    // java blackjack.BetSpread [rounds] [threads] [seed] [decks] [penetration] [rules]
+    public static void main(String[] args){
+        long rounds = args.length > 0 ? Long.parseLong(args[0]) : 10_000_000L;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+        int decks = args.length > 3 ? Integer.parseInt(args[3]) : 6;
+        double penetration = args.length > 4 ? Double.parseDouble(args[4]) : 0.75;
+        TableRules rules = args.length > 5 ? TableRules.parse(args[5]) : TableRules.CLASSIC;
+
+        System.out.printf("rounds=%,d threads=%d seed=%d decks=%d penetration=%.2f rules=%s%n", rounds, threads, seed, decks, penetration, rules);
+        System.out.printf("%-14s %9s %16s %10s %12s%n", "spread", "avg wager", "EV/round", "return", "rounds/s");
+
+        print("Flat", new Simulator(Strategies.BASIC, rules, UNIT, null, decks, penetration, threads, Rngs.DEFAULT, seed).run(rounds));
+        for(BetSpread s : PRESETS){
+            print(s.name, new Simulator(Strategies.BASIC, rules, UNIT, s, decks, penetration, threads, Rngs.DEFAULT, seed).run(rounds));
+        }
+    }
+
+    private static void print(String name, Simulator.Result r){
+        System.out.printf("%-14s %9.2f %+7.4f+/-%.4f %+9.3f%% %,12.0f%n",
+                name, r.meanUnits(), r.ev(), r.stats.standardError() / r.bet, r.returnOnBets() * 100, r.roundsPerSecond());
+    }
+}
@@ -0,0 +1,178 @@
+package blackjack;
+
+import blackjack.CardModel.Card;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.WritableImage;
+import javafx.scene.layout.Pane;
+import javafx.scene.layout.StackPane;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.CycleMethod;
+import javafx.scene.paint.LinearGradient;
+import javafx.scene.paint.Paint;
+import javafx.scene.paint.Stop;
+import javafx.scene.shape.Rectangle;
+import javafx.scene.shape.StrokeType;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.Text;
+import javafx.scene.transform.Transform;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+// All 52 faces plus the card back rendered once into a single snapshot image.
+// A card on the table is one ImageView whose viewport selects its cell.
+// Re-rendered when the output scale changes so cards stay crisp on HiDPI.
+public class CardAtlas {
+
+    public static final int BACK = CardModel.CODES;
+
+    private static final int COLS = CardModel.RANKS;
+    private static final int ROWS = 5;          // four suits + the back
+    private static final double GAP = 4;
+    private static final String INDEX_KEY = "atlasIndex";
+
+    private final double cardW;
+    private final double cardH;
+
+    private WritableImage image;
+    private double scale;
+
+    // Live card views, refreshed on re-render; weak so cleared cards can be collected
+    private final Set<ImageView> views = Collections.newSetFromMap(new WeakHashMap<>());
+
+    public CardAtlas(double cardW, double cardH){
+        this.cardW = cardW;
+        this.cardH = cardH;
+    }
+
+    // Render (or re-render) for the given output scale. FX thread only.
+    public void ensureScale(double outputScale){
+        if(image != null && outputScale == scale) return;
+
+        scale = outputScale;
+        image = render(outputScale);
+
+        for(ImageView v : views){
+            v.setImage(image);
+            v.setViewport(cell((Integer) v.getProperties().get(INDEX_KEY)));
+        }
+    }
+
+    public ImageView createView(int index){
+        ensureScale(scale == 0 ? 1 : scale);
+
+        ImageView v = new ImageView(image);
+        v.setFitWidth(cardW);
+        v.setFitHeight(cardH);
+        v.setSmooth(true);
+        show(v, index);
+        views.add(v);
+        return v;
+    }
+
+    // Point a view at a card code or BACK
+    public void show(ImageView v, int index){
+        v.getProperties().put(INDEX_KEY, index);
+        v.setViewport(cell(index));
+    }
+
+    private Rectangle2D cell(int index){
+        int col = index % COLS;
+        int row = index / COLS;
+        return new Rectangle2D(
+                col * (cardW + GAP) * scale,
+                row * (cardH + GAP) * scale,
+                cardW * scale,
+                cardH * scale);
+    }
+
+    // ===============================================================================================
+    // RENDERING
+    // ===============================================================================================
+
+    private WritableImage render(double s){
+        Pane sheet = new Pane();
+
+        for(int code = 0; code < CardModel.CODES; code++){
+            addCell(sheet, face(Card.of(code)), code);
+        }
+        addCell(sheet, back(), BACK);
+
+        SnapshotParameters params = new SnapshotParameters();
+        params.setFill(Color.TRANSPARENT);
+        params.setTransform(Transform.scale(s, s));
+
+        return sheet.snapshot(params, null);
+    }
+
+    private void addCell(Pane sheet, StackPane card, int index){
+        card.relocate((index % COLS) * (cardW + GAP), (index / COLS) * (cardH + GAP));
+        sheet.getChildren().add(card);
+    }
+
+    private StackPane face(Card c){
+        StackPane sp = new StackPane();
+        sp.setPrefSize(cardW, cardH);
+
+        Rectangle rect = new Rectangle(cardW, cardH);
+        rect.setArcWidth(18); rect.setArcHeight(18);
+        rect.setFill(Color.WHITE);
+        rect.setStroke(Color.color(0,0,0,0.75));
+        rect.setStrokeWidth(2);
+        rect.setStrokeType(StrokeType.INSIDE);
+
+        Rectangle shine = new Rectangle(cardW - 6, 36);
+        shine.setArcWidth(14); shine.setArcHeight(14);
+        shine.setTranslateY(cardH/2 - 22);
+        shine.setFill(new LinearGradient(0,0,0,1,true, CycleMethod.NO_CYCLE,
+                new Stop(0, Color.color(0,0,0,0)),
+                new Stop(1, Color.color(0,0,0,0.22))));
+
+        Font small = Font.font("SansSerif", FontWeight.BOLD, 22);
+
+        Text tl = new Text(c.rank.label);
+        tl.setFont(small);
+        tl.setTranslateX(-cardW/2 + 16);
+        tl.setTranslateY(-cardH/2 + 28);
+
+        Text sl = new Text(c.suit.symbol);
+        sl.setFont(small);
+        sl.setTranslateX(-cardW/2 + 16);
+        sl.setTranslateY(-cardH/2 + 54);
+
+        Text big = new Text(c.suit.symbol);
+        big.setFont(Font.font("SansSerif", FontWeight.BOLD, 48));
+
+        Paint color = c.suit.isRed() ? Color.web("#C21E1E") : Color.BLACK;
+        tl.setFill(color);
+        sl.setFill(color);
+        big.setFill(color);
+
+        sp.getChildren().addAll(rect, shine, tl, sl, big);
+        return sp;
+    }
+
+    private StackPane back(){
+        StackPane sp = new StackPane();
+        sp.setPrefSize(cardW, cardH);
+
+        Rectangle rect = new Rectangle(cardW, cardH);
+        rect.setArcWidth(18); rect.setArcHeight(18);
+        rect.setFill(Color.web("#1E3278"));
+        rect.setStroke(Color.WHITE);
+        rect.setStrokeWidth(2);
+        rect.setStrokeType(StrokeType.INSIDE);
+
+        Rectangle pattern = new Rectangle(cardW - 24, cardH - 24);
+        pattern.setArcWidth(14);
+        pattern.setArcHeight(14);
+        pattern.setFill(Color.color(1,1,1,0.15));
+
+        sp.getChildren().addAll(rect, pattern);
+        return sp;
+    }
+}
@@ -1,12 +1,63 @@
 package blackjack;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.Random;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
 
 public class CardModel {
 
+    // ===== Compact encoding =====
+    // code = suit.ordinal() * 13 + rank.ordinal(), 0..51
+    public static final int RANKS = 13;
+    public static final int CODES = 52;
+
+    // Composition slots by blackjack value: 0 = ace, 1..8 = two..nine, 9 = ten-valued
+    public static final int VALUES = 10;
+
+    private static final byte[] VALUE = new byte[CODES];
+    private static final byte[] RANK_OF = new byte[CODES];
+    private static final byte[] SUIT_OF = new byte[CODES];
+
+    static {
+        for(int code = 0; code < CODES; code++){
+            Rank r = Rank.values()[code % RANKS];
+            RANK_OF[code] = (byte) r.ordinal();
+            SUIT_OF[code] = (byte) (code / RANKS);
+            VALUE[code] = (byte) (r == Rank.ACE ? 11 : Math.min(10, r.numeric));
+        }
+    }
+
+    public static int code(Suit s, Rank r){
+        return s.ordinal() * RANKS + r.ordinal();
+    }
+
+    // Blackjack value with the ace counted as 11
+    public static int value(int code){
+        return VALUE[code];
+    }
+
+    public static boolean isAce(int code){
+        return VALUE[code] == 11;
+    }
+
+    public static int valueIndex(int code){
+        return VALUE[code] == 11 ? 0 : VALUE[code] - 1;
+    }
+
+    // Blackjack value of a composition slot, ace as 11
+    public static int slotValue(int slot){
+        return slot == 0 ? 11 : slot + 1;
+    }
+
+    public static Rank rankOf(int code){
+        return Rank.values()[RANK_OF[code]];
+    }
+
+    public static Suit suitOf(int code){
+        return Suit.values()[SUIT_OF[code]];
+    }
+
     // ===== Suits =====
     public enum Suit {
         SPADES("♠"), HEARTS("♥"), DIAMONDS("♦"), CLUBS("♣");
@@ -24,7 +75,7 @@ public class CardModel {
         ACE("A",1),
         TWO("2",2), THREE("3",3), FOUR("4",4), FIVE("5",5),
         SIX("6",6), SEVEN("7",7), EIGHT("8",8), NINE("9",9),
-        JACK("J",10), QUEEN("Q",10), KING("K",10);
+        TEN("10",10), JACK("J",10), QUEEN("Q",10), KING("K",10);
 
         public final String label;
         public final int numeric;
@@ -36,32 +87,63 @@ public class CardModel {
     }
 
     // ===== Card Object =====
+    // One interned instance per code; use Card.of instead of allocating.
     public static class Card {
+        private static final Card[] ALL = new Card[CODES];
+
+        static {
+            for(Suit s : Suit.values()){
+                for(Rank r : Rank.values()){
+                    ALL[code(s, r)] = new Card(s, r);
+                }
+            }
+        }
+
         public final Suit suit;
         public final Rank rank;
+        public final byte code;
 
-        public Card(Suit s, Rank r){
+        private Card(Suit s, Rank r){
             this.suit = s;
             this.rank = r;
+            this.code = (byte) code(s, r);
+        }
+
+        public static Card of(int code){
+            return ALL[code];
+        }
+
+        public static Card of(Suit s, Rank r){
+            return ALL[code(s, r)];
+        }
+
+        public int value(){
+            return VALUE[code];
         }
     }
 
     // ===== Deck =====
     public static class Deck {
         private final List<Card> cards = new ArrayList<>();
-        private final Random random = new Random();
+        private final RandomGenerator random;
 
         public Deck(){
-            for(Suit s : Suit.values()){
-                for(Rank r : Rank.values()){
-                    cards.add(new Card(s, r));
-                }
+            this(Rngs.create(Rngs.DEFAULT));
+        }
+
+        public Deck(RandomGenerator random){
+            this.random = random;
+            for(int code = 0; code < CODES; code++){
+                cards.add(Card.of(code));
             }
             shuffle();
         }
 
         public void shuffle(){
-            Collections.shuffle(cards, random);
+            for(int i = cards.size() - 1; i > 0; i--){
+                int j = random.nextInt(i + 1);
+                cards.set(i, cards.set(j, cards.get(i)));
+            }
         }
 
         public Card draw(){
@@ -72,4 +154,154 @@ public class CardModel {
             return cards.size();
         }
     }
+
+    // ===== Shoe =====
+    // Several decks of card codes in one pre-built array. Draws only move an
+    // index; the shoe is reshuffled once the cut card has been reached.
+    // The remaining count per value slot is kept up to date on every draw, and
+    // so are the running counts of an attached CountTracker.
+    //
+    // A keyed shoe starts every shuffle from the same order with a generator
+    // seeded from (seed, shoe index), so any shoe of a session can be rebuilt
+    // with restore() without replaying the ones before it.
+    public static class Shoe {
+        private final byte[] cards;
+        private final int[] remaining = new int[VALUES];
+        private final int cutCard;
+        private final int decks;
+        private final double penetration;
+        private final RandomGenerator random;     // null for a keyed shoe
+        private final String algorithm;           // keyed shoes only
+        private final RandomGeneratorFactory<RandomGenerator> factory;
+        private final long seed;
+        private long shuffles;
+        private int next;
+        private CountTracker tracker;             // null unless counting
+
+        public Shoe(int decks, double penetration, RandomGenerator random){
+            this(decks, penetration, random, null, 0);
+        }
+
+        public Shoe(int decks, double penetration, String algorithm, long seed){
+            this(decks, penetration, null, algorithm, seed);
+        }
+
+        private Shoe(int decks, double penetration, RandomGenerator random, String algorithm, long seed){
+            if(decks < 1) throw new IllegalArgumentException("decks must be >= 1");
+            if(penetration < 0 || penetration > 1) throw new IllegalArgumentException("penetration must be in [0, 1]");
+
+            this.decks = decks;
+            this.penetration = penetration;
+            this.random = random;
+            this.algorithm = algorithm;
+            this.factory = algorithm == null ? null : RandomGeneratorFactory.of(algorithm);
+            this.seed = seed;
+
+            cards = new byte[decks * CODES];
+            for(int i = 0; i < cards.length; i++){
+                cards[i] = (byte) (i % CODES);
+            }
+
+            cutCard = (int)(cards.length * penetration);
+            shuffle();
+        }
+
+        // Fisher-Yates over the whole shoe
+        public void shuffle(){
+            RandomGenerator r = random;
+            if(r == null){
+                for(int i = 0; i < cards.length; i++) cards[i] = (byte) (i % CODES);
+                r = factory.create(seed + shuffles * 0x9E37_79B9_7F4A_7C15L);
+            }
+
+            for(int i = cards.length - 1; i > 0; i--){
+                int j = r.nextInt(i + 1);
+                byte t = cards[i];
+                cards[i] = cards[j];
+                cards[j] = t;
+            }
+            next = 0;
+            shuffles++;
+
+            for(int v = 0; v < VALUES; v++){
+                remaining[v] = (v == 9 ? 16 : 4) * decks;
+            }
+            if(tracker != null) tracker.reset();
+        }
+
+        // Keyed shoes: rebuild shoe number index with dealt cards already drawn
+        public void restore(long index, int dealt){
+            if(random != null) throw new IllegalStateException("Only a keyed shoe can be restored");
+            shuffles = index;
+            shuffle();
+            while(next < dealt){
+                int code = cards[next++];
+                remaining[valueIndex(code)]--;
+                if(tracker != null) tracker.seen(code);
+            }
+        }
+
+        // Count every card drawn from now on; the cards already out are counted first
+        public void setTracker(CountTracker tracker){
+            if(tracker != null){
+                if(tracker.decks() != decks) throw new IllegalArgumentException("Tracker is for " + tracker.decks() + " decks, shoe has " + decks);
+                tracker.reset();
+                for(int i = 0; i < next; i++) tracker.seen(cards[i]);
+            }
+            this.tracker = tracker;
+        }
+
+        public CountTracker tracker(){ return tracker; }
+
+        public boolean isKeyed(){ return random == null; }
+        public long seed(){ return seed; }
+        public String algorithm(){ return algorithm; }
+
+        // 0 for the shoe built by the constructor, counting every reshuffle after it
+        public long index(){ return shuffles - 1; }
+
+        public int dealt(){ return next; }
+
+        public int drawCode(){
+            // Running dry mid-round only happens with tiny shoes at full penetration
+            if(next == cards.length) shuffle();
+            int code = cards[next++];
+            remaining[valueIndex(code)]--;
+            if(tracker != null) tracker.seen(code);
+            return code;
+        }
+
+        public Card draw(){
+            return Card.of(drawCode());
+        }
+
+        public boolean cutCardReached(){
+            return next >= cutCard;
+        }
+
+        public int size(){
+            return cards.length - next;
+        }
+
+        // Undealt cards per value slot
+        public int remaining(int slot){
+            return remaining[slot];
+        }
+
+        public void composition(int[] out){
+            System.arraycopy(remaining, 0, out, 0, VALUES);
+        }
+
+        public int capacity(){
+            return cards.length;
+        }
+
+        public int decks(){
+            return decks;
+        }
+
+        public double penetration(){
+            return penetration;
+        }
+    }
 }
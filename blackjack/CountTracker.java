@@ -0,0 +1,118 @@
+package blackjack;
+
+import blackjack.RoundEngine.Phase;
+
+// Running counts of every CountSystem for one shoe, kept up to date as cards
+// are drawn (attach with Shoe.setTracker). Each system's tags are precomputed
+// per card code and packed into one long, one 21-bit signed lane per system,
+// so a card updates all of them with a single table load and add; a count is
+// only unpacked when someone reads it. Owned by the thread drawing the cards.
+public class CountTracker {
+
+    // ===== Counting systems =====
+    // Tags by value slot: ace, two .. nine, ten-valued
+    public enum CountSystem {
+        HI_LO("Hi-Lo", true,        -1, 1, 1, 1, 1, 1, 0, 0, 0, -1),
+        KO("KO", false,             -1, 1, 1, 1, 1, 1, 1, 0, 0, -1),
+        OMEGA_II("Omega II", true,   0, 1, 1, 2, 2, 2, 1, 0, -1, -2);
+
+        public final String label;
+        public final boolean balanced;      // a full shoe counts to 0; only then is a true count meaningful
+        private final int[] tags;
+
+        CountSystem(String label, boolean balanced, int... tags){
+            this.label = label;
+            this.balanced = balanced;
+            this.tags = tags;
+        }
+
+        public int tag(int code){
+            return tags[CardModel.valueIndex(code)];
+        }
+
+        // Running count of a fresh shoe: 0, or KO's 4 - 4 * decks so its pivot is +4
+        public int initial(int decks){
+            return balanced ? 0 : 4 - 4 * decks;
+        }
+    }
+
+    private static final CountSystem[] SYSTEMS = CountSystem.values();
+    private static final int LANE = 21;
+    private static final long[] PACKED = new long[CardModel.CODES];
+
+    static {
+        for(int code = 0; code < CardModel.CODES; code++){
+            for(CountSystem s : SYSTEMS) PACKED[code] += (long) s.tag(code) << (LANE * s.ordinal());
+        }
+    }
+
+    private final int decks;
+    private final long start;       // packed initial counts
+    private long packed;
+    private int unseen;
+
+    public CountTracker(int decks){
+        this.decks = decks;
+        long p = 0;
+        for(CountSystem s : SYSTEMS) p += (long) s.initial(decks) << (LANE * s.ordinal());
+        start = p;
+        reset();
+    }
+
+    public int decks(){ return decks; }
+
+    // Fresh shoe
+    public void reset(){
+        packed = start;
+        unseen = decks * CardModel.CODES;
+    }
+
+    public void seen(int code){
+        packed += PACKED[code];
+        unseen--;
+    }
+
+    public long packed(){ return packed; }
+    public int unseen(){ return unseen; }
+
+    public int running(CountSystem s){
+        return running(packed, s);
+    }
+
+    public double trueCount(CountSystem s){
+        return trueCount(packed, unseen, s);
+    }
+
+    // The count as the player sees it, on a GameEvent: the dealer's hole card
+    // is left out until it is turned over
+    void stamp(GameEvent e, RoundEngine round){
+        e.count = packed;
+        e.countUnseen = unseen;
+        Phase p = round.phase();
+        if((p == Phase.DEALING || p == Phase.INSURANCE || p == Phase.PLAYER_TURN) && round.dealerHand().size() >= 2){
+            e.count -= PACKED[round.dealerHand().code(1)];
+            e.countUnseen++;
+        }
+    }
+
+    // ===============================================================================================
+    // PACKED COUNTS
+    // ===============================================================================================
+
+    // Lanes are exact signed sums, so each one is peeled off with a sign-extending shift
+    public static int running(long packed, CountSystem s){
+        long p = packed;
+        for(int i = 0; i < s.ordinal(); i++){
+            long low = p << (64 - LANE) >> (64 - LANE);
+            p = (p - low) >> LANE;
+        }
+        return (int) (p << (64 - LANE) >> (64 - LANE));
+    }
+
+    // Running count per deck left for balanced systems; KO is played off its running count
+    public static double trueCount(long packed, int unseen, CountSystem s){
+        int rc = running(packed, s);
+        if(!s.balanced) return rc;
+        return unseen == 0 ? 0 : rc * (double) CardModel.CODES / unseen;
+    }
+}
@@ -0,0 +1,147 @@
+package blackjack;
+
+// Exact distribution of the dealer's final total for a given upcard and the
+// cards the player cannot see (the shoe plus the dealer's hole card), with the
+// dealer drawing by the table's rules as in RoundEngine.dealerShouldHit().
+// Under the peek an ace or ten upcard is known not to hide a natural, so the
+// hole card is drawn from the rest of the composition.
+//
+// Results are memoized by (upcard, peeked, composition). Not thread-safe: give
+// each thread its own instance.
+public class DealerOdds {
+
+    // Result slots: 17, 18, 19, 20, 21, bust
+    public static final int BUST = 5;
+    public static final int OUTCOMES = 6;
+
+    // Per upcard; least recently used compositions are evicted first
+    private static final int MAX_ENTRIES = 1 << 13;
+
+    // Bits per slot in the packed composition key: 6 for ace..nine, 8 for tens
+    private static final int SMALL_BITS = 6;
+    private static final int TEN_BITS = 8;
+
+    // Above the 62 composition bits, below the sign that marks no key
+    private static final long PEEKED = 1L << 62;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private final LruCache<Long, double[]>[] cache = new LruCache[CardModel.VALUES];
+
+    private final TableRules rules;
+    private long hits;
+    private long misses;
+
+    public DealerOdds(){
+        this(TableRules.CLASSIC);
+    }
+
+    public DealerOdds(TableRules rules){
+        this.rules = rules;
+        for(int i = 0; i < cache.length; i++) cache[i] = new LruCache<>(MAX_ENTRIES);
+    }
+
+    // As the table plays: conditioned on no natural when the dealer peeks
+    public double[] finalTotals(int upSlot, int[] unseen){
+        return finalTotals(upSlot, unseen, rules.peek);
+    }
+
+    // upSlot: composition slot of the upcard (CardModel.valueIndex).
+    // unseen: cards not yet seen by the player, per slot. Not modified.
+    // peeked: the dealer has checked the hole card and holds no natural.
+    // The returned array is shared with the cache and must not be modified.
+    public double[] finalTotals(int upSlot, int[] unseen, boolean peeked){
+        peeked &= upSlot == 0 || upSlot == 9;      // nothing to rule out under other upcards
+        long key = pack(unseen);
+        if(key >= 0 && peeked) key |= PEEKED;
+        LruCache<Long, double[]> byComp = cache[upSlot];
+
+        if(key >= 0){
+            double[] hit = byComp.get(key);
+            if(hit != null){
+                hits++;
+                return hit;
+            }
+        }
+
+        misses++;
+        double[] out = compute(upSlot, unseen, peeked);
+
+        if(key >= 0) byComp.put(key, out);
+        return out;
+    }
+
+    // Dealer bust probability, a common single query
+    public double bust(int upSlot, int[] unseen){
+        return finalTotals(upSlot, unseen)[BUST];
+    }
+
+    public long hits(){ return hits; }
+    public long misses(){ return misses; }
+
+    private double[] compute(int upSlot, int[] unseen, boolean peeked){
+        int[] comp = unseen.clone();
+        int left = 0;
+        for(int n : comp) left += n;
+
+        double[] out = new double[OUTCOMES];
+        int up = CardModel.slotValue(upSlot);
+        int hard = up == 11 ? 1 : up;
+        int aces = up == 11 ? 1 : 0;
+
+        // The hole card that would make a natural is ruled out; the rest share its weight
+        int skip = !peeked ? -1 : upSlot == 0 ? 9 : 0;
+        int holes = skip < 0 ? 0 : left - comp[skip];
+        if(holes == 0){
+            draw(hard, aces, 1.0, comp, left, out);
+            return out;
+        }
+
+        for(int v = 0; v < CardModel.VALUES; v++){
+            int n = comp[v];
+            if(n == 0 || v == skip) continue;
+
+            comp[v] = n - 1;
+            if(v == 0) draw(hard + 1, aces + 1, (double) n / holes, comp, left - 1, out);
+            else draw(hard + v + 1, aces, (double) n / holes, comp, left - 1, out);
+            comp[v] = n;
+        }
+        return out;
+    }
+
+    // hard: total with aces as 1
+    private void draw(int hard, int aces, double p, int[] comp, int left, double[] out){
+        boolean soft = aces > 0 && hard + 10 <= 21;
+        int total = soft ? hard + 10 : hard;
+
+        if(!rules.dealerHits(total, soft)){
+            out[total > 21 ? BUST : total - 17] += p;
+            return;
+        }
+        if(left == 0){
+            // Shoe exhausted mid-hand; treat as the dealer's lowest standing total
+            out[0] += p;
+            return;
+        }
+
+        for(int v = 0; v < CardModel.VALUES; v++){
+            int n = comp[v];
+            if(n == 0) continue;
+
+            comp[v] = n - 1;
+            if(v == 0) draw(hard + 1, aces + 1, p * n / left, comp, left - 1, out);
+            else draw(hard + v + 1, aces, p * n / left, comp, left - 1, out);
+            comp[v] = n;
+        }
+    }
+
+    // 62-bit key, or -1 if a count does not fit (more than 15 decks)
+    static long pack(int[] comp){
+        long key = 0;
+        for(int v = 0; v < CardModel.VALUES; v++){
+            int bits = v == 9 ? TEN_BITS : SMALL_BITS;
+            if(comp[v] >= (1 << bits)) return -1;
+            key = (key << bits) | comp[v];
+        }
+        return key;
+    }
+}
@@ -0,0 +1,216 @@
+package blackjack;
+
+import javafx.animation.AnimationTimer;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.layout.VBox;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+// Togglable glass panel with FPS, pulse timings, live node count, tweens in
+// flight, allocation rate and the engine queue. Pulse timings are collected
+// all the time; the panel refreshes four times a second while it is shown.
+public class DiagnosticsOverlay {
+
+    private static final int WINDOW = 600;                      // pulses kept, ~10 s at 60 FPS
+    private static final long REFRESH_NANOS = 250_000_000;
+
+    private final FrameStats frames = new FrameStats(WINDOW);
+
+    private final Node root;
+    private final IntSupplier animations;
+    private final Supplier<String> queue;
+
+    private final VBox card;
+    private final Label fpsLabel, intervalLabel, layoutLabel, nodesLabel, animLabel, allocLabel, queueLabel;
+    private final List<Runnable> watched = new ArrayList<>();
+
+    // Allocation counters need the HotSpot extension; null elsewhere
+    private final com.sun.management.ThreadMXBean threads;
+    private final long fxThreadId;
+    private long lastRefresh;
+    private long lastFxBytes;
+    private long lastAllBytes;
+    private double fxAllocRate;      // bytes/s
+    private double allAllocRate;
+
+    private final AnimationTimer refresher = new AnimationTimer() {
+        @Override
+        public void handle(long now){
+            if(now - lastRefresh >= REFRESH_NANOS) refresh(now);
+        }
+    };
+
+    // root: subtree whose nodes are counted; animations/queue are polled on refresh.
+    // Must be created on the FX thread.
+    public DiagnosticsOverlay(Node root, IntSupplier animations, Supplier<String> queue){
+        this.root = root;
+        this.animations = animations;
+        this.queue = queue;
+
+        ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+        threads = mx instanceof com.sun.management.ThreadMXBean t && t.isThreadAllocatedMemorySupported() ? t : null;
+        if(threads != null) threads.setThreadAllocatedMemoryEnabled(true);
+        fxThreadId = Thread.currentThread().getId();
+
+        card = HUDComponents.glassCard("Diagnostics");
+        fpsLabel = HUDComponents.statLabel("");
+        intervalLabel = HUDComponents.statLabel("");
+        layoutLabel = HUDComponents.statLabel("");
+        nodesLabel = HUDComponents.statLabel("");
+        animLabel = HUDComponents.statLabel("");
+        allocLabel = HUDComponents.statLabel("");
+        queueLabel = HUDComponents.statLabel("");
+        queueLabel.setWrapText(true);
+        queueLabel.setMaxWidth(300);
+
+        card.getChildren().addAll(fpsLabel, intervalLabel, layoutLabel, nodesLabel, animLabel, allocLabel, queueLabel);
+        card.setVisible(false);
+        card.setMouseTransparent(true);
+    }
+
+    // Register first so the measured pulse includes the scene's other listeners
+    public void attach(Scene scene){
+        scene.addPreLayoutPulseListener(() -> frames.pulseStart(System.nanoTime()));
+        scene.addPostLayoutPulseListener(() -> frames.pulseEnd(System.nanoTime()));
+    }
+
+    // Extra "name: value" line, refreshed with the rest
+    public void watch(String name, Supplier<String> value){
+        Label l = HUDComponents.statLabel("");
+        card.getChildren().add(l);
+        watched.add(() -> l.setText(name + ": " + value.get()));
+    }
+
+    public VBox node(){
+        return card;
+    }
+
+    public boolean isShowing(){
+        return card.isVisible();
+    }
+
+    public void toggle(){
+        boolean show = !card.isVisible();
+        card.setVisible(show);
+
+        if(show){
+            lastRefresh = 0;
+            refresher.start();
+        } else {
+            refresher.stop();
+        }
+    }
+
+    public FrameStats frames(){
+        return frames;
+    }
+
+    private void refresh(long now){
+        sampleAllocation(now);
+        lastRefresh = now;
+
+        fpsLabel.setText(String.format("FPS: %.0f   pulses: %d", frames.fps(), frames.pulses()));
+        intervalLabel.setText(String.format("Frame ms p50 %.1f  p95 %.1f  p99 %.1f",
+                frames.intervalPercentileMillis(0.50), frames.intervalPercentileMillis(0.95), frames.intervalPercentileMillis(0.99)));
+        layoutLabel.setText(String.format("Pulse ms p50 %.2f  p95 %.2f  p99 %.2f",
+                frames.layoutPercentileMillis(0.50), frames.layoutPercentileMillis(0.95), frames.layoutPercentileMillis(0.99)));
+        nodesLabel.setText("Nodes: " + SceneGraphStats.nodeCount(root));
+        animLabel.setText("Animations in flight: " + animations.getAsInt());
+        allocLabel.setText(threads == null ? "Alloc: n/a"
+                : String.format("Alloc MB/s: FX %.2f  all %.2f", fxAllocRate / 1e6, allAllocRate / 1e6));
+        queueLabel.setText("Queue: " + queue.get());
+        for(Runnable r : watched) r.run();
+    }
+
+    private void sampleAllocation(long now){
+        if(threads == null) return;
+
+        long fx = threads.getThreadAllocatedBytes(fxThreadId);
+        long all = 0;
+        for(long b : threads.getThreadAllocatedBytes(threads.getAllThreadIds())){
+            if(b > 0) all += b;
+        }
+
+        if(lastRefresh != 0){
+            double secs = (now - lastRefresh) / 1e9;
+            fxAllocRate = (fx - lastFxBytes) / secs;
+            allAllocRate = Math.max(0, all - lastAllBytes) / secs;     // exited threads drop out of the sum
+        }
+        lastFxBytes = fx;
+        lastAllBytes = all;
+    }
+
+    // ===============================================================================================
+    // EXPORT
+    // ===============================================================================================
+
+    // Write <stamp>.csv (one row per pulse) and <stamp>.json (summary plus samples) into dir.
+    // The text is built here on the FX thread; the files are written in the background.
+    public CompletableFuture<Path> dump(Path dir){
+        String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+
+        StringBuilder csv = new StringBuilder("pulse,start_ms,interval_ms,pulse_ms\n");
+        StringBuilder samples = new StringBuilder();
+        int n = frames.size();
+        long t0 = n == 0 ? 0 : frames.startNanos(0);
+
+        for(int i = 0; i < n; i++){
+            csv.append(String.format(Locale.ROOT, "%d,%.3f,%.3f,%.3f%n",
+                    i, (frames.startNanos(i) - t0) / 1e6, frames.intervalMillis(i), frames.layoutMillis(i)));
+            samples.append(i == 0 ? "" : ",")
+                    .append(String.format(Locale.ROOT, "[%.3f,%.3f]", frames.intervalMillis(i), frames.layoutMillis(i)));
+        }
+
+        String json = String.format(Locale.ROOT,
+                "{\n"
+                + "  \"captured\": \"%s\",\n"
+                + "  \"fps\": %.1f,\n"
+                + "  \"pulses\": %d,\n"
+                + "  \"frame_ms\": {\"p50\": %.3f, \"p95\": %.3f, \"p99\": %.3f, \"max\": %.3f},\n"
+                + "  \"pulse_ms\": {\"p50\": %.3f, \"p95\": %.3f, \"p99\": %.3f, \"max\": %.3f},\n"
+                + "  \"nodes\": %d,\n"
+                + "  \"animations\": %d,\n"
+                + "  \"alloc_fx_bytes_per_s\": %.0f,\n"
+                + "  \"alloc_all_bytes_per_s\": %.0f,\n"
+                + "  \"queue\": \"%s\",\n"
+                + "  \"samples\": [%s]\n"
+                + "}\n",
+                LocalDateTime.now(), frames.fps(), frames.pulses(),
+                frames.intervalPercentileMillis(0.50), frames.intervalPercentileMillis(0.95),
+                frames.intervalPercentileMillis(0.99), frames.intervalPercentileMillis(1.0),
+                frames.layoutPercentileMillis(0.50), frames.layoutPercentileMillis(0.95),
+                frames.layoutPercentileMillis(0.99), frames.layoutPercentileMillis(1.0),
+                SceneGraphStats.nodeCount(root), animations.getAsInt(),
+                fxAllocRate, allAllocRate,
+                queue.get().replace("\\", "\\\\").replace("\"", "\\\""),
+                samples);
+
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                Files.createDirectories(dir);
+                Files.writeString(dir.resolve("diagnostics-" + stamp + ".csv"), csv, StandardCharsets.UTF_8);
+                Path out = dir.resolve("diagnostics-" + stamp + ".json");
+                Files.writeString(out, json, StandardCharsets.UTF_8);
+                return out;
+            } catch(IOException ex){
+                throw new UncheckedIOException(ex);
+            }
+        });
+    }
+}
@@ -0,0 +1,489 @@
+package blackjack;
+
+import blackjack.CardModel.Shoe;
+import blackjack.RoundEngine.Action;
+import blackjack.RoundEngine.Outcome;
+import blackjack.RoundEngine.Phase;
+import blackjack.RoundEngine.Strategy;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+// Owns the table's RoundEngine, balance and turbo play on one background
+// thread. The UI sends commands and drains GameEvents through two bounded
+// single-producer/single-consumer queues; nothing here touches the scene graph.
+// Commands must come from one thread, and drain() must be called from one thread.
+public class EngineThread {
+
+    private static final int COMMAND_CAPACITY = 256;
+    private static final int EVENT_CAPACITY = 1024;
+    private static final long SLICE_NANOS = 1_000_000;     // turbo checks for commands this often
+    private static final long BATCH_NANOS = 16_000_000;    // turbo results published about once a frame
+
+    private final RoundEngine engine;
+    private final SpscQueue<Runnable> commands = new SpscQueue<>(COMMAND_CAPACITY);
+    private final SpscQueue<GameEvent> events = new SpscQueue<>(EVENT_CAPACITY);
+
+    // Set when the consumer has been asked to drain and has not started yet
+    private final AtomicBoolean wakePending = new AtomicBoolean();
+    private final Runnable wakeConsumer;
+    private final Thread thread;
+    private final RoundJournal journal;         // null when persistence is off
+    private final HandHistoryWriter hands;      // null unless recording hand histories
+    private final SessionRecorder session;      // null unless recording the session for replay
+    private boolean sessionFailed;              // the table has been told the recording stopped
+
+    // ===== Engine-thread state =====
+    private int balance;
+    private int stake;
+    private final TableEvents table = new TableEvents(this::publish);
+    private final CountTracker counts;          // for the trainer readout
+    private boolean stopped;                    // shut down; the thread exits
+
+    private Strategy turbo;             // null when turbo is off
+    private int turboRate;              // rounds/s, 0 = unthrottled
+    private long turboStart;
+    private long turboLast;
+    private long turboRounds;
+    private double turboCarry;
+    private GameEvent batch;
+    private long batchStart;
+
+    // ===== Queue metrics (consumer side, except stalls) =====
+    private volatile long stalls;       // publishes that found the event queue full
+    private int lastDepth;
+    private int maxDepth;
+    private long drained;
+    private long latencySum;
+    private long latencyMax;
+    private final long[] latencyLog2 = new long[64];
+
+    // wakeConsumer runs on the engine thread; it should schedule a drain on the consumer.
+    // Settled rounds and refills are appended to journal, every hand is recorded
+    // by hands and the whole session by session; any of them may be null. The
+    // shoe is keyed by seed, so the session's rounds can be replayed.
+    public EngineThread(int balance, long seed, TableRules rules, Runnable wakeConsumer, RoundJournal journal,
+                        HandHistoryWriter hands, SessionRecorder session){
+        this.balance = balance;
+        this.wakeConsumer = wakeConsumer;
+        this.journal = journal;
+        this.hands = hands;
+        this.session = session;
+        engine = new RoundEngine(new Shoe(6, 0.75, Rngs.DEFAULT, seed), rules);
+        engine.setRecorder(this::onRoundEvent);
+        counts = new CountTracker(engine.shoe().decks());
+        engine.shoe().setTracker(counts);
+        if(session != null) session.start(engine.shoe(), rules);
+
+        // Platform thread: virtual threads are not available on the Java 17 baseline
+        thread = new Thread(this::run, "engine");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // ===============================================================================================
+    // COMMANDS (UI thread)
+    // ===============================================================================================
+
+    public void deal(int bet){ send(() -> startRound(bet)); }
+    public void hit(){ send(this::onHit); }
+    public void stand(){ send(this::onStand); }
+    public void doubleDown(){ send(this::onDouble); }
+    public void surrender(){ send(this::onSurrender); }
+    public void insure(boolean take){ send(() -> onInsure(take)); }
+    public void refill(int amount){ send(() -> onRefill(amount)); }
+
+    public void startTurbo(Strategy strategy, int rate, int bet){ send(() -> beginTurbo(strategy, rate, bet)); }
+    public void turboRate(int rate){ send(() -> turboRate = rate); }
+    public void stopTurbo(){ send(() -> endTurbo("Turbo stopped")); }
+
+    // Stop turbo, then write out any buffered hand history and recording and close
+    // the journal, all on the engine thread so no round can be appended after its
+    // final flush. The thread itself is a daemon, so wait (briefly) for it to get
+    // there before the JVM may exit.
+    public void shutdown(){
+        CountDownLatch closed = new CountDownLatch(1);
+        send(() -> {
+            haltTurbo();
+            if(hands != null) hands.close();
+            if(session != null) session.close();
+            if(journal != null) journal.close();
+            stopped = true;
+            closed.countDown();
+        });
+        try {
+            closed.await(2, TimeUnit.SECONDS);
+        } catch(InterruptedException ex){
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void send(Runnable command){
+        while(!commands.offer(command)) Thread.onSpinWait();
+        LockSupport.unpark(thread);
+    }
+
+    // ===============================================================================================
+    // EVENTS (UI thread)
+    // ===============================================================================================
+
+    // Hand every queued event to sink; returns how many there were
+    public int drain(Consumer<GameEvent> sink){
+        wakePending.set(false);
+
+        int depth = events.size();
+        lastDepth = depth;
+        if(depth > maxDepth) maxDepth = depth;
+
+        int n = 0;
+        GameEvent e;
+        while((e = events.poll()) != null){
+            long latency = Math.max(0, System.nanoTime() - e.sentNanos);
+            latencySum += latency;
+            if(latency > latencyMax) latencyMax = latency;
+            latencyLog2[63 - Long.numberOfLeadingZeros(latency | 1)]++;
+
+            sink.accept(e);
+            n++;
+        }
+        drained += n;
+        return n;
+    }
+
+    public int depth(){ return events.size(); }
+    public int lastDepth(){ return lastDepth; }
+    public int maxDepth(){ return maxDepth; }
+    public long drained(){ return drained; }
+    public long stalls(){ return stalls; }
+
+    public double meanLatencyMicros(){
+        return drained == 0 ? 0 : latencySum / 1e3 / drained;
+    }
+
+    public double maxLatencyMicros(){
+        return latencyMax / 1e3;
+    }
+
+    // Upper bound of the power-of-two bucket holding the given percentile
+    public double latencyPercentileMicros(double p){
+        long target = (long) Math.ceil(drained * p);
+        long seen = 0;
+        for(int i = 0; i < latencyLog2.length; i++){
+            seen += latencyLog2[i];
+            if(seen >= target && seen > 0) return (2L << i) / 1e3;
+        }
+        return 0;
+    }
+
+    @Override
+    public String toString(){
+        return String.format("events=%d, depth max=%d, latency mean=%.0fus p99<=%.0fus max=%.0fus, stalls=%d",
+                drained, maxDepth, meanLatencyMicros(), latencyPercentileMicros(0.99), maxLatencyMicros(), stalls);
+    }
+
+    // ===============================================================================================
+    // ENGINE THREAD
+    // ===============================================================================================
+
+    private void run(){
+        while(true){
+            Runnable c;
+            while((c = commands.poll()) != null){
+                c.run();
+                if(stopped) return;
+            }
+
+            if(turbo != null) turboSlice();
+            else LockSupport.park(this);
+        }
+    }
+
+    private void publish(GameEvent e){
+        e.balance = balance;
+        e.bet = stake;
+        counts.stamp(e, engine);
+        e.sentNanos = System.nanoTime();
+
+        if(!events.offer(e)){
+            stalls++;
+            do {
+                wake();
+                LockSupport.parkNanos(this, 100_000);
+            } while(!events.offer(e));
+        }
+        wake();
+    }
+
+    private void wake(){
+        if(wakePending.compareAndSet(false, true)) wakeConsumer.run();
+    }
+
+    private void notice(String message){
+        GameEvent e = new GameEvent(GameEvent.NOTICE);
+        e.message = message;
+        publish(e);
+    }
+
+    // ===== Interactive round =====
+    // The engine's phase decides which commands apply; anything else is answered
+    // by rejected(), since the UI holds its buttons off until it hears back.
+    // Cards and the hole-card reveal are published from the round's events as
+    // they happen, see onRoundEvent.
+
+    private boolean betweenRounds(){
+        return engine.phase() == Phase.BETTING || engine.phase() == Phase.SETTLED;
+    }
+
+    private void startRound(int bet){
+        if(turbo != null) return;
+        if(!betweenRounds()){
+            rejected();
+            return;
+        }
+
+        if(bet > balance) bet = balance;
+        if(bet <= 0) bet = Math.min(100, balance);
+        if(bet <= 0){
+            notice("Balance is 0.");
+            return;
+        }
+
+        stake = bet;
+
+        GameEvent start = new GameEvent(GameEvent.ROUND_START);
+        start.shuffled = engine.begin(bet);
+        balance -= bet;
+        publish(start);
+
+        engine.deal();
+        afterStep();
+    }
+
+    private void onInsure(boolean take){
+        if(engine.phase() != Phase.INSURANCE){
+            rejected();
+            return;
+        }
+        if(take && balance < engine.bet() / 2){
+            notice("Not enough balance for insurance.");
+            take = false;
+        }
+
+        engine.insure(take);
+        balance -= engine.insurance();
+        afterStep();
+    }
+
+    private void onHit(){
+        if(!engine.canHit()){
+            rejected();
+            return;
+        }
+        engine.hit();
+        afterStep();
+    }
+
+    private void onStand(){
+        if(engine.phase() != Phase.PLAYER_TURN){
+            rejected();
+            return;
+        }
+        engine.stand();
+        afterStep();
+    }
+
+    private void onSurrender(){
+        if(!engine.canSurrender()){
+            rejected();
+            return;
+        }
+        engine.surrender();
+        afterStep();
+    }
+
+    private void onDouble(){
+        if(!engine.canDouble()){
+            rejected();
+            return;
+        }
+        if(balance < engine.bet()){
+            notice("Not enough balance to double.");
+            decision();
+            return;
+        }
+
+        balance -= engine.bet();
+        engine.doubleDown();
+        afterStep();
+    }
+
+    // Repeat the pending decision, or say there is no round to act on
+    private void rejected(){
+        if(engine.phase() == Phase.PLAYER_TURN || engine.phase() == Phase.INSURANCE) decision();
+        else notice("No round in play.");
+    }
+
+    // The dealer plays once every hand is done; otherwise the next decision
+    private void afterStep(){
+        stake = engine.staked();
+        if(engine.phase() == Phase.DEALER_TURN) engine.playDealer();
+        if(engine.isOver()) settle(engine.outcome());
+        else decision();
+    }
+
+    // Every round event passes through here; turbo rounds are only recorded
+    private void onRoundEvent(RoundEngine round, int event){
+        if(hands != null) hands.event(round, event);
+        if(session != null) session.event(round, event);
+        if(turbo == null) table.event(round, event);
+    }
+
+    private void onRefill(int amount){
+        balance = amount;
+        if(session != null) session.refill(amount, engine.shoe());
+        checkRecording();
+        if(journal != null){
+            journal.append(RoundJournal.REFILL, 0, 0, balance);
+            journal.commit();
+        }
+    }
+
+    private void settle(Outcome o){
+        checkRecording();
+        balance += engine.payout();
+        if(journal != null){
+            journal.append(RoundJournal.ROUND, result(o), engine.net(), balance);
+            journal.commit();
+        }
+
+        GameEvent e = new GameEvent(GameEvent.OUTCOME);
+        e.outcome = o;
+        e.message = engine.rules().message(o);
+        e.net = engine.net();
+        publish(e);
+    }
+
+    // A recording that stopped on an I/O error is reported once, so it does not end silently
+    private void checkRecording(){
+        if(session == null || sessionFailed || session.failure() == null) return;
+        sessionFailed = true;
+        notice("Session recording stopped: " + session.failure());
+    }
+
+    private static int result(Outcome o){
+        return o.isPush() ? 0 : o.isWin() ? 1 : -1;
+    }
+
+    // Everything the advisor needs, copied so it can run on another thread
+    private void decision(){
+        GameEvent e = new GameEvent(GameEvent.DECISION);
+        Hand hand = engine.playerHand();
+        e.insurance = engine.phase() == Phase.INSURANCE;
+        e.canDouble = engine.canDouble() && balance >= engine.bet();
+        e.canSurrender = engine.canSurrender();
+        e.hard = hand.hardTotal();
+        e.hasAce = hand.aces() > 0;
+        e.upSlot = engine.dealerUpSlot();
+        e.unseen = new int[CardModel.VALUES];
+        engine.unseen(e.unseen);
+        GameEvent.totals(e, engine, table.holeShown());
+        publish(e);
+    }
+
+    // ===== Turbo =====
+
+    private void beginTurbo(Strategy strategy, int rate, int bet){
+        if(turbo != null || !betweenRounds()) return;
+        if(bet <= 0) bet = Math.min(100, balance);
+
+        // Fall back to a hit when the balance cannot cover a double or split;
+        // stakes past the opening bet are only taken off once the round is over
+        turbo = r -> {
+            Action a = strategy.decide(r);
+            boolean covered = balance - (r.staked() - stake) >= r.bet();
+            return (a == Action.DOUBLE || a == Action.SPLIT) && !covered ? Action.HIT : a;
+        };
+        turboRate = rate;
+        stake = bet;
+        turboRounds = 0;
+        turboCarry = 0;
+        turboStart = turboLast = batchStart = System.nanoTime();
+        batch = new GameEvent(GameEvent.TURBO);
+    }
+
+    private void turboSlice(){
+        long now = System.nanoTime();
+
+        long due;
+        if(turboRate == 0){
+            due = Long.MAX_VALUE;
+        } else {
+            turboCarry += turboRate * (now - turboLast) / 1e9;
+            due = (long) turboCarry;
+            turboCarry -= due;
+        }
+        turboLast = now;
+
+        long played = 0;
+        while(played < due){
+            if(stake > balance) stake = balance;
+            if(stake <= 0){
+                endTurbo("Out of balance");
+                return;
+            }
+
+            int bet = stake;
+            balance -= bet;
+            Outcome o = engine.playRound(bet, turbo);
+            balance -= engine.staked() - bet;   // doubles and splits
+            balance += engine.payout();
+            batch.addResult(o, engine.net(), balance);
+            if(journal != null) journal.append(RoundJournal.ROUND, result(o), engine.net(), balance);
+            played++;
+
+            if((played & 63) == 0 && System.nanoTime() - now > SLICE_NANOS){
+                turboCarry = 0;                 // behind target: drop the backlog
+                break;
+            }
+        }
+        turboRounds += played;
+
+        if(System.nanoTime() - batchStart >= BATCH_NANOS) flushBatch();
+        if(turboRate != 0) LockSupport.parkNanos(this, SLICE_NANOS);
+    }
+
+    private void flushBatch(){
+        checkRecording();
+        if(journal != null) journal.commit();
+        if(batch.rounds > 0){
+            long now = System.nanoTime();
+            batch.turboRounds = turboRounds;
+            batch.turboRate = turboRounds / Math.max(1e-9, (now - turboStart) / 1e9);
+            publish(batch);
+            batch = new GameEvent(GameEvent.TURBO);
+        }
+        batchStart = System.nanoTime();
+    }
+
+    // Turbo off without telling the table, which is going away; played rounds are committed
+    private void haltTurbo(){
+        if(turbo == null) return;
+        if(journal != null) journal.commit();
+        turbo = null;
+        batch = null;
+    }
+
+    private void endTurbo(String message){
+        if(turbo == null) return;
+        flushBatch();
+        turbo = null;
+        batch = null;
+
+        GameEvent e = new GameEvent(GameEvent.TURBO_END);
+        e.message = message;
+        publish(e);
+    }
+}
@@ -0,0 +1,97 @@
+package blackjack;
+
+import java.util.Arrays;
+
+// Rolling per-pulse timings for the last `window` pulses: the interval since
+// the previous pulse, and the time between a scene's pre- and post-layout
+// pulse listeners (event drain, CSS and layout; rendering happens afterwards
+// on the render thread and shows up in the interval).
+public class FrameStats {
+
+    private final long[] starts;
+    private final long[] intervals;
+    private final long[] layouts;
+    private int count;
+    private int pos;
+
+    private long pendingStart;
+    private long lastStart;
+    private long pulses;
+
+    public FrameStats(int window){
+        starts = new long[window];
+        intervals = new long[window];
+        layouts = new long[window];
+    }
+
+    public void pulseStart(long now){
+        pendingStart = now;
+    }
+
+    public void pulseEnd(long now){
+        if(pendingStart == 0) return;
+
+        starts[pos] = pendingStart;
+        intervals[pos] = lastStart == 0 ? 0 : pendingStart - lastStart;
+        layouts[pos] = now - pendingStart;
+        pos = (pos + 1) % starts.length;
+        if(count < starts.length) count++;
+
+        lastStart = pendingStart;
+        pendingStart = 0;
+        pulses++;
+    }
+
+    public int size(){ return count; }
+    public long pulses(){ return pulses; }
+
+    // Pulses that started within the second before the newest one
+    public double fps(){
+        if(count == 0) return 0;
+        long newest = starts[index(count - 1)];
+        int n = 0;
+        for(int i = count - 1; i >= 0 && newest - starts[index(i)] < 1_000_000_000L; i--) n++;
+        return n;
+    }
+
+    public double intervalPercentileMillis(double p){ return percentile(intervals, p, 1); }
+    public double layoutPercentileMillis(double p){ return percentile(layouts, p, 0); }
+
+    // Interval percentile over pulses that started after sinceNanos, ignoring
+    // idle gaps longer than idleNanos; NaN when fewer than minSamples remain
+    public double busyIntervalPercentileMillis(double p, long sinceNanos, long idleNanos, int minSamples){
+        long[] busy = new long[count];
+        int n = 0;
+        for(int i = count - 1; i >= 0 && starts[index(i)] > sinceNanos; i--){
+            long v = intervals[index(i)];
+            if(v > 0 && v <= idleNanos) busy[n++] = v;
+        }
+        if(n < minSamples) return Double.NaN;
+
+        Arrays.sort(busy, 0, n);
+        int rank = (int) Math.ceil(p * n) - 1;
+        return busy[Math.max(0, Math.min(n - 1, rank))] / 1e6;
+    }
+
+    // Oldest first
+    public double intervalMillis(int i){ return intervals[index(i)] / 1e6; }
+    public double layoutMillis(int i){ return layouts[index(i)] / 1e6; }
+    public long startNanos(int i){ return starts[index(i)]; }
+
+    private int index(int i){
+        return count < starts.length ? i : (pos + i) % starts.length;
+    }
+
+    // Nearest-rank percentile over the window, skipping the first `skip` samples
+    private double percentile(long[] values, double p, int skip){
+        int n = count - (count < starts.length ? skip : 0);
+        if(n <= 0) return 0;
+
+        long[] sorted = new long[n];
+        for(int i = 0; i < n; i++) sorted[i] = values[index(count - n + i)];
+        Arrays.sort(sorted);
+
+        int rank = (int) Math.ceil(p * n) - 1;
+        return sorted[Math.max(0, Math.min(n - 1, rank))] / 1e6;
+    }
+}
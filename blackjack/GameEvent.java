@@ -0,0 +1,117 @@
+package blackjack;
+
+import blackjack.RoundEngine.Outcome;
+
+import java.util.Arrays;
+
+// State change published by the EngineThread for the FX side to present.
+// Only the fields listed for an event's type are meaningful.
+public class GameEvent {
+
+    // ===== Types =====
+    public static final int ROUND_START = 0;    // shuffled
+    public static final int CARD = 1;           // toPlayer, code, hidden, deal, doubled, totals
+    public static final int DECISION = 2;       // insurance or canDouble / canSurrender, advisor snapshot
+    public static final int REVEAL = 3;         // code, totals
+    public static final int OUTCOME = 4;        // outcome, message, net
+    public static final int TURBO = 5;          // batch of auto-played rounds
+    public static final int TURBO_END = 6;      // message
+    public static final int NOTICE = 7;         // message
+
+    public final int type;
+
+    // Stamped by the engine thread on publish
+    public long sentNanos;
+    public int balance;
+    public int bet;
+    public long count;              // packed CountTracker counts, hole card left out
+    public int countUnseen;         // cards the player has not seen
+
+    // ===== Cards =====
+    public boolean toPlayer;
+    public int code;
+    public boolean hidden;
+    public int deal = -1;           // position in the opening deal, -1 afterwards
+    public boolean doubled;
+    public int playerTotal;
+    public int dealerShown;         // up card value until the hole card is revealed
+
+    public boolean shuffled;
+
+    // ===== Decision snapshot =====
+    public boolean insurance;       // insurance is on offer; nothing else until it is answered
+    public boolean canDouble;
+    public boolean canSurrender;
+    public int hard;
+    public boolean hasAce;
+    public int upSlot;
+    public int[] unseen;
+
+    // ===== Settlement =====
+    public Outcome outcome;
+    public int net;
+    public String message;
+
+    // ===== Turbo batch =====
+    public int rounds;
+    public int wins;
+    public int losses;
+    public int pushes;
+    public int leadWins;            // wins before the first non-win (== rounds if all won)
+    public int tailWins;            // current winning run at the end of the batch
+    public int bestRun;
+    public int biggestNet;
+    public long turboRounds;        // since turbo started
+    public double turboRate;        // measured rounds/s
+
+    // Per-round trail for the session history, oldest first
+    private int[] balances;
+    private byte[] results;
+
+    public GameEvent(int type){
+        this.type = type;
+    }
+
+    // Fold one auto-played round into a TURBO batch; balance is after settlement
+    void addResult(Outcome o, int net, int balance){
+        rounds++;
+        int r;
+        if(o.isPush()){
+            pushes++;
+            tailWins = 0;
+            r = 0;
+        } else if(o.isWin()){
+            wins++;
+            if(leadWins == rounds - 1) leadWins++;
+            tailWins++;
+            bestRun = Math.max(bestRun, tailWins);
+            biggestNet = Math.max(biggestNet, net);
+            r = 1;
+        } else {
+            losses++;
+            tailWins = 0;
+            r = -1;
+        }
+
+        int i = rounds - 1;
+        if(balances == null){
+            balances = new int[64];
+            results = new byte[64];
+        } else if(i == balances.length){
+            balances = Arrays.copyOf(balances, i * 2);
+            results = Arrays.copyOf(results, i * 2);
+        }
+        balances[i] = balance;
+        results[i] = (byte) r;
+    }
+
+    // Player total, and the dealer's total once the hole card is up (up card value before)
+    static void totals(GameEvent e, RoundEngine round, boolean holeShown){
+        e.playerTotal = round.playerTotal();
+        e.dealerShown = holeShown ? round.dealerTotal() : round.dealerUpValue();
+    }
+
+    // Round i of a batch: balance after it, and 1 win, 0 push, -1 loss
+    public int balanceAt(int i){ return balances[i]; }
+    public int resultAt(int i){ return results[i]; }
+}
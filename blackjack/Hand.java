@@ -0,0 +1,65 @@
+package blackjack;
+
+import blackjack.CardModel.Card;
+
+import java.util.Arrays;
+
+// Blackjack hand with running totals. Every query is O(1); the totals are
+// updated once per add() instead of rescanning the cards.
+public class Hand {
+
+    private byte[] cards = new byte[12];
+    private int size;
+
+    private int hard;        // aces counted as 1
+    private int aces;
+    private int total;
+    private boolean soft;
+    private boolean blackjack;
+    private boolean bust;
+
+    public void add(Card c){
+        add(c.code);
+    }
+
+    public void add(int code){
+        if(size == cards.length) cards = Arrays.copyOf(cards, size * 2);
+        cards[size++] = (byte) code;
+
+        if(CardModel.isAce(code)){
+            aces++;
+            hard += 1;
+        } else {
+            hard += CardModel.value(code);
+        }
+
+        // At most one ace can ever count as 11
+        soft = aces > 0 && hard + 10 <= 21;
+        total = soft ? hard + 10 : hard;
+        blackjack = size == 2 && total == 21;
+        bust = hard > 21;
+    }
+
+    public void clear(){
+        size = 0;
+        hard = 0;
+        aces = 0;
+        total = 0;
+        soft = false;
+        blackjack = false;
+        bust = false;
+    }
+
+    public int total(){ return total; }
+    public int hardTotal(){ return hard; }
+    public int aces(){ return aces; }
+    public boolean isSoft(){ return soft; }
+    public boolean isBlackjack(){ return blackjack; }
+    public boolean isBust(){ return bust; }
+
+    public int size(){ return size; }
+    public boolean isEmpty(){ return size == 0; }
+
+    public int code(int i){ return cards[i]; }
+    public Card get(int i){ return Card.of(cards[i]); }
+}
@@ -0,0 +1,286 @@
+package blackjack;
+
+import blackjack.RoundEngine.Outcome;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Streams a file written by HandHistoryWriter one block at a time. Memory use
+// is one decoded block however long the file is, so aggregates over hundreds
+// of millions of hands run in constant space. Version 1 files are still read;
+// they stored split, surrendered and peeked rounds as single STAND or BUST hands.
+public class HandHistoryReader implements Closeable {
+
+    private static final Outcome[] OUTCOMES = Outcome.values();
+
+    private final DataInputStream in;
+    private final int version;
+    private byte[] raw = new byte[0];
+    private int at;                     // parse position in raw
+
+    // ===== Current block =====
+    private int hands;
+    private int[] bets = new int[0];
+    private int[] nets = new int[0];
+    private byte[] flags = new byte[0];
+    private byte[] playerCounts = new byte[0];
+    private byte[] dealerCounts = new byte[0];
+    private int[] shoe = new int[0];
+    private int[] offsets = new int[0];     // first card of each hand
+    private int[] splitAt = new int[0];     // a SPLIT round's entry in splits
+    private byte[] splits = new byte[0];
+    private byte[] cards = new byte[0];
+
+    public HandHistoryReader(Path file) throws IOException {
+        in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+        if(in.readInt() != HandHistoryWriter.FILE_MAGIC) throw new IOException("Not a hand history: " + file);
+        version = in.readInt();
+        if(version < 1 || version > HandHistoryWriter.VERSION) throw new IOException("Unsupported hand history version " + version);
+    }
+
+    // Decode the next block; false at the end of the file
+    public boolean next() throws IOException {
+        int magic;
+        try {
+            magic = in.readInt();
+        } catch(EOFException end){
+            return false;
+        }
+        if(magic != HandHistoryWriter.BLOCK_MAGIC) throw new IOException("Corrupt block header");
+
+        int length = in.readInt();
+        if(raw.length < length) raw = new byte[length];
+        in.readFully(raw, 0, length);
+        at = 0;
+
+        hands = readInt();
+        ensure(hands);
+
+        int dictSize = raw[at++];
+        byte[] dict = new byte[dictSize];
+        for(int i = 0; i < dictSize; i++) dict[i] = raw[at++];
+        int bits = raw[at++];
+
+        int bet = 0, left = 0;
+        for(int i = 0; i < hands; i++) bets[i] = bet += unzigzag(readVar());
+        for(int i = 0; i < hands; i++) nets[i] = unzigzag(readVar());
+        at = copy(flags, at);
+        at = copy(playerCounts, at);
+        at = copy(dealerCounts, at);
+        for(int i = 0; i < hands; i++) shoe[i] = left += unzigzag(readVar());
+
+        if(version == 1){
+            for(int i = 0; i < hands; i++) flags[i] = (byte) ((flags[i] >> 2) << HandHistoryWriter.END_BITS | flags[i] & 3);
+        } else {
+            int splitSize = readVar();
+            if(splits.length < splitSize) splits = new byte[splitSize];
+            System.arraycopy(raw, at, splits, 0, splitSize);
+            at += splitSize;
+            for(int i = 0, next = 0; i < hands; i++){
+                if(end(i) != HandHistoryWriter.SPLIT) continue;
+                splitAt[i] = next;
+                next += 1 + 2 * splits[next];
+            }
+        }
+
+        int cardCount = readInt();
+        if(cards.length < cardCount) cards = new byte[cardCount];
+        long acc = 0;
+        int have = 0;
+        int mask = (1 << bits) - 1;
+        for(int i = 0; i < cardCount; i++){
+            while(have < bits){
+                acc |= (long) (raw[at++] & 0xFF) << have;
+                have += 8;
+            }
+            cards[i] = dict[(int) (acc & mask)];
+            acc >>>= bits;
+            have -= bits;
+        }
+
+        int offset = 0;
+        for(int i = 0; i < hands; i++){
+            offsets[i] = offset;
+            offset += playerCounts[i] + dealerCounts[i];
+        }
+        return true;
+    }
+
+    // ===== Current block =====
+    public int hands(){ return hands; }
+    public int bet(int i){ return bets[i]; }                 // opening bet
+    public int net(int i){ return nets[i]; }
+    public Outcome outcome(int i){ return OUTCOMES[(flags[i] & ~HandHistoryWriter.INSURED & 0xFF) >> HandHistoryWriter.END_BITS]; }
+    public int end(int i){ return flags[i] & (1 << HandHistoryWriter.END_BITS) - 1; }
+    public boolean insured(int i){ return (flags[i] & HandHistoryWriter.INSURED) != 0; }
+    public int shoeRemaining(int i){ return shoe[i]; }
+    public int playerCards(int i){ return playerCounts[i]; }
+    public int dealerCards(int i){ return dealerCounts[i]; }
+    public int playerCard(int i, int k){ return cards[offsets[i] + k]; }
+    public int dealerCard(int i, int k){ return cards[offsets[i] + playerCounts[i] + k]; }
+
+    // ===== Player hands of a round, one unless it was split =====
+    public int playerHands(int i){ return end(i) == HandHistoryWriter.SPLIT ? splits[splitAt[i]] : 1; }
+
+    public int handCards(int i, int h){
+        return end(i) == HandHistoryWriter.SPLIT ? splits[splitAt[i] + 1 + 2 * h] : playerCounts[i];
+    }
+
+    public Outcome handOutcome(int i, int h){
+        return end(i) == HandHistoryWriter.SPLIT ? OUTCOMES[splits[splitAt[i] + 2 + 2 * h] >> HandHistoryWriter.END_BITS] : outcome(i);
+    }
+
+    public int handEnd(int i, int h){
+        return end(i) == HandHistoryWriter.SPLIT ? splits[splitAt[i] + 2 + 2 * h] & (1 << HandHistoryWriter.END_BITS) - 1 : end(i);
+    }
+
+    public int handCard(int i, int h, int k){
+        int first = 0;
+        for(int j = 0; j < h; j++) first += handCards(i, j);
+        return playerCard(i, first + k);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private void ensure(int n){
+        if(bets.length >= n) return;
+        bets = new int[n];
+        nets = new int[n];
+        flags = new byte[n];
+        playerCounts = new byte[n];
+        dealerCounts = new byte[n];
+        shoe = new int[n];
+        offsets = new int[n];
+        splitAt = new int[n];
+    }
+
+    private int copy(byte[] dst, int from){
+        System.arraycopy(raw, from, dst, 0, hands);
+        return from + hands;
+    }
+
+    private int readInt(){
+        int v = (raw[at] & 0xFF) << 24 | (raw[at + 1] & 0xFF) << 16 | (raw[at + 2] & 0xFF) << 8 | (raw[at + 3] & 0xFF);
+        at += 4;
+        return v;
+    }
+
+    private int readVar(){
+        int v = 0, shift = 0;
+        byte b;
+        do {
+            b = raw[at++];
+            v |= (b & 0x7F) << shift;
+            shift += 7;
+        } while(b < 0);
+        return v;
+    }
+
+    private static int unzigzag(int v){
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    // ===============================================================================================
+    // AGGREGATES
+    // ===============================================================================================
+
+    public static class Report {
+        private static final int SOFT = 22;         // soft totals are stored at SOFT + total
+
+        public long hands;
+        public double units;                        // net in opening-bet units
+
+        // By dealer upcard slot (0 = ace .. 9 = ten-valued)
+        public final long[] upHands = new long[CardModel.VALUES];
+        public final long[] upWins = new long[CardModel.VALUES];
+        public final long[] upPushes = new long[CardModel.VALUES];
+        public final double[] upUnits = new double[CardModel.VALUES];
+
+        // By the player's first two cards
+        public final long[] startHands = new long[SOFT + 22];
+        public final double[] startUnits = new double[SOFT + 22];
+
+        void add(HandHistoryReader r, int i){
+            Outcome o = r.outcome(i);
+            double u = (double) r.net(i) / r.bet(i);
+            hands++;
+            units += u;
+
+            int up = CardModel.valueIndex(r.dealerCard(i, 0));
+            upHands[up]++;
+            if(o.isWin()) upWins[up]++;
+            else if(o.isPush()) upPushes[up]++;
+            upUnits[up] += u;
+
+            // A split pair's second card starts the second hand
+            int a = r.playerCard(i, 0), b = r.playerHands(i) > 1 ? r.handCard(i, 1, 0) : r.playerCard(i, 1);
+            int total = CardModel.value(a) + CardModel.value(b);
+            boolean soft = CardModel.isAce(a) || CardModel.isAce(b);
+            if(total > 21) total -= 10;             // two aces: soft 12
+            int slot = soft ? SOFT + total : total;
+            startHands[slot]++;
+            startUnits[slot] += u;
+        }
+
+        @Override
+        public String toString(){
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("hands=%,d  EV=%+.5f per unit%n%n", hands, hands == 0 ? 0 : units / hands));
+
+            sb.append(String.format("Dealer up   hands          win    push   EV/unit%n"));
+            for(int s = 0; s < CardModel.VALUES; s++){
+                int slot = (s + 1) % CardModel.VALUES;      // 2..10 first, ace last
+                long n = upHands[slot];
+                if(n == 0) continue;
+                sb.append(String.format("%-10s %,13d  %6.2f%% %6.2f%%  %+.4f%n", slot == 0 ? "A" : String.valueOf(slot + 1),
+                        n, 100.0 * upWins[slot] / n, 100.0 * upPushes[slot] / n, upUnits[slot] / n));
+            }
+
+            sb.append(String.format("%nStart       hands          EV/unit%n"));
+            for(int slot = 0; slot < startHands.length; slot++){
+                long n = startHands[slot];
+                if(n == 0) continue;
+                String name = slot >= SOFT ? "soft " + (slot - SOFT) : "hard " + slot;
+                sb.append(String.format("%-10s %,13d  %+.4f%n", name, n, startUnits[slot] / n));
+            }
+            return sb.toString();
+        }
+    }
+
+    public static Report analyze(Path... files) throws IOException {
+        Report report = new Report();
+        for(Path f : files){
+            try(HandHistoryReader r = new HandHistoryReader(f)){
+                while(r.next()){
+                    for(int i = 0; i < r.hands(); i++) report.add(r, i);
+                }
+            }
+        }
+        return report;
+    }
+
+    // java blackjack.HandHistoryReader file...
+    public static void main(String[] args) throws IOException {
+        if(args.length == 0){
+            System.err.println("usage: java blackjack.HandHistoryReader <file.bjh>...");
+            System.exit(2);
+        }
+
+        Path[] files = new Path[args.length];
+        for(int i = 0; i < args.length; i++) files[i] = Path.of(args[i]);
+
+        long t0 = System.nanoTime();
+        Report r = analyze(files);
+        double secs = (System.nanoTime() - t0) / 1e9;
+        System.out.print(r);
+        System.out.printf("%n%.2f s, %,.0f hands/s%n", secs, r.hands / secs);
+    }
+}
@@ -0,0 +1,344 @@
+package blackjack;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+
+// Records every hand a RoundEngine plays into a columnar binary file. Hands
+// are buffered column by column and encoded in blocks of up to BLOCK_HANDS,
+// each starting with its magic, byte length, hand count and card dictionary:
+//
+//   bets    zigzag varint delta from the previous hand's opening bet
+//   nets    zigzag varint, insurance included
+//   flags   byte: INSURED | outcome ordinal << 3 | end (NATURAL .. SPLIT)
+//   counts  two bytes: player cards, dealer cards
+//   shoe    zigzag varint delta of the cards left in the shoe at the deal
+//   splits  varint length, then for each SPLIT round in order its hand count
+//           and per hand: cards, outcome ordinal << 3 | end
+//   cards   bit-packed indices into the block's card dictionary, each hand's
+//           player cards (hand by hand for a split) then dealer cards
+//
+// The actions follow from flags and counts: the player hit (cards - 2) times,
+// less one for a double, then stood, doubled or bust; surrendered; or never
+// acted (NATURAL, PEEK). A SPLIT round split (hands - 1) times and each hand
+// ends the same way. Version 1 files had no SURRENDER, PEEK, SPLIT or INSURED
+// and kept the end in 2 bits. Blocks are encoded on the recording thread and
+// handed to one writer thread, which writes them in order; if it falls
+// PENDING_BLOCKS behind, the recording thread waits.
+public class HandHistoryWriter implements RoundEngine.Recorder {
+
+    static final int FILE_MAGIC = 0x424A4848;        // "BJHH"
+    static final int VERSION = 2;
+    static final int BLOCK_MAGIC = 0x424C4B31;       // "BLK1"
+    static final int BLOCK_HANDS = 1 << 16;
+    private static final int PENDING_BLOCKS = 4;
+    private static final ByteBuffer END = ByteBuffer.allocate(0);     // no more blocks
+
+    // ===== How the player's turn ended =====
+    public static final int NATURAL = 0;
+    public static final int STAND = 1;
+    public static final int DOUBLE = 2;
+    public static final int BUST = 3;
+    public static final int SURRENDER = 4;
+    public static final int PEEK = 5;           // the dealer's blackjack was found before the player acted
+    public static final int SPLIT = 6;          // see the splits column for each hand's end
+
+    static final int END_BITS = 3;
+    static final int INSURED = 0x80;
+
+    private final FileChannel out;
+    private final ArrayBlockingQueue<ByteBuffer> pending = new ArrayBlockingQueue<>(PENDING_BLOCKS);
+    private final Thread writer;
+    private volatile IOException failure;      // first failed write; later blocks are dropped
+
+    // ===== Current block, one array per column =====
+    private final int[] bets = new int[BLOCK_HANDS];
+    private final int[] nets = new int[BLOCK_HANDS];
+    private final byte[] flags = new byte[BLOCK_HANDS];
+    private final byte[] playerCounts = new byte[BLOCK_HANDS];
+    private final byte[] dealerCounts = new byte[BLOCK_HANDS];
+    private final int[] shoe = new int[BLOCK_HANDS];
+    private byte[] cards = new byte[BLOCK_HANDS * 6];
+    private int cardCount;
+    private byte[] splits = new byte[256];
+    private int splitSize;
+    private int hands;
+    private long written;
+    private boolean closed;
+
+    // Hand in progress
+    private int dealerCards;
+    private final byte[] dealerBuf = new byte[32];
+
+    public HandHistoryWriter(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        out = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+
+        ByteBuffer header = ByteBuffer.allocate(8).putInt(FILE_MAGIC).putInt(VERSION);
+        out.write(header.flip());
+
+        writer = new Thread(this::writeBlocks, "hand-history");
+        writer.setDaemon(false);        // queued blocks are written before the JVM exits
+        writer.start();
+    }
+
+    // ===============================================================================================
+    // RECORDER
+    // ===============================================================================================
+
+    @Override
+    public void event(RoundEngine round, int event){
+        switch(RoundEvent.kind(event)){
+            case RoundEvent.PHASE:
+                if(RoundEvent.phase(event) == RoundEngine.Phase.DEALING) begin(round);
+                break;
+            case RoundEvent.DEALER_CARD:
+                dealerBuf[dealerCards++] = (byte) RoundEvent.arg(event);
+                break;
+            case RoundEvent.OUTCOME:
+                settled(round);
+                break;
+        }
+    }
+
+    private void begin(RoundEngine round){
+        bets[hands] = round.bet();
+        shoe[hands] = round.shoe().size();
+        dealerCards = 0;
+    }
+
+    // Player cards are taken from the settled hands, so a split round keeps each
+    // hand's cards together; dealer cards are buffered as they are drawn
+    private void settled(RoundEngine round){
+        if(closed) return;
+
+        int playerCards = 0;
+        for(int h = 0; h < round.hands(); h++){
+            Hand hand = round.hand(h);
+            ensureCards(hand.size());
+            for(int k = 0; k < hand.size(); k++) cards[cardCount++] = (byte) hand.code(k);
+            playerCards += hand.size();
+        }
+        ensureCards(dealerCards);
+        System.arraycopy(dealerBuf, 0, cards, cardCount, dealerCards);
+        cardCount += dealerCards;
+
+        int end = round.hands() > 1 ? SPLIT : end(round, 0);
+        if(end == SPLIT) splitHands(round);
+
+        nets[hands] = round.net();
+        flags[hands] = (byte) ((round.insurance() > 0 ? INSURED : 0) | round.outcome().ordinal() << END_BITS | end);
+        playerCounts[hands] = (byte) playerCards;
+        dealerCounts[hands] = (byte) dealerCards;
+
+        if(++hands == BLOCK_HANDS) flushBlock();
+    }
+
+    // How the player left a hand the dealer settled
+    private static int played(RoundEngine round, int h){
+        return round.doubled(h) ? DOUBLE : round.hand(h).isBust() ? BUST : STAND;
+    }
+
+    private static int end(RoundEngine round, int h){
+        switch(round.outcome(h)){
+            case BLACKJACK:
+            case BLACKJACK_PUSH: return NATURAL;
+            case SURRENDER: return SURRENDER;
+            case DEALER_BLACKJACK: return round.rules().peek ? PEEK : played(round, h);     // unpeeked: the player acted first
+            default: return played(round, h);
+        }
+    }
+
+    private void splitHands(RoundEngine round){
+        int n = round.hands();
+        if(splitSize + 1 + 2 * n > splits.length) splits = Arrays.copyOf(splits, Math.max(splits.length * 2, splitSize + 1 + 2 * n));
+        splits[splitSize++] = (byte) n;
+        for(int h = 0; h < n; h++){
+            splits[splitSize++] = (byte) round.hand(h).size();
+            splits[splitSize++] = (byte) (round.outcome(h).ordinal() << END_BITS | end(round, h));
+        }
+    }
+
+    private void ensureCards(int n){
+        if(cardCount + n > cards.length) cards = Arrays.copyOf(cards, Math.max(cards.length * 2, cardCount + n));
+    }
+
+    public long hands(){
+        return written + hands;
+    }
+
+    // Encode what is buffered, wait for every block to be written and close the
+    // file. Call on the recording thread; later hands are dropped.
+    public void close(){
+        if(closed) return;
+        flushBlock();
+        closed = true;
+        handOver(END);
+        try {
+            writer.join();
+        } catch(InterruptedException ex){
+            Thread.currentThread().interrupt();
+        }
+        try {
+            out.close();
+        } catch(IOException ex){
+            System.err.println("Hand history close failed: " + ex);
+        }
+        if(failure != null) System.err.println("Hand history is incomplete, a write failed: " + failure);
+    }
+
+    // ===============================================================================================
+    // WRITER THREAD
+    // ===============================================================================================
+
+    // Blocks in the order they were handed over, until END. After a failure the
+    // rest are taken and dropped, so the recording thread never waits on a dead writer.
+    private void writeBlocks(){
+        while(true){
+            ByteBuffer block;
+            try {
+                block = pending.take();
+            } catch(InterruptedException ex){
+                if(failure == null) failure = new IOException("writer interrupted");
+                continue;
+            }
+            if(block == END) return;
+            if(failure != null) continue;
+            try {
+                while(block.hasRemaining()) out.write(block);
+            } catch(IOException ex){
+                failure = ex;
+            }
+        }
+    }
+
+    // Blocks while PENDING_BLOCKS are already waiting
+    private void handOver(ByteBuffer block){
+        boolean interrupted = false;
+        while(true){
+            try {
+                pending.put(block);
+                break;
+            } catch(InterruptedException ex){
+                interrupted = true;
+            }
+        }
+        if(interrupted) Thread.currentThread().interrupt();
+    }
+
+    // ===============================================================================================
+    // ENCODING
+    // ===============================================================================================
+
+    private void flushBlock(){
+        if(hands == 0) return;
+
+        VarBytes b = new VarBytes(hands * 12 + 64);
+        b.putInt(BLOCK_MAGIC);
+        b.putInt(0);                    // length, patched below
+        b.putInt(hands);
+
+        // Card dictionary: the codes seen in this block; a single suit or a
+        // short block packs into fewer than 6 bits per card
+        boolean[] seen = new boolean[CardModel.CODES];
+        for(int i = 0; i < cardCount; i++) seen[cards[i]] = true;
+
+        int dictSize = 0;
+        int[] index = new int[CardModel.CODES];
+        for(int c = 0; c < CardModel.CODES; c++) if(seen[c]) index[c] = dictSize++;
+        b.put(dictSize);
+        for(int c = 0; c < CardModel.CODES; c++) if(seen[c]) b.put(c);
+        int bits = Math.max(1, 32 - Integer.numberOfLeadingZeros(Math.max(1, dictSize - 1)));
+        b.put(bits);
+
+        int prevBet = 0, prevShoe = 0;
+        for(int i = 0; i < hands; i++){
+            b.putVar(zigzag(bets[i] - prevBet));
+            prevBet = bets[i];
+        }
+        for(int i = 0; i < hands; i++) b.putVar(zigzag(nets[i]));
+        b.put(flags, hands);
+        b.put(playerCounts, hands);
+        b.put(dealerCounts, hands);
+        for(int i = 0; i < hands; i++){
+            b.putVar(zigzag(shoe[i] - prevShoe));
+            prevShoe = shoe[i];
+        }
+        b.putVar(splitSize);
+        b.put(splits, splitSize);
+
+        b.putInt(cardCount);
+        long acc = 0;
+        int used = 0;
+        for(int i = 0; i < cardCount; i++){
+            acc |= (long) index[cards[i]] << used;
+            used += bits;
+            while(used >= 8){
+                b.put((int) (acc & 0xFF));
+                acc >>>= 8;
+                used -= 8;
+            }
+        }
+        if(used > 0) b.put((int) acc);
+        b.patchInt(4, b.size - 8);
+
+        written += hands;
+        hands = 0;
+        cardCount = 0;
+        splitSize = 0;
+
+        handOver(ByteBuffer.wrap(b.bytes, 0, b.size));
+    }
+
+    static int zigzag(int v){
+        return (v << 1) ^ (v >> 31);
+    }
+
+    // Growable byte array with varints
+    private static class VarBytes {
+        byte[] bytes;
+        int size;
+
+        VarBytes(int capacity){
+            bytes = new byte[capacity];
+        }
+
+        void put(int b){
+            if(size == bytes.length) bytes = Arrays.copyOf(bytes, size * 2);
+            bytes[size++] = (byte) b;
+        }
+
+        void put(byte[] src, int n){
+            if(size + n > bytes.length) bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + n));
+            System.arraycopy(src, 0, bytes, size, n);
+            size += n;
+        }
+
+        void putInt(int v){
+            put(v >>> 24);
+            put(v >>> 16);
+            put(v >>> 8);
+            put(v);
+        }
+
+        void patchInt(int at, int v){
+            bytes[at] = (byte) (v >>> 24);
+            bytes[at + 1] = (byte) (v >>> 16);
+            bytes[at + 2] = (byte) (v >>> 8);
+            bytes[at + 3] = (byte) v;
+        }
+
+        void putVar(int v){
+            while((v & ~0x7F) != 0){
+                put((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            put(v);
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package blackjack;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+
+// Drives a TableServer with bot players, one connection and one thread each,
+// and reports action latency (request written to reply read) and rounds/s.
+// Bots play mimic-the-dealer: hit below 17, otherwise stand. Every bot keeps
+// its own histogram; they are merged once the run is over. Bot n plays at a
+// table with TableRules preset n, cycling through them.
+public class LoadGenerator {
+
+    private static final int BET = 10;
+
+    private final String host;
+    private final int port;
+    private final int bots;
+
+    private volatile boolean running = true;
+    private final Histogram[] histograms;
+    private final long[] roundsPlayed;
+    private final long[] errors;
+
+    public LoadGenerator(String host, int port, int bots){
+        this.host = host;
+        this.port = port;
+        this.bots = bots;
+        histograms = new Histogram[bots];
+        roundsPlayed = new long[bots];
+        errors = new long[bots];
+    }
+
+    public static class Result {
+        public int bots;
+        public int connected;
+        public double seconds;
+        public long rounds;
+        public long actions;
+        public long errors;
+        public double p50Micros;
+        public double p99Micros;
+        public double maxMicros;
+
+        @Override
+        public String toString(){
+            return String.format(
+                    "bots=%,d connected=%,d  %.1f s%n" +
+                    "rounds=%,d  %,.0f rounds/s  actions=%,d  errors=%,d%n" +
+                    "latency p50=%.0fus p99=%.0fus max=%.0fus",
+                    bots, connected, seconds, rounds, rounds / seconds, actions, errors,
+                    p50Micros, p99Micros, maxMicros);
+        }
+    }
+
+    // Connect every bot, play for the given time, then collect
+    public Result run(double seconds) throws InterruptedException {
+        CountDownLatch connected = new CountDownLatch(bots);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(bots);
+        boolean[] ok = new boolean[bots];
+
+        for(int i = 0; i < bots; i++){
+            int id = i;
+            TableServer.spawn("bot", () -> {
+                try {
+                    bot(id, ok, connected, start);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        connected.await();
+        long t0 = System.nanoTime();
+        start.countDown();
+        Thread.sleep((long) (seconds * 1000));
+        running = false;
+        double elapsed = (System.nanoTime() - t0) / 1e9;
+        done.await();
+
+        Result r = new Result();
+        r.bots = bots;
+        r.seconds = elapsed;
+        Histogram all = new Histogram();
+        for(int i = 0; i < bots; i++){
+            if(ok[i]) r.connected++;
+            r.rounds += roundsPlayed[i];
+            r.errors += errors[i];
+            if(histograms[i] != null) all.add(histograms[i]);
+        }
+        r.actions = all.count;
+        r.p50Micros = all.percentile(0.50) / 1e3;
+        r.p99Micros = all.percentile(0.99) / 1e3;
+        r.maxMicros = all.max / 1e3;
+        return r;
+    }
+
+    // ===============================================================================================
+    // BOT
+    // ===============================================================================================
+
+    private void bot(int id, boolean[] ok, CountDownLatch connected, CountDownLatch start){
+        Socket socket;
+        try {
+            socket = new Socket();
+            socket.setTcpNoDelay(true);
+            socket.connect(new InetSocketAddress(host, port));
+        } catch(IOException ex){
+            connected.countDown();
+            return;
+        }
+        ok[id] = true;
+        connected.countDown();
+
+        Histogram h = new Histogram();
+        histograms[id] = h;
+        long played = 0, failed = 0;
+
+        try(socket;
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII))){
+
+            // Bots sit at every preset's tables in turn; set up before the clock starts
+            if(!call(out, in, "RULES " + TableRules.PRESETS[id % TableRules.PRESETS.length].name, null).startsWith("RULES ")) failed++;
+
+            start.await();
+            while(running){
+                String reply = call(out, in, "BET " + BET, h);
+                if(reply.startsWith("INSURANCE")) reply = call(out, in, "NOINSURE", h);
+                while(reply.startsWith("DEAL") || reply.startsWith("CARD") || reply.startsWith("HAND")){
+                    int total = Integer.parseInt(reply.substring(reply.lastIndexOf(' ') + 1));
+                    reply = call(out, in, total < 17 ? "HIT" : "STAND", h);
+                }
+
+                if(reply.startsWith("END")){
+                    played++;
+                } else if(reply.startsWith("ERR balance")){
+                    call(out, in, "REFILL", h);
+                } else {
+                    failed++;
+                }
+            }
+            out.write("QUIT\n");
+            out.flush();
+        } catch(IOException | InterruptedException ex){
+            failed++;
+        }
+
+        roundsPlayed[id] = played;
+        errors[id] = failed;
+    }
+
+    // h: where the round trip is timed, or null to leave it out
+    private static String call(Writer out, BufferedReader in, String request, Histogram h) throws IOException {
+        long t = System.nanoTime();
+        out.write(request);
+        out.write('\n');
+        out.flush();
+        String reply = in.readLine();
+        if(h != null) h.record(System.nanoTime() - t);
+        if(reply == null) throw new IOException("Server closed the connection");
+        return reply;
+    }
+
+    // ===============================================================================================
+    // HISTOGRAM
+    // ===============================================================================================
+
+    // Log-linear buckets: 16 per power of two, so percentiles are within about 6%
+    static class Histogram {
+        private static final int SUB_BITS = 4;
+        private static final int SUB = 1 << SUB_BITS;
+
+        final long[] counts = new long[64 * SUB];
+        long count;
+        long max;
+
+        void record(long nanos){
+            nanos = Math.max(1, nanos);
+            counts[index(nanos)]++;
+            count++;
+            if(nanos > max) max = nanos;
+        }
+
+        void add(Histogram o){
+            for(int i = 0; i < counts.length; i++) counts[i] += o.counts[i];
+            count += o.count;
+            max = Math.max(max, o.max);
+        }
+
+        // Upper bound of the bucket holding the percentile
+        long percentile(double p){
+            long target = (long) Math.ceil(count * p);
+            long seen = 0;
+            for(int i = 0; i < counts.length; i++){
+                seen += counts[i];
+                if(seen >= target && seen > 0) return Math.min(max, upper(i));
+            }
+            return 0;
+        }
+
+        private static int index(long v){
+            int exp = 63 - Long.numberOfLeadingZeros(v);
+            if(exp < SUB_BITS) return (int) v;
+            int sub = (int) (v >>> (exp - SUB_BITS)) & (SUB - 1);
+            return (exp - SUB_BITS + 1) * SUB + sub;
+        }
+
+        private static long upper(int i){
+            if(i < SUB) return i;
+            int exp = i / SUB + SUB_BITS - 1;
+            int sub = i % SUB;
+            return ((long) (SUB + sub + 1) << (exp - SUB_BITS)) - 1;
+        }
+    }
+
+    // ===============================================================================================
+    // MAIN
+    // ===============================================================================================
+
+    // java blackjack.LoadGenerator [bots] [seconds] [host:port]
+    // Without host:port a TableServer is started in this JVM on a free port.
+    public static void main(String[] args) throws Exception {
+        int bots = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        double seconds = args.length > 1 ? Double.parseDouble(args[1]) : 10;
+
+        String host = "127.0.0.1";
+        int port;
+        TableServer embedded = null;
+        if(args.length > 2){
+            int colon = args[2].lastIndexOf(':');
+            host = args[2].substring(0, colon);
+            port = Integer.parseInt(args[2].substring(colon + 1));
+        } else {
+            embedded = new TableServer(0, 1000);
+            port = embedded.port();
+            Thread accept = new Thread(embedded::serve, "accept");
+            accept.setDaemon(true);
+            accept.start();
+        }
+
+        System.out.printf("%,d bots -> %s:%d (%s threads)%n", bots, host, port,
+                TableServer.virtualThreads() ? "virtual" : "platform");
+        Result r = new LoadGenerator(host, port, bots).run(seconds);
+        System.out.println(r);
+
+        if(embedded != null) embedded.close();
+    }
+}
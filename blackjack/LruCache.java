@@ -0,0 +1,22 @@
+package blackjack;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Size-bounded map that evicts the least recently used entry. Not thread-safe.
+public class LruCache<K, V> extends LinkedHashMap<K, V> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int maxEntries;
+
+    public LruCache(int maxEntries){
+        super(16, 0.75f, true);
+        this.maxEntries = maxEntries;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<K, V> eldest){
+        return size() > maxEntries;
+    }
+}
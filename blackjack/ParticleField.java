@@ -0,0 +1,154 @@
+package blackjack;
+
+import javafx.animation.AnimationTimer;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// Drifting dust for the start screen: one Canvas, one AnimationTimer and
+// struct-of-arrays float buffers, so the cost is a few array passes per frame
+// however many particles there are. Dots are splatted into a half-resolution
+// ARGB buffer that is uploaded once and scaled up smoothed, which also gives
+// the soft look the per-node BoxBlur used to.
+public class ParticleField {
+
+    private static final int DOWNSCALE = 2;
+
+    private final Canvas canvas = new Canvas();
+    private final int count;
+
+    // ===== Particle state (struct of arrays) =====
+    private float[] x, y;           // full-resolution pixels
+    private float[] vx, vy;         // pixels per second
+    private float[] alpha;          // 0..1
+
+    private int[] pixels;
+    private WritableImage frame;
+    private int bufW, bufH;
+
+    private long last;
+    private boolean stopped;
+
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now){
+            step(now);
+        }
+    };
+
+    // density: particles per megapixel of the initial size
+    public ParticleField(double width, double height, double density){
+        count = Math.max(1, (int) (width * height / 1e6 * density));
+        canvas.setWidth(width);
+        canvas.setHeight(height);
+        canvas.setMouseTransparent(true);
+
+        x = new float[count];
+        y = new float[count];
+        vx = new float[count];
+        vy = new float[count];
+        alpha = new float[count];
+
+        SplittableRandom rnd = new SplittableRandom();
+        for(int i = 0; i < count; i++){
+            x[i] = (float) rnd.nextDouble(0, width);
+            y[i] = (float) rnd.nextDouble(0, height);
+            vx[i] = (float) rnd.nextDouble(-1.5, 1.5);
+            vy[i] = (float) -rnd.nextDouble(3, 12);
+            alpha[i] = (float) rnd.nextDouble(0.05, 0.16);
+        }
+    }
+
+    public Canvas canvas(){
+        return canvas;
+    }
+
+    public int count(){
+        return count;
+    }
+
+    public void start(){
+        if(stopped) return;
+        last = 0;
+        timer.start();
+    }
+
+    // Stop for good and drop every buffer
+    public void stop(){
+        timer.stop();
+        stopped = true;
+        x = y = vx = vy = alpha = null;
+        pixels = null;
+        frame = null;
+        canvas.getGraphicsContext2D().clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        canvas.setWidth(0);
+        canvas.setHeight(0);
+    }
+
+    private void step(long now){
+        double w = canvas.getWidth();
+        double h = canvas.getHeight();
+        if(w < DOWNSCALE || h < DOWNSCALE) return;
+
+        float dt = last == 0 ? 0 : (float) Math.min(0.1, (now - last) / 1e9);
+        last = now;
+
+        ensureBuffer(w, h);
+        Arrays.fill(pixels, 0);
+
+        float fw = (float) w, fh = (float) h;
+        for(int i = 0; i < count; i++){
+            float px = x[i] + vx[i] * dt;
+            float py = y[i] + vy[i] * dt;
+
+            // Wrap so the field never thins out
+            if(py < 0) py += fh;
+            if(px < 0) px += fw;
+            else if(px >= fw) px -= fw;
+
+            x[i] = px;
+            y[i] = py;
+            splat((int) px / DOWNSCALE, (int) py / DOWNSCALE, alpha[i]);
+        }
+
+        frame.getPixelWriter().setPixels(0, 0, bufW, bufH, PixelFormat.getIntArgbPreInstance(), pixels, 0, bufW);
+
+        GraphicsContext g = canvas.getGraphicsContext2D();
+        g.clearRect(0, 0, w, h);
+        g.setImageSmoothing(true);
+        g.drawImage(frame, 0, 0, bufW * DOWNSCALE, bufH * DOWNSCALE);
+    }
+
+    // Bright centre plus a dimmer cross, white premultiplied; overlaps keep the brighter value
+    private void splat(int cx, int cy, float a){
+        plot(cx, cy, a);
+        float half = a * 0.5f;
+        plot(cx - 1, cy, half);
+        plot(cx + 1, cy, half);
+        plot(cx, cy - 1, half);
+        plot(cx, cy + 1, half);
+    }
+
+    private void plot(int px, int py, float a){
+        if(px < 0 || py < 0 || px >= bufW || py >= bufH) return;
+        int v = (int) (a * 255);
+        int i = py * bufW + px;
+        if((pixels[i] >>> 24) >= v) return;
+        pixels[i] = (v << 24) | (v << 16) | (v << 8) | v;
+    }
+
+    private void ensureBuffer(double w, double h){
+        int bw = (int) Math.ceil(w / DOWNSCALE);
+        int bh = (int) Math.ceil(h / DOWNSCALE);
+        if(frame != null && bw == bufW && bh == bufH) return;
+
+        bufW = bw;
+        bufH = bh;
+        pixels = new int[bw * bh];
+        frame = new WritableImage(bw, bh);
+    }
+}
@@ -0,0 +1,83 @@
+package blackjack;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+// Steps render quality down when busy frames run slow and back up once there
+// is headroom again. Idle gaps between pulses are ignored, and stepping up
+// needs a longer run of good windows than stepping down (hysteresis).
+public class QualityGovernor {
+
+    // ===== Tiers =====
+    public static final int HIGH = 0;       // everything on
+    public static final int MEDIUM = 1;     // no card glow or deck shadows, cards bitmap-cached in flight
+    public static final int LOW = 2;        // also no panel shadows, flat table
+    private static final String[] NAMES = {"HIGH", "MEDIUM", "LOW"};
+
+    private static final long WINDOW_NANOS = 1_000_000_000L;
+    private static final long IDLE_NANOS = 200_000_000L;     // longer gaps mean nothing was animating
+    private static final int MIN_SAMPLES = 20;
+    private static final double SLOW_MS = 25;                // p90 above this: below ~40 FPS
+    private static final double FAST_MS = 18;                // p90 below this: holding ~60 FPS
+    private static final int SLOW_WINDOWS = 2;
+    private static final int FAST_WINDOWS = 5;
+
+    private final FrameStats frames;
+    private final IntConsumer apply;
+    private final boolean pinned;
+
+    private int tier;
+    private long windowStart;
+    private int slowRun;
+    private int fastRun;
+    private int changes;
+
+    // pin: "auto" (or null) to adapt, otherwise a tier name to hold
+    public QualityGovernor(FrameStats frames, IntConsumer apply, String pin){
+        this.frames = frames;
+        this.apply = apply;
+
+        int fixed = pin == null ? -1 : Arrays.asList(NAMES).indexOf(pin.toUpperCase());
+        pinned = fixed >= 0;
+        tier = pinned ? fixed : HIGH;
+        apply.accept(tier);
+    }
+
+    // Post-layout pulse listener, after FrameStats has recorded the pulse
+    public void onPulse(long now){
+        if(pinned) return;
+        if(windowStart == 0) windowStart = now;
+        if(now - windowStart < WINDOW_NANOS) return;
+
+        double p90 = frames.busyIntervalPercentileMillis(0.90, windowStart, IDLE_NANOS, MIN_SAMPLES);
+        windowStart = now;
+        if(Double.isNaN(p90)) return;       // mostly idle: no verdict
+
+        if(p90 > SLOW_MS){
+            fastRun = 0;
+            if(++slowRun >= SLOW_WINDOWS && tier < LOW) set(tier + 1);
+        } else if(p90 < FAST_MS){
+            slowRun = 0;
+            if(++fastRun >= FAST_WINDOWS && tier > HIGH) set(tier - 1);
+        } else {
+            slowRun = 0;
+            fastRun = 0;
+        }
+    }
+
+    private void set(int t){
+        tier = t;
+        slowRun = 0;
+        fastRun = 0;
+        changes++;
+        apply.accept(t);
+    }
+
+    public int tier(){ return tier; }
+    public int changes(){ return changes; }
+
+    @Override
+    public String toString(){
+        return NAMES[tier] + (pinned ? " (pinned)" : "") + ", changes=" + changes;
+    }
+}
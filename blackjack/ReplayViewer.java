@@ -0,0 +1,207 @@
+package blackjack;
+
+import javafx.animation.PauseTransition;
+import javafx.collections.FXCollections;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.Slider;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.util.Duration;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Plays a recorded session back on the table. Each round is re-dealt by the
+// replay's engine and turned into the same GameEvents the live table gets, so
+// it goes through the normal presentation path (dealTo / revealDealer) at the
+// chosen speed. Dragging the slider seeks through SessionReplay's keyframes.
+// FX thread only.
+public class ReplayViewer {
+
+    private static final String[] SPEED_NAMES = {"0.25×", "0.5×", "1×", "2×", "5×", "10×", "25×", "50×"};
+    private static final double[] SPEEDS = {0.25, 0.5, 1, 2, 5, 10, 25, 50};
+    private static final double ROUND_GAP = 600;     // ms between rounds at 1×
+
+    private final SessionReplay replay;
+    private final TweenEngine tweens;
+    private final Consumer<GameEvent> table;         // presents events in order
+    private final Runnable clearTable;               // drops queued events, finishes tweens, removes cards
+    private final TableEvents cards = new TableEvents(this::emit);
+    private final CountTracker counts;
+
+    private final HBox bar;
+    private final Button playBtn;
+    private final Slider slider;
+    private final Label positionLabel;
+    private final PauseTransition gap = new PauseTransition();
+
+    private boolean playing;
+    private boolean showing;            // a round is on its way to the table
+    private boolean syncing;            // slider moved by code, not the user
+    private double speed = 1;
+
+    // ===== Round being shown =====
+    private RoundJournal.Totals before;
+    private RoundJournal.Totals shown;
+    private boolean shuffled;
+
+    // buttons styles the bar's buttons like the table's; exit runs on Exit
+    public ReplayViewer(SessionReplay replay, TweenEngine tweens, Function<String, Button> buttons,
+                        Consumer<GameEvent> table, Runnable clearTable, Runnable exit){
+        this.replay = replay;
+        this.tweens = tweens;
+        this.table = table;
+        this.clearTable = clearTable;
+        before = shown = replay.totals();
+        counts = new CountTracker(replay.engine().shoe().decks());
+        replay.engine().shoe().setTracker(counts);
+
+        playBtn = buttons.apply("Play");
+        Button stepBtn = buttons.apply("Step");
+        Button exitBtn = buttons.apply("Exit");
+
+        ComboBox<String> speedBox = new ComboBox<>(FXCollections.observableArrayList(SPEED_NAMES));
+        speedBox.getSelectionModel().select(2);
+        speedBox.setPrefWidth(84);
+        speedBox.getSelectionModel().selectedIndexProperty().addListener((a,b,c) -> {
+            speed = SPEEDS[c.intValue()];
+            tweens.setSpeed(speed);
+        });
+
+        positionLabel = HUDComponents.statLabel(position(0));
+        positionLabel.setMinWidth(170);
+
+        slider = new Slider(0, Math.max(1, replay.records() - 1), 0);
+        HBox.setHgrow(slider, Priority.ALWAYS);
+        slider.valueProperty().addListener((a,b,c) -> {
+            if(syncing) return;
+            positionLabel.setText(position(c.longValue() + 1));
+            if(!slider.isValueChanging()) seek(c.longValue());
+        });
+        slider.valueChangingProperty().addListener((a,b,changing) -> {
+            if(!changing) seek((long) slider.getValue());
+        });
+
+        bar = new HBox(10, playBtn, stepBtn, speedBox, slider, positionLabel, exitBtn);
+        bar.setAlignment(Pos.CENTER);
+        bar.setPadding(new Insets(8));
+
+        playBtn.setOnAction(e -> togglePlay());
+        stepBtn.setOnAction(e -> {
+            if(!showing) showRound();
+        });
+        exitBtn.setOnAction(e -> exit.run());
+        gap.setOnFinished(e -> showRound());
+    }
+
+    public Node node(){ return bar; }
+
+    // Balance and stats as of the last round that finished on the table
+    public RoundJournal.Totals shown(){ return shown; }
+
+    // Deal the first round, paused
+    public void start(){
+        showRound();
+    }
+
+    // The table finished presenting a round's outcome
+    public void roundShown(){
+        showing = false;
+        shown = replay.totals();
+        if(!playing) return;
+        gap.setDuration(Duration.millis(ROUND_GAP / speed));
+        gap.playFromStart();
+    }
+
+    public void close(){
+        gap.stop();
+        try {
+            replay.close();
+        } catch(IOException ex){
+            System.err.println("Replay close failed: " + ex);
+        }
+    }
+
+    // ===============================================================================================
+    // PLAYBACK
+    // ===============================================================================================
+
+    private void togglePlay(){
+        playing = !playing;
+        playBtn.setText(playing ? "Pause" : "Play");
+        if(!playing) gap.stop();
+        else if(!showing) showRound();
+    }
+
+    // Nearest keyframe plus a short silent replay, then deal round `record` again
+    private void seek(long record){
+        gap.stop();
+        clearTable.run();
+        showing = false;
+        replay.seek(record);
+        shown = replay.totals();
+        showRound();
+    }
+
+    // Refills have nothing to show and are passed over
+    private void showRound(){
+        gap.stop();
+        while(replay.hasNext() && replay.peekKind() == SessionRecorder.REFILL) replay.next(null);
+        if(!replay.hasNext()){
+            if(playing) togglePlay();
+            sync();
+            return;
+        }
+
+        before = replay.totals();
+        shuffled = false;
+        showing = true;
+        replay.next(this::onRoundEvent);
+
+        RoundEngine round = replay.engine();
+        GameEvent o = new GameEvent(GameEvent.OUTCOME);
+        o.outcome = round.outcome();
+        o.message = round.rules().message(o.outcome);
+        o.net = round.net();
+        o.balance = before.balance + round.net();
+        o.bet = round.staked();
+        counts.stamp(o, round);
+        table.accept(o);
+        sync();
+    }
+
+    private void onRoundEvent(RoundEngine round, int event){
+        if(RoundEvent.kind(event) == RoundEvent.SHUFFLE) shuffled = true;
+        else if(RoundEvent.kind(event) == RoundEvent.PHASE && RoundEvent.phase(event) == RoundEngine.Phase.DEALING){
+            GameEvent start = new GameEvent(GameEvent.ROUND_START);
+            start.shuffled = shuffled;
+            emit(start);
+        }
+        cards.event(round, event);
+    }
+
+    // Balance and bet as the live table had them: the stake is off the balance until settlement
+    private void emit(GameEvent e){
+        e.bet = replay.engine().staked();
+        e.balance = before.balance - e.bet;
+        counts.stamp(e, replay.engine());
+        table.accept(e);
+    }
+
+    private void sync(){
+        syncing = true;
+        slider.setValue(Math.max(0, replay.position() - 1));
+        syncing = false;
+        positionLabel.setText(position(replay.position()));
+    }
+
+    private String position(long n){
+        return String.format("Round %,d / %,d", n, replay.records());
+    }
+}
@@ -0,0 +1,44 @@
+package blackjack;
+
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGenerator.JumpableGenerator;
+import java.util.random.RandomGenerator.SplittableGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+// Random generators for shuffling. Any java.util.random algorithm name works,
+// e.g. "L64X128MixRandom", "Xoshiro256PlusPlus", "SplittableRandom", "Random".
+public class Rngs {
+
+    public static final String DEFAULT = "L64X128MixRandom";
+
+    // Unseeded, for interactive play
+    public static RandomGenerator create(String algorithm){
+        return RandomGeneratorFactory.of(algorithm).create();
+    }
+
+    // Same algorithm + seed always gives the same shuffles
+    public static RandomGenerator create(String algorithm, long seed){
+        return RandomGeneratorFactory.of(algorithm).create(seed);
+    }
+
+    // n statistically independent streams derived from root, one per thread.
+    // Splittable generators split, jumpable ones jump ahead, anything else is reseeded.
+    public static RandomGenerator[] streams(RandomGenerator root, int n){
+        RandomGenerator[] out = new RandomGenerator[n];
+
+        for(int i = 0; i < n; i++){
+            if(root instanceof SplittableGenerator){
+                out[i] = ((SplittableGenerator) root).split();
+            } else if(root instanceof JumpableGenerator){
+                out[i] = ((JumpableGenerator) root).copyAndJump();
+            } else {
+                out[i] = RandomGeneratorFactory.of(name(root)).create(root.nextLong());
+            }
+        }
+        return out;
+    }
+
+    private static String name(RandomGenerator g){
+        return g.getClass().getSimpleName();
+    }
+}
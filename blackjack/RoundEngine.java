@@ -0,0 +1,466 @@
+package blackjack;
+
+import blackjack.CardModel.*;
+
+import java.util.random.RandomGenerator;
+
+// Headless blackjack under a TableRules rule set. Plays a round either step
+// by step (the JavaFX table drives it between animations) or synchronously
+// through playRound(). A split round has several player hands, played one at
+// a time; playerHand() is the one being played.
+public class RoundEngine {
+
+    // ===== Player actions =====
+    public enum Action { HIT, STAND, DOUBLE, SPLIT, SURRENDER }
+
+    // ===== Round results =====
+    public enum Outcome {
+        BLACKJACK("Blackjack! You win"),          // TableRules.message adds the payout
+        BLACKJACK_PUSH("Push! Both have 21."),
+        PLAYER_BUST("You busted. Dealer wins."),
+        DOUBLE_BUST("You busted after doubling."),
+        DEALER_BUST("Dealer busted! You win!"),
+        WIN("You win!"),
+        LOSS("Dealer wins."),
+        PUSH("Push."),
+        SURRENDER("You surrendered half your bet."),
+        DEALER_BLACKJACK("Dealer has blackjack.");
+
+        public final String message;
+        Outcome(String m){ this.message = m; }
+
+        public boolean isWin(){
+            return this == BLACKJACK || this == DEALER_BUST || this == WIN;
+        }
+
+        public boolean isPush(){
+            return this == BLACKJACK_PUSH || this == PUSH;
+        }
+    }
+
+    // ===== Round phases =====
+    // BETTING → DEALING → (INSURANCE) → PLAYER_TURN → DEALER_TURN → SETTLED, where
+    // a natural on either side settles straight from DEALING or INSURANCE, a
+    // surrender or every hand busting straight from PLAYER_TURN, and the next
+    // round begins from SETTLED. INSURANCE is only entered under an ace when the
+    // rules offer it.
+    public enum Phase { BETTING, DEALING, INSURANCE, PLAYER_TURN, DEALER_TURN, SETTLED }
+
+    // ===== Fixed player strategy for synchronous play =====
+    public interface Strategy {
+        Action decide(RoundEngine round);
+    }
+
+    // ===== Optional observer of every RoundEvent, e.g. a hand-history writer =====
+    public interface Recorder {
+        void event(RoundEngine round, int event);
+    }
+
+    private final Shoe shoe;
+    private final TableRules rules;
+    private final int hardStand, softStand;     // the dealer's stopping totals under rules
+    private Recorder recorder;
+    private final Hand dealerHand = new Hand();
+
+    // ===== Player hands, in play order =====
+    private final Hand[] hands;
+    private final int[] bets;
+    private final boolean[] doubledHands;
+    private final boolean[] splitAces;          // formed by splitting aces: one card, no hit or double
+    private final Outcome[] outcomes;           // null until the hand is settled
+    private int handCount;
+    private int current;
+    private Hand playerHand;                    // hands[current]
+
+    private Phase phase = Phase.BETTING;
+    private int insured;                        // insurance stake, 0 if declined
+    private Outcome outcome;
+
+    // Six-deck shoe, cut card at 75%
+    public RoundEngine(){
+        this(Rngs.create(Rngs.DEFAULT));
+    }
+
+    // Each simulator worker passes its own stream so engines never share state
+    public RoundEngine(RandomGenerator random){
+        this(new Shoe(6, 0.75, random));
+    }
+
+    public RoundEngine(Shoe shoe){
+        this(shoe, TableRules.CLASSIC);
+    }
+
+    public RoundEngine(Shoe shoe, TableRules rules){
+        this.shoe = shoe;
+        this.rules = rules;
+        hardStand = rules.dealerStandsOn(false);
+        softStand = rules.dealerStandsOn(true);
+
+        int n = rules.maxHands;
+        hands = new Hand[n];
+        for(int i = 0; i < n; i++) hands[i] = new Hand();
+        bets = new int[n];
+        doubledHands = new boolean[n];
+        splitAces = new boolean[n];
+        outcomes = new Outcome[n];
+        playerHand = hands[0];
+    }
+
+    public void setRecorder(Recorder recorder){
+        this.recorder = recorder;
+    }
+
+    // ===============================================================================================
+    // STEP API
+    // ===============================================================================================
+    // Each step is only legal in the phase it names and throws
+    // IllegalStateException otherwise; callers check phase() first.
+
+    // BETTING/SETTLED → DEALING. Returns true when the shoe had to be reshuffled first.
+    public boolean begin(int bet){
+        if(phase != Phase.BETTING && phase != Phase.SETTLED) throw illegal("begin");
+
+        boolean shuffled = shoe.cutCardReached();
+        if(shuffled){
+            shoe.shuffle();
+            emit(RoundEvent.SHUFFLE, (int) shoe.index());
+        }
+
+        for(int i = 0; i < handCount; i++){
+            hands[i].clear();
+            outcomes[i] = null;
+        }
+        dealerHand.clear();
+        handCount = 1;
+        current = 0;
+        playerHand = hands[0];
+        bets[0] = bet;
+        doubledHands[0] = false;
+        splitAces[0] = false;
+        insured = 0;
+        outcome = null;
+        if(bet >>> 28 != 0) emit(RoundEvent.BET_HIGH, bet >>> 28);
+        emit(RoundEvent.BET, bet);
+        enter(Phase.DEALING);
+        return shuffled;
+    }
+
+    // DEALING → PLAYER_TURN, INSURANCE under an ace when offered, or SETTLED on a
+    // natural (the dealer's is found when the rules let the dealer peek).
+    // Deal order: P1 → D1 → P2 → D2(hidden)
+    public void deal(){
+        if(phase != Phase.DEALING) throw illegal("deal");
+
+        draw(true);
+        draw(false);
+        draw(true);
+        draw(false);
+
+        if(playerHand.isBlackjack()) finish(dealerHand.total() == 21 ? Outcome.BLACKJACK_PUSH : Outcome.BLACKJACK);
+        else if(rules.insurance && CardModel.isAce(dealerHand.code(0))) enter(Phase.INSURANCE);
+        else peek();
+    }
+
+    // INSURANCE → PLAYER_TURN, or SETTLED on a dealer blackjack. Insurance
+    // costs half the bet and pays 2:1 when the dealer has blackjack.
+    public void insure(boolean take){
+        if(phase != Phase.INSURANCE) throw illegal("insure");
+        emit(RoundEvent.INSURANCE, take ? 1 : 0);
+        if(take) insured = bets[0] / 2;
+        peek();
+    }
+
+    private void peek(){
+        if(rules.peek && dealerHand.isBlackjack()) finish(Outcome.DEALER_BLACKJACK);
+        else enter(Phase.PLAYER_TURN);
+    }
+
+    // Stays in PLAYER_TURN, moves on to the next hand on a bust
+    public Card hit(){
+        if(!canHit()) throw illegal("hit");
+        emit(RoundEvent.HIT, 0);
+        Card c = draw(true);
+        if(playerHand.isBust()) handDone(Outcome.PLAYER_BUST);
+        return c;
+    }
+
+    // This hand is done
+    public void stand(){
+        if(phase != Phase.PLAYER_TURN) throw illegal("stand");
+        emit(RoundEvent.STAND, 0);
+        handDone(null);
+    }
+
+    // One card on a doubled stake, and the hand is done
+    public Card doubleDown(){
+        if(!canDouble()) throw illegal("double");
+        emit(RoundEvent.DOUBLE, 0);
+        bets[current] *= 2;
+        doubledHands[current] = true;
+        Card c = draw(true);
+        handDone(playerHand.isBust() ? Outcome.DOUBLE_BUST : null);
+        return c;
+    }
+
+    // The pair becomes two hands with a bet each; this one gets its second card now,
+    // the new one when play reaches it
+    public void split(){
+        if(!canSplit()) throw illegal("split");
+        emit(RoundEvent.SPLIT, current);
+
+        for(int i = handCount; i > current + 1; i--){
+            Hand h = hands[i];
+            hands[i] = hands[i - 1];
+            hands[i - 1] = h;
+            bets[i] = bets[i - 1];
+            doubledHands[i] = doubledHands[i - 1];
+            splitAces[i] = splitAces[i - 1];
+        }
+        handCount++;
+
+        int first = playerHand.code(0);
+        int second = playerHand.code(1);
+        boolean aces = CardModel.isAce(first);
+        Hand next = hands[current + 1];
+        next.clear();
+        next.add(second);
+        bets[current + 1] = bets[current];
+        doubledHands[current + 1] = false;
+        splitAces[current + 1] = aces;
+
+        playerHand.clear();
+        playerHand.add(first);
+        splitAces[current] = aces;
+        draw(true);
+        if(aces && !canSplit()) handDone(null);
+    }
+
+    // Half the bet back and the round is over; first two cards, before any split
+    public void surrender(){
+        if(!canSurrender()) throw illegal("surrender");
+        emit(RoundEvent.SURRENDER, 0);
+        finish(Outcome.SURRENDER);
+    }
+
+    // The dealer's turn, or straight to SETTLED when the hand is already decided
+    private void handDone(Outcome settled){
+        if(handCount > 1){
+            splitHandDone(settled);
+            return;
+        }
+        if(settled != null) finish(settled);
+        else enter(Phase.DEALER_TURN);
+    }
+
+    // Next hand of a split, or the dealer once every hand is done
+    private void splitHandDone(Outcome settled){
+        outcomes[current] = settled;
+
+        while(++current < handCount){
+            playerHand = hands[current];
+            draw(true);
+            if(!splitAces[current] || canSplit()) return;
+        }
+        current = handCount - 1;
+        playerHand = hands[current];
+
+        for(int i = 0; i < handCount; i++){
+            if(outcomes[i] == null){
+                enter(Phase.DEALER_TURN);
+                return;
+            }
+        }
+        finish(outcomes[0]);
+    }
+
+    public boolean dealerShouldHit(){
+        return dealerHand.total() < (dealerHand.isSoft() ? softStand : hardStand);
+    }
+
+    public Card dealDealer(){
+        if(phase != Phase.DEALER_TURN) throw illegal("dealer draw");
+        return draw(false);
+    }
+
+    // DEALER_TURN → SETTLED, every hand still standing against the dealer's total.
+    // A dealer natural (only found here when the dealer does not peek) beats
+    // every hand left, a 21 of three cards or more included, with its whole stake.
+    public Outcome settle(){
+        if(phase != Phase.DEALER_TURN) throw illegal("settle");
+        Outcome natural = dealerHand.isBlackjack() ? Outcome.DEALER_BLACKJACK : null;
+        int d = dealerTotal();
+        if(handCount == 1) return finish(natural != null ? natural : compare(playerHand.total(), d));
+
+        for(int i = 0; i < handCount; i++){
+            if(outcomes[i] == null) outcomes[i] = natural != null ? natural : compare(hands[i].total(), d);
+        }
+        return finish(outcomes[0]);
+    }
+
+    private static Outcome compare(int p, int d){
+        if(d > 21) return Outcome.DEALER_BUST;
+        if(p > d) return Outcome.WIN;
+        if(d > p) return Outcome.LOSS;
+        return Outcome.PUSH;
+    }
+
+    // Dealer draws to the rules' stopping total, then settle
+    public Outcome playDealer(){
+        while(dealerShouldHit()) dealDealer();
+        return settle();
+    }
+
+    private Card draw(boolean toPlayer){
+        Card c = shoe.draw();
+        (toPlayer ? playerHand : dealerHand).add(c);
+        emit(toPlayer ? RoundEvent.PLAYER_CARD : RoundEvent.DEALER_CARD, c.code);
+        return c;
+    }
+
+    // A single hand's outcome is the round's; a split round wins, loses or pushes on its net
+    private Outcome finish(Outcome first){
+        outcomes[0] = first;
+        Outcome o = handCount == 1 ? first : splitOutcome();
+        outcome = o;
+        emit(RoundEvent.OUTCOME, o.ordinal());
+        enter(Phase.SETTLED);
+        return o;
+    }
+
+    private Outcome splitOutcome(){
+        int net = handsPaid() - staked();
+        return net > 0 ? Outcome.WIN : net < 0 ? Outcome.LOSS : Outcome.PUSH;
+    }
+
+    private void enter(Phase p){
+        phase = p;
+        emit(RoundEvent.PHASE, p.ordinal());
+    }
+
+    private void emit(int kind, int arg){
+        if(recorder != null) recorder.event(this, RoundEvent.of(kind, arg));
+    }
+
+    private IllegalStateException illegal(String step){
+        return new IllegalStateException("Cannot " + step + " in " + phase);
+    }
+
+    // ===============================================================================================
+    // SYNCHRONOUS ROUND
+    // ===============================================================================================
+
+    // Insurance is declined; an action the round does not allow stands
+    public Outcome playRound(int bet, Strategy strategy){
+        begin(bet);
+        deal();
+        if(phase == Phase.INSURANCE) insure(false);
+
+        while(phase == Phase.PLAYER_TURN){
+            Action a = strategy.decide(this);
+            if(a == Action.HIT && canHit()) hit();
+            else if(a == Action.DOUBLE && canDouble()) doubleDown();
+            else if(a == Action.SPLIT && canSplit()) split();
+            else if(a == Action.SURRENDER && canSurrender()) surrender();
+            else stand();
+        }
+        if(phase == Phase.DEALER_TURN) playDealer();
+        return outcome;
+    }
+
+    // ===============================================================================================
+    // STATE
+    // ===============================================================================================
+
+    public Hand playerHand(){ return playerHand; }
+    public Hand dealerHand(){ return dealerHand; }
+
+    public int playerTotal(){ return playerHand.total(); }
+    public int dealerTotal(){ return dealerHand.total(); }
+
+    public boolean playerSoft(){ return playerHand.isSoft(); }
+
+    public int dealerUpValue(){
+        return dealerHand.isEmpty() ? 0 : CardModel.value(dealerHand.code(0));
+    }
+
+    // Composition slot of the dealer upcard, for DealerOdds
+    public int dealerUpSlot(){
+        return CardModel.valueIndex(dealerHand.code(0));
+    }
+
+    // Cards the player has not seen yet: the shoe plus the dealer's hole card.
+    // Only meaningful during the player's turn.
+    public void unseen(int[] out){
+        shoe.composition(out);
+        if(dealerHand.size() >= 2) out[CardModel.valueIndex(dealerHand.code(1))]++;
+    }
+
+    public TableRules rules(){ return rules; }
+
+    // ===== Legal moves in PLAYER_TURN, straight from the rules' tables =====
+
+    public boolean canHit(){
+        return phase == Phase.PLAYER_TURN && !splitAces[current];
+    }
+
+    public boolean canDouble(){
+        return phase == Phase.PLAYER_TURN && playerHand.size() == 2 && !splitAces[current]
+                && rules.canDouble(playerHand.total(), playerHand.isSoft(), handCount > 1);
+    }
+
+    public boolean canSplit(){
+        if(phase != Phase.PLAYER_TURN || playerHand.size() != 2) return false;
+        int slot = CardModel.valueIndex(playerHand.code(0));
+        return slot == CardModel.valueIndex(playerHand.code(1)) && rules.canSplit(slot, handCount, splitAces[current]);
+    }
+
+    public boolean canSurrender(){
+        return phase == Phase.PLAYER_TURN && rules.lateSurrender && handCount == 1 && playerHand.size() == 2;
+    }
+
+    public Shoe shoe(){ return shoe; }
+
+    public Phase phase(){ return phase; }
+    public boolean isOver(){ return phase == Phase.SETTLED; }
+
+    // The round's outcome; see finish() for split rounds
+    public Outcome outcome(){ return outcome; }
+
+    // ===== Player hands =====
+    public int hands(){ return handCount; }
+    public int currentHand(){ return current; }
+    public Hand hand(int i){ return hands[i]; }
+    public Outcome outcome(int i){ return outcomes[i]; }
+    public int bet(int i){ return bets[i]; }
+    public boolean doubled(int i){ return doubledHands[i]; }
+
+    // The hand being played: its stake (doubled included) and whether it doubled
+    public int bet(){ return bets[current]; }
+    public boolean doubled(){ return doubledHands[current]; }
+
+    // Insurance stake, 0 if none was taken
+    public int insurance(){ return insured; }
+
+    // Everything on the table: every hand's stake plus insurance
+    public int staked(){
+        int s = insured + bets[0];
+        for(int i = 1; i < handCount; i++) s += bets[i];
+        return s;
+    }
+
+    // Amount handed back to the player (stakes included), from the rules' pay table
+    public int payout(){
+        return outcome == null ? 0 : handsPaid();
+    }
+
+    private int handsPaid(){
+        int p = rules.payout(outcomes[0], bets[0]);
+        for(int i = 1; i < handCount; i++) p += rules.payout(outcomes[i], bets[i]);
+        if(insured > 0 && dealerHand.isBlackjack()) p += 3 * insured;
+        return p;
+    }
+
+    public int net(){
+        return payout() - staked();
+    }
+}
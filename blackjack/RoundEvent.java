@@ -0,0 +1,76 @@
+package blackjack;
+
+import blackjack.RoundEngine.Outcome;
+import blackjack.RoundEngine.Phase;
+
+// Everything a RoundEngine does, one int per event: the kind in the top four
+// bits and an argument in the low 28. Player decisions are events too, so a
+// log of them plus the shoe's seed is enough to play the rounds again.
+public final class RoundEvent {
+
+    private static final int ARG_BITS = 28;
+    private static final int ARG_MASK = (1 << ARG_BITS) - 1;
+
+    // ===== Kinds =====
+    public static final int PHASE = 0;          // Phase ordinal entered
+    public static final int BET = 1;            // opening bet, low 28 bits
+    public static final int BET_HIGH = 2;       // bet >>> 28, just before BET when non-zero
+    public static final int SHUFFLE = 3;        // low bits of the new shoe's shuffle count
+    public static final int PLAYER_CARD = 4;    // card code
+    public static final int DEALER_CARD = 5;    // card code
+    public static final int HIT = 6;
+    public static final int STAND = 7;
+    public static final int DOUBLE = 8;
+    public static final int OUTCOME = 9;        // Outcome ordinal
+    public static final int SPLIT = 10;         // index of the hand split
+    public static final int SURRENDER = 11;
+    public static final int INSURANCE = 12;     // 1 taken, 0 declined
+
+    private static final Phase[] PHASES = Phase.values();
+    private static final Outcome[] OUTCOMES = Outcome.values();
+
+    private RoundEvent(){ }
+
+    public static int of(int kind, int arg){
+        return kind << ARG_BITS | arg & ARG_MASK;
+    }
+
+    public static int kind(int event){
+        return event >>> ARG_BITS;
+    }
+
+    public static int arg(int event){
+        return event & ARG_MASK;
+    }
+
+    public static Phase phase(int event){
+        return PHASES[arg(event)];
+    }
+
+    public static Outcome outcome(int event){
+        return OUTCOMES[arg(event)];
+    }
+
+    public static String describe(int event){
+        switch(kind(event)){
+            case PHASE: return "PHASE " + phase(event);
+            case BET: return "BET " + arg(event);
+            case BET_HIGH: return "BET_HIGH " + arg(event);
+            case SHUFFLE: return "SHUFFLE " + arg(event);
+            case PLAYER_CARD: return "PLAYER " + card(arg(event));
+            case DEALER_CARD: return "DEALER " + card(arg(event));
+            case HIT: return "HIT";
+            case STAND: return "STAND";
+            case DOUBLE: return "DOUBLE";
+            case OUTCOME: return "OUTCOME " + outcome(event);
+            case SPLIT: return "SPLIT " + arg(event);
+            case SURRENDER: return "SURRENDER";
+            case INSURANCE: return arg(event) == 1 ? "INSURANCE" : "NO_INSURANCE";
+            default: return "? " + Integer.toHexString(event);
+        }
+    }
+
+    private static String card(int code){
+        return CardModel.rankOf(code).label + CardModel.suitOf(code).symbol;
+    }
+}
@@ -0,0 +1,289 @@
+package blackjack;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+// Append-only journal of settled rounds in a memory-mapped file, one 16-byte
+// record per round in native byte order, plus a small snapshot of the running
+// totals. Opening reads the snapshot and replays only the records after it.
+//
+// Appends come from one thread (the engine). A background thread forces the
+// mapped pages to disk about once a second and then rewrites the snapshot, so
+// the snapshot never gets ahead of the data that backs it.
+public class RoundJournal {
+
+    // ===== Record layout =====
+    private static final int RECORD = 16;
+    private static final int SEAL = 0;          // int: sealOf(index), written last; anything else ends the log
+    private static final int BALANCE = 4;       // int: balance after the record
+    private static final int NET = 8;           // int: round net
+    private static final int KIND = 12;         // byte
+    private static final int RESULT = 13;       // byte: 1 win, 0 push, -1 loss
+
+    public static final byte ROUND = 0;
+    public static final byte REFILL = 1;
+
+    private static final long REGION = 64L << 20;               // bytes mapped at a time
+    private static final int PER_REGION = (int) (REGION / RECORD);
+    private static final int SNAPSHOT_MAGIC = 0x424A534E;       // "BJSN"
+    private static final int SNAPSHOT_BYTES = 68;
+    private static final long FLUSH_MILLIS = 1000;
+
+    private final FileChannel channel;
+    private final Path snapshotFile;
+    private final ScheduledExecutorService flusher;
+
+    // Writer state (appending thread)
+    private volatile MappedByteBuffer[] regions;
+    private final Totals totals;
+    private MappedByteBuffer current;
+    private int pos;                            // byte offset in current
+
+    // Handed from the writer to the flusher
+    private volatile Totals published;
+    private long flushed;                       // records already forced (flusher thread)
+
+    // Running totals, rebuilt from the journal on open
+    public static class Totals {
+        public long records;
+        public int balance;
+        public long games;
+        public long wins;
+        public long losses;
+        public long pushes;
+        public int currentStreak;
+        public int bestStreak;
+        public int biggestWin;
+
+        void apply(byte kind, int result, int net, int balanceAfter){
+            records++;
+            balance = balanceAfter;
+            if(kind != ROUND) return;
+
+            games++;
+            if(result > 0){
+                wins++;
+                currentStreak++;
+                bestStreak = Math.max(bestStreak, currentStreak);
+                biggestWin = Math.max(biggestWin, net);
+            } else {
+                if(result < 0) losses++;
+                else pushes++;
+                currentStreak = 0;
+            }
+        }
+
+        Totals copy(){
+            Totals t = new Totals();
+            t.records = records;
+            t.balance = balance;
+            t.games = games;
+            t.wins = wins;
+            t.losses = losses;
+            t.pushes = pushes;
+            t.currentStreak = currentStreak;
+            t.bestStreak = bestStreak;
+            t.biggestWin = biggestWin;
+            return t;
+        }
+    }
+
+    // Blocking: call off the FX thread. startBalance is used for an empty journal.
+    public static RoundJournal open(Path dir, int startBalance) throws IOException {
+        Files.createDirectories(dir);
+        return new RoundJournal(dir, startBalance);
+    }
+
+    private RoundJournal(Path dir, int startBalance) throws IOException {
+        channel = FileChannel.open(dir.resolve("rounds.journal"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        snapshotFile = dir.resolve("rounds.snapshot");
+        regions = new MappedByteBuffer[0];
+
+        Totals t = readSnapshot();
+        if(t == null || (t.records > 0 && !sealed(t.records - 1))){
+            t = new Totals();           // missing, damaged or ahead of the journal: replay everything
+            t.balance = startBalance;
+        }
+
+        replay(t);
+        totals = t;
+        flushed = t.records;
+        published = t.copy();
+
+        current = region((int) (t.records / PER_REGION));
+        pos = (int) (t.records % PER_REGION) * RECORD;
+
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread th = new Thread(r, "journal-flush");
+            th.setDaemon(false);        // let a final flush finish after the FX thread exits
+            return th;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, FLUSH_MILLIS, FLUSH_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    // Totals as of open; the caller seeds its own state from these
+    public Totals totals(){
+        return published.copy();
+    }
+
+    // ===============================================================================================
+    // WRITER
+    // ===============================================================================================
+
+    public void append(byte kind, int result, int net, int balanceAfter){
+        if(pos == REGION){
+            current = region((int) (totals.records / PER_REGION));
+            pos = 0;
+        }
+
+        current.putInt(pos + BALANCE, balanceAfter);
+        current.putInt(pos + NET, net);
+        current.put(pos + KIND, kind);
+        current.put(pos + RESULT, (byte) result);
+        current.putInt(pos + SEAL, sealOf(totals.records));
+        pos += RECORD;
+
+        totals.apply(kind, result, net, balanceAfter);
+    }
+
+    // Make everything appended so far eligible for the next flush
+    public void commit(){
+        if(published.records != totals.records) published = totals.copy();
+    }
+
+    // Final flush and snapshot in the background; the flush thread keeps the JVM
+    // alive until they are done
+    public void close(){
+        flusher.execute(() -> {
+            flush();
+            try {
+                channel.close();
+            } catch(IOException ex){
+                System.err.println("Journal close failed: " + ex);
+            }
+        });
+        flusher.shutdown();
+    }
+
+    private MappedByteBuffer region(int index){
+        MappedByteBuffer[] rs = regions;
+        if(index < rs.length && rs[index] != null) return rs[index];
+
+        try {
+            MappedByteBuffer m = channel.map(FileChannel.MapMode.READ_WRITE, index * REGION, REGION);
+            m.order(ByteOrder.nativeOrder());
+            rs = Arrays.copyOf(rs, Math.max(rs.length, index + 1));
+            rs[index] = m;
+            regions = rs;
+            return m;
+        } catch(IOException ex){
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static int sealOf(long index){
+        return (int) (index + 1) ^ 0x5EA1_0000;
+    }
+
+    // ===============================================================================================
+    // REPLAY + SNAPSHOT
+    // ===============================================================================================
+
+    private boolean sealed(long index){
+        if(index * RECORD >= size()) return false;
+        MappedByteBuffer m = region((int) (index / PER_REGION));
+        return m.getInt((int) (index % PER_REGION) * RECORD + SEAL) == sealOf(index);
+    }
+
+    private long size(){
+        try {
+            return channel.size();
+        } catch(IOException ex){
+            return 0;
+        }
+    }
+
+    private void replay(Totals t){
+        long end = size() / RECORD;
+        while(t.records < end){
+            MappedByteBuffer m = region((int) (t.records / PER_REGION));
+            int p = (int) (t.records % PER_REGION) * RECORD;
+            if(m.getInt(p + SEAL) != sealOf(t.records)) break;
+            t.apply(m.get(p + KIND), m.get(p + RESULT), m.getInt(p + NET), m.getInt(p + BALANCE));
+        }
+    }
+
+    // Flush thread: force the records behind the latest published totals, then snapshot them
+    private void flush(){
+        Totals t = published;
+        if(t.records == flushed) return;
+
+        MappedByteBuffer[] rs = regions;
+        for(long r = flushed; r < t.records; ){
+            int index = (int) (r / PER_REGION);
+            int from = (int) (r % PER_REGION);
+            int to = (int) Math.min(PER_REGION, t.records - (long) index * PER_REGION);
+            rs[index].force(from * RECORD, (to - from) * RECORD);
+            r = (long) index * PER_REGION + to;
+        }
+        flushed = t.records;
+
+        try {
+            writeSnapshot(t);
+        } catch(IOException ex){
+            System.err.println("Journal snapshot failed: " + ex);
+        }
+    }
+
+    private void writeSnapshot(Totals t) throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(SNAPSHOT_BYTES);
+        b.putInt(SNAPSHOT_MAGIC).putLong(t.records).putInt(t.balance)
+                .putLong(t.games).putLong(t.wins).putLong(t.losses).putLong(t.pushes)
+                .putInt(t.currentStreak).putInt(t.bestStreak).putInt(t.biggestWin);
+        CRC32 crc = new CRC32();
+        crc.update(b.array(), 0, b.position());
+        b.putLong(crc.getValue());
+
+        Path tmp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        Files.write(tmp, b.array());
+        Files.move(tmp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Totals readSnapshot() throws IOException {
+        if(!Files.exists(snapshotFile)) return null;
+        byte[] bytes = Files.readAllBytes(snapshotFile);
+        if(bytes.length != SNAPSHOT_BYTES) return null;
+
+        ByteBuffer b = ByteBuffer.wrap(bytes);
+        if(b.getInt() != SNAPSHOT_MAGIC) return null;
+
+        Totals t = new Totals();
+        t.records = b.getLong();
+        t.balance = b.getInt();
+        t.games = b.getLong();
+        t.wins = b.getLong();
+        t.losses = b.getLong();
+        t.pushes = b.getLong();
+        t.currentStreak = b.getInt();
+        t.bestStreak = b.getInt();
+        t.biggestWin = b.getInt();
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, b.position());
+        return b.getLong() == crc.getValue() ? t : null;
+    }
+}
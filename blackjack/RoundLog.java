@@ -0,0 +1,94 @@
+package blackjack;
+
+import blackjack.CardModel.Shoe;
+import blackjack.RoundEngine.Phase;
+
+import java.util.Arrays;
+
+// The RoundEvents of every round it records, in one growable int array, with
+// where each round starts and the keyed shoe position it was dealt from. That
+// is all RoundReplay needs to play any one of them again. Written by one thread.
+public class RoundLog implements RoundEngine.Recorder {
+
+    private int[] events = new int[1024];
+    private int size;
+
+    // ===== Per completed round =====
+    private int[] starts = new int[64];     // first event
+    private int[] ends = new int[64];       // one past the last event
+    private long[] shoes = new long[64];    // shoe index at the deal
+    private int[] dealt = new int[64];      // cards out of that shoe at the deal
+    private int rounds;
+    private boolean open;                   // a round is being recorded
+
+    // ===== Shoe the rounds came from =====
+    private String algorithm;
+    private long seed;
+    private int decks;
+    private double penetration;
+    private TableRules rules;
+
+    @Override
+    public void event(RoundEngine round, int event){
+        if(!open){
+            if(rounds == 0 && algorithm == null) keyFrom(round);
+            if(rounds == starts.length) grow();
+            starts[rounds] = size;
+            open = true;
+        }
+
+        if(size == events.length) events = Arrays.copyOf(events, size * 2);
+        events[size++] = event;
+
+        if(RoundEvent.kind(event) == RoundEvent.PHASE){
+            Phase p = RoundEvent.phase(event);
+            if(p == Phase.DEALING){
+                shoes[rounds] = round.shoe().index();
+                dealt[rounds] = round.shoe().dealt();
+            } else if(p == Phase.SETTLED){
+                ends[rounds++] = size;
+                open = false;
+            }
+        }
+    }
+
+    private void keyFrom(RoundEngine round){
+        Shoe shoe = round.shoe();
+        if(!shoe.isKeyed()) throw new IllegalArgumentException("Rounds can only be logged from a keyed shoe");
+        algorithm = shoe.algorithm();
+        seed = shoe.seed();
+        decks = shoe.decks();
+        penetration = shoe.penetration();
+        rules = round.rules();
+    }
+
+    private void grow(){
+        int n = rounds * 2;
+        starts = Arrays.copyOf(starts, n);
+        ends = Arrays.copyOf(ends, n);
+        shoes = Arrays.copyOf(shoes, n);
+        dealt = Arrays.copyOf(dealt, n);
+    }
+
+    public int rounds(){ return rounds; }
+    public int size(){ return size; }
+    public int event(int i){ return events[i]; }
+
+    public int start(int round){ return starts[round]; }
+    public int end(int round){ return ends[round]; }
+    public long shoeIndex(int round){ return shoes[round]; }
+    public int dealt(int round){ return dealt[round]; }
+
+    // The shoe was reshuffled before this round was dealt
+    public boolean shuffled(int round){
+        return RoundEvent.kind(events[starts[round]]) == RoundEvent.SHUFFLE;
+    }
+
+    // Rules the rounds were played under
+    public TableRules rules(){ return rules; }
+
+    // A fresh shoe keyed like the one the rounds came from
+    public Shoe newShoe(){
+        return new Shoe(decks, penetration, algorithm, seed);
+    }
+}
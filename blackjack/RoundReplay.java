@@ -0,0 +1,119 @@
+package blackjack;
+
+import blackjack.CardModel.Shoe;
+import blackjack.RoundEngine.Phase;
+
+import java.util.Arrays;
+
+// Plays logged rounds again without animation. The keyed shoe is restored to
+// where the round was dealt from and the logged bet and decisions are fed back
+// into a fresh engine, which then draws the same cards and reaches the same
+// outcome, so seeking to any round costs one round.
+public class RoundReplay {
+
+    private final RoundLog log;
+    private final Shoe shoe;
+    private final RoundEngine engine;
+
+    // Events the replayed round produced
+    private int[] seen = new int[64];
+    private int seenSize;
+
+    public RoundReplay(RoundLog log){
+        this.log = log;
+        shoe = log.newShoe();
+        engine = new RoundEngine(shoe, log.rules());
+        engine.setRecorder((round, event) -> {
+            if(seenSize == seen.length) seen = Arrays.copyOf(seen, seenSize * 2);
+            seen[seenSize++] = event;
+        });
+    }
+
+    // Replay one round; the returned engine is settled, with the hands as they were dealt
+    public RoundEngine play(int round){
+        if(log.shuffled(round)) shoe.restore(log.shoeIndex(round) - 1, shoe.capacity());   // begin() reshuffles
+        else shoe.restore(log.shoeIndex(round), log.dealt(round));
+        seenSize = 0;
+
+        int bet = 0;
+        for(int i = log.start(round); i < log.end(round); i++){
+            int e = log.event(i);
+            switch(RoundEvent.kind(e)){
+                case RoundEvent.BET_HIGH:
+                    bet = RoundEvent.arg(e) << 28;
+                    break;
+                case RoundEvent.BET:
+                    engine.begin(bet | RoundEvent.arg(e));
+                    engine.deal();
+                    break;
+                case RoundEvent.INSURANCE:
+                    engine.insure(RoundEvent.arg(e) == 1);
+                    break;
+                case RoundEvent.HIT:
+                    engine.hit();
+                    break;
+                case RoundEvent.STAND:
+                    engine.stand();
+                    break;
+                case RoundEvent.DOUBLE:
+                    engine.doubleDown();
+                    break;
+                case RoundEvent.SPLIT:
+                    engine.split();
+                    break;
+                case RoundEvent.SURRENDER:
+                    engine.surrender();
+                    break;
+            }
+            if(engine.phase() == Phase.DEALER_TURN) engine.playDealer();
+        }
+        return engine;
+    }
+
+    // True when the replay reproduces every logged event of the round exactly
+    public boolean verify(int round){
+        play(round);
+        int from = log.start(round);
+        return seenSize == log.end(round) - from
+                && Arrays.equals(seen, 0, seenSize, logEvents(from, seenSize), 0, seenSize);
+    }
+
+    private int[] logEvents(int from, int n){
+        int[] out = new int[n];
+        for(int i = 0; i < n; i++) out[i] = log.event(from + i);
+        return out;
+    }
+
+    // ===============================================================================================
+    // MAIN
+    // ===============================================================================================
+
+    // Records rounds of basic strategy from a keyed shoe, then replays every one
+    // of them and checks it matches.
+    // java blackjack.RoundReplay [rounds] [seed] [rules]
+    public static void main(String[] args){
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : System.nanoTime();
+        TableRules rules = args.length > 2 ? TableRules.parse(args[2]) : TableRules.CLASSIC;
+
+        RoundLog log = new RoundLog();
+        RoundEngine live = new RoundEngine(new Shoe(6, 0.75, Rngs.DEFAULT, seed), rules);
+        live.setRecorder(log);
+
+        long t0 = System.nanoTime();
+        for(int i = 0; i < rounds; i++) live.playRound(100, Strategies.BASIC);
+        long t1 = System.nanoTime();
+
+        RoundReplay replay = new RoundReplay(log);
+        int bad = 0;
+        for(int r = 0; r < log.rounds(); r++){
+            if(!replay.verify(r)) bad++;
+        }
+        long t2 = System.nanoTime();
+
+        System.out.printf("rules=%s  seed=%d  rounds=%,d  events=%,d (%.1f per round)%n",
+                rules, seed, log.rounds(), log.size(), (double) log.size() / log.rounds());
+        System.out.printf("record %,.0f rounds/s, replay %,.0f rounds/s, mismatches=%d%n",
+                rounds / ((t1 - t0) / 1e9), rounds / ((t2 - t1) / 1e9), bad);
+    }
+}
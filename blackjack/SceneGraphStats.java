@@ -0,0 +1,58 @@
+package blackjack;
+
+import javafx.collections.ListChangeListener;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+
+// Counts child-list mutations under a watched subtree, plus live node counts,
+// to check that the scene graph stays stable during play.
+public class SceneGraphStats {
+
+    private static final String WATCHED = "sceneStatsWatched";
+
+    private long mutations;
+    private long added;
+    private long removed;
+
+    private final ListChangeListener<Node> listener = c -> {
+        while(c.next()){
+            mutations++;
+            added += c.getAddedSize();
+            removed += c.getRemovedSize();
+            for(Node n : c.getAddedSubList()) watchTree(n);
+        }
+    };
+
+    // Watch root and every Parent below it, including ones added later
+    public void watchTree(Node root){
+        if(!(root instanceof Parent p)) return;
+
+        if(p.getProperties().putIfAbsent(WATCHED, Boolean.TRUE) == null){
+            p.getChildrenUnmodifiable().addListener(listener);
+        }
+        for(Node n : p.getChildrenUnmodifiable()) watchTree(n);
+    }
+
+    public long mutations(){ return mutations; }
+    public long added(){ return added; }
+    public long removed(){ return removed; }
+
+    public void reset(){
+        mutations = 0;
+        added = 0;
+        removed = 0;
+    }
+
+    public static int nodeCount(Node root){
+        int n = 1;
+        if(root instanceof Parent p){
+            for(Node c : p.getChildrenUnmodifiable()) n += nodeCount(c);
+        }
+        return n;
+    }
+
+    @Override
+    public String toString(){
+        return "child-list mutations=" + mutations + " (added=" + added + ", removed=" + removed + ")";
+    }
+}
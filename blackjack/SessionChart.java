@@ -0,0 +1,318 @@
+package blackjack;
+
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.input.MouseButton;
+import javafx.scene.paint.Color;
+
+// Balance line for the whole session on a Canvas. Points are reduced to about
+// one per pixel column with Largest-Triangle-Three-Buckets, using buckets
+// aligned to power-of-two runs of points so a bucket's pick only depends on
+// its neighbours. While following the live session the x scale stays fixed
+// until the line reaches the right edge, where it halves, so new rounds only
+// redraw the last couple of columns. Scroll zooms around the pointer, drag
+// pans, double-click goes back to the live view.
+public class SessionChart {
+
+    private static final double PAD = 6;
+    private static final double MIN_SPAN = 8;           // points across the canvas at full zoom
+    private static final int SCAN = 64;                 // points examined per bucket, at most
+    private static final int MIN_CAPACITY = 16;         // live view starts out this many points wide
+    private static final Color LINE = Color.WHITE;
+    private static final Color WIN = Color.web("#FFD966");
+    private static final Color LOSS = Color.web("#FF6B6B");
+    private static final Color PUSH = Color.web("#E8EEF2");
+
+    private final SessionHistory history;
+    private final Canvas canvas;
+    private final Runnable viewChanged;
+
+    // ===== View =====
+    private boolean live = true;
+    private double from;            // zoomed view, in points
+    private double span;
+    private double dragX;
+
+    // ===== What is on the canvas (live view) =====
+    private boolean dirty = true;
+    private long drawnCapacity;     // points across the live view
+    private int drawnBuckets;       // columns drawn
+    private int drawnGeneration;
+    private double drawnWidth;
+    private double lo, hi;          // y scale
+    private int[] picked = new int[0];
+
+    // viewChanged should schedule a redraw(); zooming and panning coalesce to one per pulse
+    public SessionChart(SessionHistory history, Canvas canvas, Runnable viewChanged){
+        this.history = history;
+        this.canvas = canvas;
+        this.viewChanged = viewChanged;
+
+        canvas.setOnScroll(e -> zoom(e.getX(), e.getDeltaY()));
+        canvas.setOnMousePressed(e -> dragX = e.getX());
+        canvas.setOnMouseDragged(e -> {
+            pan(e.getX() - dragX);
+            dragX = e.getX();
+        });
+        canvas.setOnMouseClicked(e -> {
+            if(e.getButton() == MouseButton.PRIMARY && e.getClickCount() == 2) followLive();
+        });
+    }
+
+    // Rounds covered by the current view, for the caption
+    public String describe(){
+        int n = history.size();
+        if(n == 0) return "Session history";
+        if(live) return String.format("Session: %,d rounds", history.rounds());
+
+        int a = (int) Math.max(0, from);
+        int b = (int) Math.min(n - 1, from + span - 1);
+        return String.format("Rounds %,d–%,d", history.roundAt(a) - history.stride() + 1, history.roundAt(b));
+    }
+
+    public void followLive(){
+        live = true;
+        dirty = true;
+        viewChanged.run();
+    }
+
+    // Draw whatever changed since the last call
+    public void redraw(){
+        if(history.generation() != drawnGeneration){
+            if(!live){
+                double f = Math.pow(2, history.generation() - drawnGeneration);
+                from /= f;
+                span = Math.max(MIN_SPAN, span / f);
+            }
+            dirty = true;           // stored indices have moved
+        }
+        drawnGeneration = history.generation();
+
+        if(live) drawLive();
+        else if(dirty) drawZoomed();
+        dirty = false;
+    }
+
+    // ===============================================================================================
+    // LIVE VIEW
+    // ===============================================================================================
+
+    private void drawLive(){
+        GraphicsContext g = canvas.getGraphicsContext2D();
+        double w = canvas.getWidth();
+        double h = canvas.getHeight();
+        int cols = Math.max(2, (int) w);
+        int n = history.size();
+
+        long capacity = MIN_CAPACITY;
+        while(capacity < n) capacity <<= 1;
+        int bucket = 1;
+        while((long) bucket * cols < capacity) bucket <<= 1;
+
+        // Widen the y scale with headroom so a drifting balance rarely forces a full redraw
+        boolean rescale = n > 0 && (history.min() < lo || history.max() > hi);
+        if(rescale || dirty){
+            double pad = n == 0 ? 50 : Math.max(50, (history.max() - history.min()) / 4.0);
+            lo = n == 0 ? 0 : history.min() - pad;
+            hi = n == 0 ? 1 : history.max() + pad;
+        }
+
+        boolean dots = showDots(n);
+        boolean full = dirty || rescale || dots || capacity != drawnCapacity || w != drawnWidth;
+        int buckets = (n + bucket - 1) / bucket;
+        // The open bucket and the one before it can change; start one earlier so the
+        // segment leading into them is redrawn whole
+        int first = full ? 0 : Math.max(0, drawnBuckets - 3);
+
+        double perPoint = w / capacity;
+        double clearX = full ? 0 : first * bucket * perPoint;
+        background(g, clearX, w, h);
+
+        if(picked.length < cols + 1) picked = new int[cols + 1];
+        pick(first, buckets, bucket, 0, n);
+        stroke(g, first, buckets, i -> i * perPoint, h);
+        if(dots) dots(g, 0, n, i -> i * perPoint, h);
+
+        drawnCapacity = capacity;
+        drawnBuckets = buckets;
+        drawnWidth = w;
+    }
+
+    // ===============================================================================================
+    // ZOOMED VIEW
+    // ===============================================================================================
+
+    private void zoom(double x, double deltaY){
+        int n = history.size();
+        if(n < 2 || deltaY == 0) return;
+
+        double w = canvas.getWidth();
+        if(live){
+            from = 0;
+            span = n;
+        }
+
+        double factor = Math.exp(-deltaY / 200);
+        double next = Math.max(MIN_SPAN, Math.min(n, span * factor));
+        if(next >= n){
+            followLive();
+            return;
+        }
+
+        double anchor = from + x / w * span;
+        from = anchor - x / w * next;
+        span = next;
+        clampView(n);
+
+        live = false;
+        dirty = true;
+        viewChanged.run();
+    }
+
+    private void pan(double dx){
+        if(live) return;
+        from -= dx / canvas.getWidth() * span;
+        clampView(history.size());
+        dirty = true;
+        viewChanged.run();
+    }
+
+    private void clampView(int n){
+        from = Math.max(0, Math.min(n - span, from));
+    }
+
+    private void drawZoomed(){
+        GraphicsContext g = canvas.getGraphicsContext2D();
+        double w = canvas.getWidth();
+        double h = canvas.getHeight();
+        int cols = Math.max(2, (int) w);
+        int n = history.size();
+
+        int start = (int) Math.max(0, Math.floor(from));
+        int end = (int) Math.min(n, Math.ceil(from + span) + 1);
+
+        int bucket = 1;
+        while(bucket * (double) cols < span) bucket <<= 1;
+
+        int firstBucket = start / bucket;
+        int buckets = (end + bucket - 1) / bucket - firstBucket;
+        if(picked.length < buckets + 1) picked = new int[buckets + 1];
+        pickRange(firstBucket, buckets, bucket, start, end);
+
+        // Scale to the points that will be drawn
+        int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+        for(int k = 0; k < buckets; k++){
+            int b = history.balance(picked[k]);
+            if(b < min) min = b;
+            if(b > max) max = b;
+        }
+        double pad = Math.max(10, (max - min) / 8.0);
+        lo = min - pad;
+        hi = max + pad;
+
+        background(g, 0, w, h);
+
+        double origin = from;
+        double perPoint = w / span;
+        stroke(g, 0, buckets, i -> (i - origin) * perPoint, h);
+        if(showDots(end - start)) dots(g, start, end, i -> (i - origin) * perPoint, h);
+
+        drawnCapacity = 0;      // the live view starts over when it comes back
+    }
+
+    // ===============================================================================================
+    // DRAWING
+    // ===============================================================================================
+
+    private interface XMap {
+        double x(int point);
+    }
+
+    private boolean showDots(int visible){
+        return history.stride() == 1 && visible > 0 && visible <= canvas.getWidth() / 6;
+    }
+
+    // Same look as the old results graph: faint panel and three guide lines
+    private void background(GraphicsContext g, double x, double w, double h){
+        g.clearRect(x, 0, w - x, h);
+        g.setFill(Color.color(1, 1, 1, 0.08));
+        g.fillRect(x, 0, w - x, h);
+
+        g.setStroke(LINE);
+        g.setLineWidth(1.5);
+        g.setGlobalAlpha(0.25);
+        g.strokeLine(x, h * 0.75, w, h * 0.75);
+        g.strokeLine(x, h * 0.5, w, h * 0.5);
+        g.strokeLine(x, h * 0.25, w, h * 0.25);
+        g.setGlobalAlpha(1.0);
+    }
+
+    private double y(int balance, double h){
+        return h - PAD - (balance - lo) / (hi - lo) * (h - 2 * PAD);
+    }
+
+    private void pick(int first, int buckets, int bucket, int start, int end){
+        for(int k = first; k < buckets; k++) picked[k] = choose(k, buckets, bucket, 0, start, end);
+    }
+
+    private void pickRange(int firstBucket, int buckets, int bucket, int start, int end){
+        for(int k = 0; k < buckets; k++) picked[k] = choose(firstBucket + k, buckets, bucket, firstBucket, start, end);
+    }
+
+    // LTTB: the point in bucket k making the largest triangle with the previous
+    // pick and the average of bucket k+1; the ends keep their first/last point.
+    // Buckets wider than SCAN are sampled, so a redraw costs O(columns) however
+    // long the session is.
+    private int choose(int k, int buckets, int bucket, int firstBucket, int start, int end){
+        int a = Math.max(start, k * bucket);
+        int b = Math.min(end, a - a % bucket + bucket);
+        int rel = k - firstBucket;
+        if(rel == 0) return a;
+        if(rel == buckets - 1) return b - 1;
+
+        int step = Math.max(1, bucket / SCAN);
+        int prev = picked[rel - 1];
+        double px = prev, py = history.balance(prev);
+
+        int na = b, nb = Math.min(end, b + bucket);
+        double cx = 0, cy = 0;
+        int m = 0;
+        for(int i = na; i < nb; i += step, m++){
+            cx += i;
+            cy += history.balance(i);
+        }
+        cx /= m;
+        cy /= m;
+
+        int best = a;
+        double bestArea = -1;
+        for(int i = a; i < b; i += step){
+            double area = Math.abs((px - cx) * (history.balance(i) - py) - (px - i) * (cy - py));
+            if(area > bestArea){
+                bestArea = area;
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    private void stroke(GraphicsContext g, int first, int buckets, XMap xm, double h){
+        if(buckets == 0) return;
+
+        g.setStroke(LINE);
+        g.setLineWidth(1.5);
+        g.beginPath();
+        int k = Math.max(0, first - 1);
+        g.moveTo(xm.x(picked[k]), y(history.balance(picked[k]), h));
+        for(k++; k < buckets; k++) g.lineTo(xm.x(picked[k]), y(history.balance(picked[k]), h));
+        g.stroke();
+    }
+
+    private void dots(GraphicsContext g, int start, int end, XMap xm, double h){
+        for(int i = start; i < end; i++){
+            int r = history.result(i);
+            g.setFill(r > 0 ? WIN : r < 0 ? LOSS : PUSH);
+            g.fillOval(xm.x(i) - 3, y(history.balance(i), h) - 3, 6, 6);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package blackjack;
+
+import java.util.Arrays;
+
+// Balance after every round of the session, plus that round's result, in
+// chunked primitive arrays. Memory is capped: when the store fills up, every
+// other point is dropped and each point then stands for twice as many rounds,
+// so an arbitrarily long turbo session keeps a bounded, evenly spaced history.
+public class SessionHistory {
+
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK = 1 << CHUNK_BITS;
+    private static final int MASK = CHUNK - 1;
+    private static final int MAX_POINTS = 1 << 20;          // ~5 MB
+
+    private int[][] balances = new int[16][];
+    private byte[][] results = new byte[16][];
+    private int size;
+
+    private int stride = 1;         // rounds per point
+    private int pending;            // rounds since the last stored point
+    private long rounds;
+    private int generation;         // bumped on every compaction
+
+    private int min = Integer.MAX_VALUE;
+    private int max = Integer.MIN_VALUE;
+
+    // result: 1 win, 0 push, -1 loss; balance after settlement
+    public void add(int result, int balance){
+        rounds++;
+        if(balance < min) min = balance;
+        if(balance > max) max = balance;
+
+        if(++pending < stride) return;
+        pending = 0;
+
+        if(size == MAX_POINTS){
+            compact();
+            pending = stride / 2;       // this round is half of the first new span
+            return;
+        }
+
+        int c = size >>> CHUNK_BITS;
+        if(c == balances.length){
+            balances = Arrays.copyOf(balances, c * 2);
+            results = Arrays.copyOf(results, c * 2);
+        }
+        if(balances[c] == null){
+            balances[c] = new int[CHUNK];
+            results[c] = new byte[CHUNK];
+        }
+        balances[c][size & MASK] = balance;
+        results[c][size & MASK] = (byte) result;
+        size++;
+    }
+
+    // Keep the odd points (each closes a span of two) and halve the resolution
+    private void compact(){
+        int half = size / 2;
+        for(int i = 0; i < half; i++){
+            int j = 2 * i + 1;
+            balances[i >>> CHUNK_BITS][i & MASK] = balance(j);
+            results[i >>> CHUNK_BITS][i & MASK] = (byte) result(j);
+        }
+        for(int c = (half + MASK) >>> CHUNK_BITS; c < balances.length; c++){
+            balances[c] = null;
+            results[c] = null;
+        }
+        size = half;
+        stride *= 2;
+        generation++;
+    }
+
+    public int size(){ return size; }
+    public int stride(){ return stride; }
+    public long rounds(){ return rounds; }
+    public int generation(){ return generation; }
+
+    // Extremes over every round played, including ones compacted away
+    public int min(){ return min; }
+    public int max(){ return max; }
+
+    public int balance(int i){ return balances[i >>> CHUNK_BITS][i & MASK]; }
+    public int result(int i){ return results[i >>> CHUNK_BITS][i & MASK]; }
+
+    // Round number (1-based) at the end of point i
+    public long roundAt(int i){
+        return (long) (i + 1) * stride;
+    }
+}
@@ -0,0 +1,244 @@
+package blackjack;
+
+import blackjack.CardModel.Shoe;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+// Records a session so SessionReplay can play it back on the table. The shoe
+// is keyed, so a round is stored as just its bet and the player's decisions
+// (a few bytes); the cards follow from the seed. Two files:
+//
+//   name.bjr   header (shoe key, table rules), then one record per round or refill:
+//              ROUND varint bet, one byte per decision | REFILL varint amount
+//   name.bjx   keyframe every KEYFRAME_EVERY records, fixed KEYFRAME_BYTES each:
+//              record number, .bjr offset, totals, shoe index and cards dealt
+//              as they were before that record
+//
+// Keyframe k is at k * KEYFRAME_BYTES, so a seek restores the nearest one and
+// replays at most KEYFRAME_EVERY - 1 records. Engine thread only.
+public class SessionRecorder {
+
+    static final int FILE_MAGIC = 0x424A5253;        // "BJRS"
+    static final int VERSION = 2;                   // 1 had no rules and was always CLASSIC
+    static final int KEYFRAME_EVERY = 256;
+    static final int KEYFRAME_BYTES = 76;
+
+    // ===== Record kinds =====
+    static final int ROUND = 0;
+    static final int REFILL = 1;
+
+    // ===== Decisions =====
+    static final int HIT = 0;
+    static final int STAND = 1;
+    static final int DOUBLE = 2;
+    static final int SPLIT = 3;
+    static final int SURRENDER = 4;
+    static final int INSURE = 5;
+    static final int NO_INSURANCE = 6;
+
+    private static final int BUFFER = 1 << 16;
+
+    private final Path data;
+    private final OutputStream dataOut;
+    private final DataOutputStream indexOut;
+    private final RoundJournal.Totals totals = new RoundJournal.Totals();
+
+    private final byte[] buf = new byte[BUFFER];
+    private int used;
+    private long offset;            // bytes of records written, header included
+    private long records;
+    private boolean closed;
+    private IOException failure;    // why recording stopped early, null while it runs
+
+    // Round in progress
+    private int bet;
+    private int decisions;
+    private byte[] decision = new byte[32];
+
+    // Creates name.bjr and name.bjx next to each other
+    public SessionRecorder(Path file, int startBalance) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        data = file;
+        dataOut = Files.newOutputStream(file);
+        indexOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexFile(file))));
+        totals.balance = startBalance;
+    }
+
+    static Path indexFile(Path data){
+        String name = data.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return data.resolveSibling((dot < 0 ? name : name.substring(0, dot)) + ".bjx");
+    }
+
+    public Path file(){ return data; }
+
+    // The shoe key and rules go in the header; keyframe 0 is the shoe as it is now
+    public void start(Shoe shoe, TableRules rules){
+        if(!shoe.isKeyed()) throw new IllegalArgumentException("Sessions can only be recorded from a keyed shoe");
+        putInt(FILE_MAGIC);
+        putInt(VERSION);
+        byte[] name = shoe.algorithm().getBytes(StandardCharsets.US_ASCII);
+        put(name.length);
+        for(byte b : name) put(b);
+        putLong(shoe.seed());
+        put(shoe.decks());
+        putLong(Double.doubleToLongBits(shoe.penetration()));
+        byte[] spec = rules.spec().getBytes(StandardCharsets.US_ASCII);
+        put(spec.length);
+        for(byte b : spec) put(b);
+        keyframe(shoe);
+    }
+
+    // ===============================================================================================
+    // RECORDING
+    // ===============================================================================================
+
+    public void event(RoundEngine round, int event){
+        if(closed) return;
+        switch(RoundEvent.kind(event)){
+            case RoundEvent.BET_HIGH:
+                bet = RoundEvent.arg(event) << 28;
+                break;
+            case RoundEvent.BET:
+                bet |= RoundEvent.arg(event);
+                decisions = 0;
+                break;
+            case RoundEvent.HIT:
+                decide(HIT);
+                break;
+            case RoundEvent.STAND:
+                decide(STAND);
+                break;
+            case RoundEvent.DOUBLE:
+                decide(DOUBLE);
+                break;
+            case RoundEvent.SPLIT:
+                decide(SPLIT);
+                break;
+            case RoundEvent.SURRENDER:
+                decide(SURRENDER);
+                break;
+            case RoundEvent.INSURANCE:
+                decide(RoundEvent.arg(event) == 1 ? INSURE : NO_INSURANCE);
+                break;
+            case RoundEvent.OUTCOME:
+                put(ROUND);
+                putVar(bet);
+                for(int i = 0; i < decisions; i++) put(decision[i]);
+                bet = 0;
+
+                int net = round.net();
+                int result = round.outcome().isPush() ? 0 : round.outcome().isWin() ? 1 : -1;
+                totals.apply(RoundJournal.ROUND, result, net, totals.balance + net);
+                recorded(round.shoe());
+                break;
+        }
+    }
+
+    private void decide(int d){
+        if(decisions == decision.length) decision = Arrays.copyOf(decision, decisions * 2);
+        decision[decisions++] = (byte) d;
+    }
+
+    public void refill(int amount, Shoe shoe){
+        if(closed) return;
+        put(REFILL);
+        putVar(amount);
+        totals.apply(RoundJournal.REFILL, 0, 0, amount);
+        recorded(shoe);
+    }
+
+    private void recorded(Shoe shoe){
+        if(++records % KEYFRAME_EVERY == 0) keyframe(shoe);
+    }
+
+    // Totals and shoe position before record number `records`
+    private void keyframe(Shoe shoe){
+        try {
+            indexOut.writeLong(records);
+            indexOut.writeLong(offset);
+            indexOut.writeInt(totals.balance);
+            indexOut.writeLong(totals.games);
+            indexOut.writeLong(totals.wins);
+            indexOut.writeLong(totals.losses);
+            indexOut.writeLong(totals.pushes);
+            indexOut.writeInt(totals.currentStreak);
+            indexOut.writeInt(totals.bestStreak);
+            indexOut.writeInt(totals.biggestWin);
+            indexOut.writeLong(shoe.index());
+            indexOut.writeInt(shoe.dealt());
+        } catch(IOException ex){
+            fail(ex);
+        }
+    }
+
+    public long records(){ return records; }
+
+    // The I/O error that stopped the recording, or null
+    public IOException failure(){ return failure; }
+
+    public void close(){
+        if(closed) return;
+        drain();
+        closed = true;
+        try {
+            dataOut.close();
+            indexOut.close();
+        } catch(IOException ex){
+            System.err.println("Session recording close failed: " + ex);
+        }
+    }
+
+    private void fail(IOException ex){
+        System.err.println("Session recording stopped: " + ex);
+        failure = ex;
+        closed = true;
+    }
+
+    // ===============================================================================================
+    // BYTES
+    // ===============================================================================================
+
+    private void put(int b){
+        if(used == BUFFER) drain();
+        buf[used++] = (byte) b;
+        offset++;
+    }
+
+    private void putVar(int v){
+        while((v & ~0x7F) != 0){
+            put((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        put(v);
+    }
+
+    private void putInt(int v){
+        put(v >>> 24);
+        put(v >>> 16);
+        put(v >>> 8);
+        put(v);
+    }
+
+    private void putLong(long v){
+        putInt((int) (v >>> 32));
+        putInt((int) v);
+    }
+
+    private void drain(){
+        if(used == 0 || closed) return;
+        try {
+            dataOut.write(buf, 0, used);
+        } catch(IOException ex){
+            fail(ex);
+        }
+        used = 0;
+    }
+}
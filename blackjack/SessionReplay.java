@@ -0,0 +1,195 @@
+package blackjack;
+
+import blackjack.CardModel.Shoe;
+import blackjack.RoundEngine.Phase;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Plays back a session written by SessionRecorder. Both files are mapped
+// read-only; a seek reads keyframe (record / KEYFRAME_EVERY), restores its
+// totals and shoe position and replays the records between it and the target
+// without events, so any of hundreds of thousands of rounds is a few hundred
+// rounds of pure engine work away. A recording that is still being written,
+// or was cut short, plays up to its last complete record.
+public class SessionReplay implements Closeable {
+
+    private final FileChannel dataChannel;
+    private final FileChannel indexChannel;
+    private final ByteBuffer data;
+    private final ByteBuffer index;
+    private final int keyframes;
+    private final long records;
+
+    private final Shoe shoe;
+    private final TableRules rules;
+    private RoundEngine engine;
+    private RoundJournal.Totals totals;
+    private int pos;                // offset of the next record
+    private long next;              // number of the next record
+
+    public SessionReplay(Path file) throws IOException {
+        dataChannel = FileChannel.open(file, StandardOpenOption.READ);
+        indexChannel = FileChannel.open(SessionRecorder.indexFile(file), StandardOpenOption.READ);
+        data = dataChannel.map(FileChannel.MapMode.READ_ONLY, 0, dataChannel.size());
+        index = indexChannel.map(FileChannel.MapMode.READ_ONLY, 0, indexChannel.size());
+
+        if(data.limit() < 8 || data.getInt(0) != SessionRecorder.FILE_MAGIC) throw new IOException("Not a session recording: " + file);
+        int version = data.getInt(4);
+        if(version < 1 || version > SessionRecorder.VERSION) throw new IOException("Unsupported session recording version " + version);
+
+        int at = 8;
+        byte[] name = new byte[data.get(at++)];
+        data.get(at, name);
+        at += name.length;
+        long seed = data.getLong(at);
+        int decks = data.get(at + 8);
+        double penetration = Double.longBitsToDouble(data.getLong(at + 9));
+        shoe = new Shoe(decks, penetration, new String(name, StandardCharsets.US_ASCII), seed);
+        at += 17;
+        if(version == 1){
+            rules = TableRules.CLASSIC;
+        } else {
+            byte[] spec = new byte[data.get(at++)];
+            data.get(at, spec);
+            rules = TableRules.parse(new String(spec, StandardCharsets.US_ASCII));
+        }
+
+        // Keyframes can be flushed ahead of the records they point at
+        int k = index.limit() / SessionRecorder.KEYFRAME_BYTES;
+        while(k > 0 && offsetOf(k - 1) > data.limit()) k--;
+        if(k == 0) throw new IOException("Session recording has no keyframe: " + file);
+        keyframes = k;
+
+        // Count the tail after the last keyframe by playing it
+        restore(keyframes - 1);
+        long n = next;
+        try {
+            while(pos < data.limit()){
+                play(null);
+                n = next;
+            }
+        } catch(IndexOutOfBoundsException | IllegalStateException cut){
+            // last record incomplete
+        }
+        records = n;
+        seek(0);
+    }
+
+    public long records(){ return records; }
+
+    public TableRules rules(){ return rules; }
+
+    // Number of the record next() will play
+    public long position(){ return next; }
+
+    public boolean hasNext(){ return next < records; }
+
+    // Balance and stats before the next record
+    public RoundJournal.Totals totals(){ return totals.copy(); }
+
+    // The engine of the last round played, settled
+    public RoundEngine engine(){ return engine; }
+
+    // Kind of the next record, SessionRecorder.ROUND or REFILL
+    public int peekKind(){ return data.get(pos); }
+
+    // ===============================================================================================
+    // SEEK + PLAY
+    // ===============================================================================================
+
+    // Position before record `record`: nearest keyframe, then a silent delta replay
+    public void seek(long record){
+        record = Math.max(0, Math.min(records, record));
+        int k = (int) Math.min(keyframes - 1, record / SessionRecorder.KEYFRAME_EVERY);
+        restore(k);
+        while(next < record) play(null);
+    }
+
+    // Play the next record, reporting every RoundEvent to recorder (may be null)
+    public int next(RoundEngine.Recorder recorder){
+        if(!hasNext()) throw new IllegalStateException("End of recording");
+        return play(recorder);
+    }
+
+    private void restore(int k){
+        int at = k * SessionRecorder.KEYFRAME_BYTES;
+        next = index.getLong(at);
+        pos = (int) index.getLong(at + 8);
+
+        RoundJournal.Totals t = new RoundJournal.Totals();
+        t.records = next;
+        t.balance = index.getInt(at + 16);
+        t.games = index.getLong(at + 20);
+        t.wins = index.getLong(at + 28);
+        t.losses = index.getLong(at + 36);
+        t.pushes = index.getLong(at + 44);
+        t.currentStreak = index.getInt(at + 52);
+        t.bestStreak = index.getInt(at + 56);
+        t.biggestWin = index.getInt(at + 60);
+        totals = t;
+
+        shoe.restore(index.getLong(at + 64), index.getInt(at + 72));
+        engine = new RoundEngine(shoe, rules);
+    }
+
+    private long offsetOf(int k){
+        return index.getLong(k * SessionRecorder.KEYFRAME_BYTES + 8);
+    }
+
+    private int play(RoundEngine.Recorder recorder){
+        int kind = data.get(pos++);
+
+        if(kind == SessionRecorder.REFILL){
+            int amount = readVar();
+            totals.apply(RoundJournal.REFILL, 0, 0, amount);
+        } else {
+            int bet = readVar();
+            engine.setRecorder(recorder);
+            engine.begin(bet);
+            engine.deal();
+            while(engine.phase() == Phase.INSURANCE || engine.phase() == Phase.PLAYER_TURN){
+                switch(data.get(pos++)){
+                    case SessionRecorder.HIT: engine.hit(); break;
+                    case SessionRecorder.STAND: engine.stand(); break;
+                    case SessionRecorder.DOUBLE: engine.doubleDown(); break;
+                    case SessionRecorder.SPLIT: engine.split(); break;
+                    case SessionRecorder.SURRENDER: engine.surrender(); break;
+                    case SessionRecorder.INSURE: engine.insure(true); break;
+                    case SessionRecorder.NO_INSURANCE: engine.insure(false); break;
+                    default: throw new IllegalStateException("Bad decision at " + (pos - 1));
+                }
+            }
+            if(engine.phase() == Phase.DEALER_TURN) engine.playDealer();
+
+            int net = engine.net();
+            int result = engine.outcome().isPush() ? 0 : engine.outcome().isWin() ? 1 : -1;
+            totals.apply(RoundJournal.ROUND, result, net, totals.balance + net);
+        }
+        next++;
+        return kind;
+    }
+
+    private int readVar(){
+        int v = 0, shift = 0;
+        byte b;
+        do {
+            b = data.get(pos++);
+            v |= (b & 0x7F) << shift;
+            shift += 7;
+        } while(b < 0);
+        return v;
+    }
+
+    @Override
+    public void close() throws IOException {
+        dataChannel.close();
+        indexChannel.close();
+    }
+}
@@ -0,0 +1,232 @@
+package blackjack;
+
+import blackjack.CardModel.Shoe;
+import blackjack.RoundEngine.Outcome;
+import blackjack.RoundEngine.Strategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.random.RandomGenerator;
+
+// Parallel Monte Carlo runs of RoundEngine under a fixed strategy and table
+// rules, betting flat or by the count (BetSpread). Every worker owns its engine, shoe, count
+// tracker and an independent stream split from one seeded root generator, so
+// a (seed, threads) pair always reproduces a run.
+public class Simulator {
+
+    // ===== Per-worker aggregate =====
+    public static class Stats {
+        public long rounds;
+        public long wins;
+        public long losses;
+        public long pushes;
+        public long totalBet;
+
+        // Running mean / sum of squared deviations of the net result (Welford)
+        private double mean;
+        private double m2;
+
+        public void add(Outcome o, int bet, int net){
+            rounds++;
+            totalBet += bet;
+            if(o.isPush()) pushes++;
+            else if(o.isWin()) wins++;
+            else losses++;
+
+            double d = net - mean;
+            mean += d / rounds;
+            m2 += d * (net - mean);
+        }
+
+        // Chan et al. pairwise merge, exact regardless of worker sizes
+        public void merge(Stats o){
+            if(o.rounds == 0) return;
+            long n = rounds + o.rounds;
+            double d = o.mean - mean;
+            mean += d * o.rounds / n;
+            m2 += o.m2 + d * d * ((double) rounds * o.rounds / n);
+            rounds = n;
+            wins += o.wins;
+            losses += o.losses;
+            pushes += o.pushes;
+            totalBet += o.totalBet;
+        }
+
+        public double meanNet(){ return mean; }
+
+        public double variance(){
+            return rounds > 1 ? m2 / (rounds - 1) : 0;
+        }
+
+        public double standardError(){
+            return rounds > 0 ? Math.sqrt(variance() / rounds) : 0;
+        }
+    }
+
+    // ===== Finished run =====
+    public static class Result {
+        public final Stats stats;
+        public final int bet;
+        public final int threads;
+        public final long nanos;
+
+        Result(Stats stats, int bet, int threads, long nanos){
+            this.stats = stats;
+            this.bet = bet;
+            this.threads = threads;
+            this.nanos = nanos;
+        }
+
+        // Expected value per unit of initial bet
+        public double ev(){
+            return stats.meanNet() / bet;
+        }
+
+        // Mean amount wagered per round, doubles included, in units of bet
+        public double meanUnits(){
+            return stats.rounds == 0 ? 0 : (double) stats.totalBet / stats.rounds / bet;
+        }
+
+        // Net result per unit wagered
+        public double returnOnBets(){
+            return stats.totalBet == 0 ? 0 : stats.meanNet() * stats.rounds / stats.totalBet;
+        }
+
+        public double roundsPerSecond(){
+            return stats.rounds / (nanos / 1e9);
+        }
+
+        @Override
+        public String toString(){
+            Stats s = stats;
+            return String.format(
+                    "rounds=%d threads=%d%n" +
+                    "wins=%.4f losses=%.4f pushes=%.4f%n" +
+                    "EV=%+.5f +/-%.5f (per unit)  variance=%.4f (per unit^2)%n" +
+                    "%.0f rounds/sec",
+                    s.rounds, threads,
+                    (double) s.wins / s.rounds, (double) s.losses / s.rounds, (double) s.pushes / s.rounds,
+                    ev(), s.standardError() / bet, s.variance() / ((double) bet * bet),
+                    roundsPerSecond());
+        }
+    }
+
+    private final Strategy strategy;
+    private final TableRules rules;
+    private final int bet;
+    private final BetSpread spread;     // null = flat bet
+    private final int decks;
+    private final double penetration;
+    private final int threads;
+    private final String rng;
+    private final long seed;
+
+    public Simulator(Strategy strategy, int bet, int decks, double penetration, int threads, String rng, long seed){
+        this(strategy, TableRules.CLASSIC, bet, null, decks, penetration, threads, rng, seed);
+    }
+
+    public Simulator(Strategy strategy, int bet, BetSpread spread, int decks, double penetration,
+                     int threads, String rng, long seed){
+        this(strategy, TableRules.CLASSIC, bet, spread, decks, penetration, threads, rng, seed);
+    }
+
+    // bet is the unit the spread multiplies; spread may be null for flat bets
+    public Simulator(Strategy strategy, TableRules rules, int bet, BetSpread spread, int decks, double penetration,
+                     int threads, String rng, long seed){
+        this.strategy = strategy;
+        this.rules = rules;
+        this.bet = bet;
+        this.spread = spread;
+        this.decks = decks;
+        this.penetration = penetration;
+        this.threads = threads;
+        this.rng = rng;
+        this.seed = seed;
+    }
+
+    public Result run(long rounds){
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        RandomGenerator[] streams = Rngs.streams(Rngs.create(rng, seed), threads);
+
+        try {
+            long start = System.nanoTime();
+
+            List<Future<Stats>> parts = new ArrayList<>();
+            for(int i = 0; i < threads; i++){
+                long share = rounds / threads + (i < rounds % threads ? 1 : 0);
+                RandomGenerator stream = streams[i];
+                parts.add(pool.submit(() -> work(share, stream)));
+            }
+
+            Stats total = new Stats();
+            for(Future<Stats> f : parts) total.merge(f.get());
+
+            return new Result(total, bet, threads, System.nanoTime() - start);
+
+        } catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Simulation interrupted", e);
+        } catch(ExecutionException e){
+            throw new IllegalStateException("Simulation worker failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private Stats work(long rounds, RandomGenerator stream){
+        Shoe shoe = new Shoe(decks, penetration, stream);
+        RoundEngine engine = new RoundEngine(shoe, rules);
+        Stats stats = new Stats();
+
+        if(spread == null){
+            for(long i = 0; i < rounds; i++){
+                Outcome o = engine.playRound(bet, strategy);
+                stats.add(o, engine.staked(), engine.net());
+            }
+            return stats;
+        }
+
+        // The tracker follows every draw, so each bet is one lookup away
+        CountTracker counts = new CountTracker(decks);
+        shoe.setTracker(counts);
+        for(long i = 0; i < rounds; i++){
+            Outcome o = engine.playRound(bet * spread.units(counts, shoe), strategy);
+            stats.add(o, engine.staked(), engine.net());
+        }
+        return stats;
+    }
+
+    // ===============================================================================================
+    // MAIN
+    // ===============================================================================================
+
+    // rules is a TableRules spec, or ALL to run every preset on the same seed
+    // java blackjack.Simulator [rounds] [threads] [strategy] [seed] [decks] [penetration] [rng] [rules]
+    public static void main(String[] args){
+        long rounds = args.length > 0 ? Long.parseLong(args[0]) : 10_000_000L;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        Strategy strategy = Strategies.byName(args.length > 2 ? args[2] : "BASIC");
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : System.nanoTime();
+        int decks = args.length > 4 ? Integer.parseInt(args[4]) : 6;
+        double penetration = args.length > 5 ? Double.parseDouble(args[5]) : 0.75;
+        String rng = args.length > 6 ? args[6] : Rngs.DEFAULT;
+        String rules = args.length > 7 ? args[7] : "CLASSIC";
+
+        if(!rules.equalsIgnoreCase("ALL")){
+            Result r = new Simulator(strategy, TableRules.parse(rules), 100, null, decks, penetration, threads, rng, seed).run(rounds);
+            System.out.println(r);
+            return;
+        }
+
+        System.out.printf("rounds=%,d threads=%d seed=%d%n", rounds, threads, seed);
+        for(TableRules t : TableRules.PRESETS){
+            Result r = new Simulator(strategy, t, 100, null, decks, penetration, threads, rng, seed).run(rounds);
+            System.out.printf("%-9s %+.5f +/-%.5f  %,12.0f rounds/s  %s%n",
+                    t.name, r.ev(), r.stats.standardError() / r.bet, r.roundsPerSecond(), t.spec());
+        }
+    }
+}
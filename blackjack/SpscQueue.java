@@ -0,0 +1,61 @@
+package blackjack;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Bounded lock-free ring buffer for exactly one producer thread and one
+// consumer thread. Each side caches the other's index and only re-reads it
+// when the ring looks full (producer) or empty (consumer).
+public class SpscQueue<E> {
+
+    private final Object[] buffer;
+    private final int mask;
+
+    private final AtomicLong head = new AtomicLong();     // next slot to poll, written by the consumer
+    private final AtomicLong tail = new AtomicLong();     // next slot to fill, written by the producer
+
+    private long headCache;     // producer's view of head
+    private long tailCache;     // consumer's view of tail
+
+    // Capacity is rounded up to a power of two
+    public SpscQueue(int capacity){
+        int cap = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        buffer = new Object[cap];
+        mask = cap - 1;
+    }
+
+    // Producer only. False when the queue is full.
+    public boolean offer(E e){
+        long t = tail.get();
+        if(t - headCache >= buffer.length){
+            headCache = head.get();
+            if(t - headCache >= buffer.length) return false;
+        }
+        buffer[(int) t & mask] = e;
+        tail.lazySet(t + 1);        // publishes the slot write
+        return true;
+    }
+
+    // Consumer only. Null when the queue is empty.
+    @SuppressWarnings("unchecked")
+    public E poll(){
+        long h = head.get();
+        if(h >= tailCache){
+            tailCache = tail.get();
+            if(h >= tailCache) return null;
+        }
+        int i = (int) h & mask;
+        E e = (E) buffer[i];
+        buffer[i] = null;
+        head.lazySet(h + 1);
+        return e;
+    }
+
+    // Approximate when called while the other side is running
+    public int size(){
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    public int capacity(){
+        return buffer.length;
+    }
+}
@@ -0,0 +1,33 @@
+package blackjack;
+
+import blackjack.RoundEngine.Action;
+import blackjack.RoundEngine.Strategy;
+
+// Fixed player strategies for simulations and auto-play
+public class Strategies {
+
+    // Hit until 17, like the dealer
+    public static final Strategy MIMIC_DEALER = r ->
+            r.playerTotal() < 17 ? Action.HIT : Action.STAND;
+
+    // Never take a card that could bust
+    public static final Strategy NEVER_BUST = r ->
+            r.playerTotal() < 12 ? Action.HIT : Action.STAND;
+
+    // Basic strategy for the round's table rules
+    public static final Strategy BASIC = Strategies::basic;
+
+    public static Strategy byName(String name){
+        switch(name.toUpperCase()){
+            case "BASIC": return BASIC;
+            case "MIMIC_DEALER": return MIMIC_DEALER;
+            case "NEVER_BUST": return NEVER_BUST;
+            default: throw new IllegalArgumentException("Unknown strategy: " + name);
+        }
+    }
+
+    // The chart is compiled into the round's TableRules
+    private static Action basic(RoundEngine r){
+        return r.rules().basic(r.playerHand(), r.dealerUpSlot(), r.canDouble(), r.canSplit(), r.canSurrender());
+    }
+}
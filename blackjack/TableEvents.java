@@ -0,0 +1,52 @@
+package blackjack;
+
+import blackjack.RoundEngine.Phase;
+
+import java.util.function.Consumer;
+
+// Turns a round's RoundEvents into the CARD and REVEAL GameEvents the table
+// presents. Shared by the live EngineThread and the ReplayViewer, so a replayed
+// round lands on the table exactly as it did when it was played. The sink
+// stamps balance and bet; everything else is filled in here.
+class TableEvents implements RoundEngine.Recorder {
+
+    private final Consumer<GameEvent> sink;
+    private boolean holeShown;
+
+    TableEvents(Consumer<GameEvent> sink){
+        this.sink = sink;
+    }
+
+    @Override
+    public void event(RoundEngine round, int event){
+        switch(RoundEvent.kind(event)){
+            case RoundEvent.PLAYER_CARD:
+            case RoundEvent.DEALER_CARD:
+                // Opening cards carry their position: P1 → D1 → P2 → D2(hidden)
+                int deal = round.phase() == Phase.DEALING ? round.playerHand().size() + round.dealerHand().size() - 1 : -1;
+                GameEvent c = new GameEvent(GameEvent.CARD);
+                c.toPlayer = RoundEvent.kind(event) == RoundEvent.PLAYER_CARD;
+                c.code = RoundEvent.arg(event);
+                c.deal = deal;
+                c.hidden = deal == 3;
+                c.doubled = round.doubled();
+                GameEvent.totals(c, round, holeShown);
+                sink.accept(c);
+                break;
+            case RoundEvent.PHASE:
+                Phase p = RoundEvent.phase(event);
+                if(p == Phase.DEALING) holeShown = false;
+                else if((p == Phase.DEALER_TURN || p == Phase.SETTLED) && !holeShown){
+                    holeShown = true;
+                    GameEvent r = new GameEvent(GameEvent.REVEAL);
+                    r.code = round.dealerHand().code(1);
+                    GameEvent.totals(r, round, true);
+                    sink.accept(r);
+                }
+                break;
+        }
+    }
+
+    // The hole card is face up
+    boolean holeShown(){ return holeShown; }
+}
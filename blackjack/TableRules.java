@@ -0,0 +1,376 @@
+package blackjack;
+
+import blackjack.RoundEngine.Action;
+import blackjack.RoundEngine.Outcome;
+
+import java.util.Locale;
+
+// A table's rule set. Everything that depends on it is compiled into dense
+// primitive tables when the rules are built: whether the dealer hits, whether
+// a two-card hand may double or split, what each outcome pays and the basic
+// strategy chart. The engine then answers those with one array load instead
+// of branching on configuration. Immutable; tables playing the same rules can
+// share one instance.
+//
+// Rules are written as a spec of space- or comma-separated tokens, optionally
+// starting from a preset name, e.g. "VEGAS", "DOWNTOWN 6:5" or "H17 3:2 DAS SP4 LS INS":
+//
+//   S17 | H17            dealer stands / hits on soft 17
+//   3:2 | 6:5 | n:m      blackjack pays
+//   DA | D9 | D10        double on any two cards / hard 9-11 / 10-11
+//   DAS | NDAS           double after split
+//   NS | SP2 .. SP8      no splitting / split up to n hands
+//   RSA | NRSA           resplit aces
+//   LS | NLS             late surrender
+//   INS | NINS           insurance
+//   PEEK | ENHC          dealer checks for blackjack under an ace or ten / no hole-card check
+public class TableRules {
+
+    // ===== Doubling =====
+    public static final int DOUBLE_ANY = 0;
+    public static final int DOUBLE_9_11 = 1;
+    public static final int DOUBLE_10_11 = 2;
+    private static final String[] DOUBLE_NAMES = {"DA", "D9", "D10"};
+
+    public static final int MAX_HANDS = 8;
+
+    // The rules this table has always had: nothing but hit, stand and double
+    public static final TableRules CLASSIC = new TableRules("CLASSIC", false, 3, 2, DOUBLE_ANY, false, 1, false, false, false, false);
+    public static final TableRules VEGAS = new TableRules("VEGAS", false, 3, 2, DOUBLE_ANY, true, 4, false, true, true, true);
+    public static final TableRules DOWNTOWN = new TableRules("DOWNTOWN", true, 3, 2, DOUBLE_ANY, true, 4, false, false, true, true);
+    public static final TableRules SIX_FIVE = new TableRules("SIX_FIVE", true, 6, 5, DOUBLE_ANY, false, 4, false, false, true, true);
+    public static final TableRules[] PRESETS = {CLASSIC, VEGAS, DOWNTOWN, SIX_FIVE};
+
+    public final String name;
+    public final boolean hitSoft17;
+    public final int blackjackWins;         // blackjack pays blackjackWins : blackjackStakes
+    public final int blackjackStakes;
+    public final int doubleOn;
+    public final boolean doubleAfterSplit;
+    public final int maxHands;              // 1 = no splitting
+    public final boolean resplitAces;
+    public final boolean lateSurrender;
+    public final boolean insurance;
+    public final boolean peek;
+
+    // ===== Compiled =====
+    // Hand totals index as soft << 5 | total
+    private final boolean[] dealerHits = new boolean[64];
+    private final boolean[] doubles = new boolean[128];     // | fromSplit << 6, two-card hands
+    private final boolean[] splits;                         // by splitAces, pair slot, hands in play
+    private final int[] pays = new int[Outcome.values().length];
+    private final int payScale;                             // pays[o] / payScale of the hand's bet comes back
+    private final int[] multiples = new int[pays.length];   // pays[o] / payScale when it is whole, else -1
+
+    // Basic strategy chart by up card slot, for HARD / SOFT totals and PAIR slots.
+    // Each entry is an action and the fallback when it is not allowed (ACTION_BITS each);
+    // NO_SPLIT marks pairs played by their total.
+    private static final int HARD = 0;
+    private static final int SOFT = 32 * CardModel.VALUES;
+    private static final int PAIR = 64 * CardModel.VALUES;
+    private static final int ACTION_BITS = 3;
+    private static final int NO_SPLIT = 7;
+    private static final Action[] ACTIONS = Action.values();
+    private final byte[] chart = new byte[PAIR + CardModel.VALUES * CardModel.VALUES];
+
+    public TableRules(String name, boolean hitSoft17, int blackjackWins, int blackjackStakes, int doubleOn,
+                      boolean doubleAfterSplit, int maxHands, boolean resplitAces,
+                      boolean lateSurrender, boolean insurance, boolean peek){
+        if(blackjackWins < 1 || blackjackStakes < 1) throw new IllegalArgumentException("Blackjack payout must be positive");
+        if(doubleOn < DOUBLE_ANY || doubleOn > DOUBLE_10_11) throw new IllegalArgumentException("Unknown double rule " + doubleOn);
+        if(maxHands < 1 || maxHands > MAX_HANDS) throw new IllegalArgumentException("maxHands must be in [1, " + MAX_HANDS + "]");
+        if((lateSurrender || insurance) && !peek) throw new IllegalArgumentException("Late surrender and insurance need the dealer to peek");
+
+        this.name = name;
+        this.hitSoft17 = hitSoft17;
+        this.blackjackWins = blackjackWins;
+        this.blackjackStakes = blackjackStakes;
+        this.doubleOn = doubleOn;
+        this.doubleAfterSplit = doubleAfterSplit;
+        this.maxHands = maxHands;
+        this.resplitAces = resplitAces;
+        this.lateSurrender = lateSurrender;
+        this.insurance = insurance;
+        this.peek = peek;
+
+        // ===== Dealer =====
+        for(int soft = 0; soft < 2; soft++){
+            for(int total = 0; total < 32; total++){
+                dealerHits[soft << 5 | total] = total < 17 || hitSoft17 && soft == 1 && total == 17;
+            }
+        }
+
+        // ===== Doubling =====
+        for(int split = 0; split < 2; split++){
+            for(int soft = 0; soft < 2; soft++){
+                for(int total = 0; total < 32; total++){
+                    boolean ok = doubleOn == DOUBLE_ANY
+                            || doubleOn == DOUBLE_9_11 && total >= 9 && total <= 11
+                            || doubleOn == DOUBLE_10_11 && total >= 10 && total <= 11;
+                    doubles[split << 6 | soft << 5 | total] = ok && (split == 0 || doubleAfterSplit);
+                }
+            }
+        }
+
+        // ===== Splitting =====
+        splits = new boolean[2 * CardModel.VALUES * (MAX_HANDS + 1)];
+        for(int aces = 0; aces < 2; aces++){
+            for(int slot = 0; slot < CardModel.VALUES; slot++){
+                for(int hands = 1; hands <= MAX_HANDS; hands++){
+                    splits[splitIndex(aces == 1, slot, hands)] = hands < maxHands && (slot != 0 || aces == 0 || resplitAces);
+                }
+            }
+        }
+
+        // ===== Payouts, in 1 / (2 * blackjackStakes) of the bet =====
+        payScale = 2 * blackjackStakes;
+        pays[Outcome.BLACKJACK.ordinal()] = payScale + 2 * blackjackWins;
+        pays[Outcome.DEALER_BUST.ordinal()] = 2 * payScale;
+        pays[Outcome.WIN.ordinal()] = 2 * payScale;
+        pays[Outcome.BLACKJACK_PUSH.ordinal()] = payScale;
+        pays[Outcome.PUSH.ordinal()] = payScale;
+        pays[Outcome.SURRENDER.ordinal()] = payScale / 2;
+        for(int o = 0; o < pays.length; o++) multiples[o] = pays[o] % payScale == 0 ? pays[o] / payScale : -1;
+
+        compileChart();
+    }
+
+    // ===============================================================================================
+    // LOOKUPS
+    // ===============================================================================================
+
+    public boolean dealerHits(int total, boolean soft){
+        return dealerHits[(soft ? 32 : 0) | total];
+    }
+
+    // Lowest total the dealer stands on
+    public int dealerStandsOn(boolean soft){
+        int t = 0;
+        while(dealerHits(t, soft)) t++;
+        return t;
+    }
+
+    // A two-card hand's total; fromSplit when it came from a split
+    public boolean canDouble(int total, boolean soft, boolean fromSplit){
+        return doubles[(fromSplit ? 64 : 0) | (soft ? 32 : 0) | total];
+    }
+
+    // A pair of slot, with hands already in play; splitAces when the pair came from splitting aces
+    public boolean canSplit(int slot, int hands, boolean splitAces){
+        return splits[splitIndex(splitAces, slot, hands)];
+    }
+
+    private static int splitIndex(boolean splitAces, int slot, int hands){
+        return ((splitAces ? CardModel.VALUES : 0) + slot) * (MAX_HANDS + 1) + hands;
+    }
+
+    // Amount handed back for a hand that bet `bet` (stake included), rounded half up.
+    // Only blackjack and surrender can pay a fraction of the bet.
+    public int payout(Outcome o, int bet){
+        int m = multiples[o.ordinal()];
+        if(m >= 0) return bet * m;
+        return (int) ((2L * bet * pays[o.ordinal()] + payScale) / (2L * payScale));
+    }
+
+    // What the table tells the player; a blackjack names this table's payout
+    public String message(Outcome o){
+        return o == Outcome.BLACKJACK ? o.message + " (" + blackjackWins + ":" + blackjackStakes + ")" : o.message;
+    }
+
+    // Basic strategy for a hand against upSlot, given what the round allows right now
+    public Action basic(Hand hand, int upSlot, boolean canDouble, boolean canSplit, boolean canSurrender){
+        int e = NO_SPLIT;
+        if(canSplit) e = chart[PAIR + CardModel.valueIndex(hand.code(0)) * CardModel.VALUES + upSlot];
+        if(e == NO_SPLIT) e = chart[(hand.isSoft() ? SOFT : HARD) + Math.min(hand.total(), 31) * CardModel.VALUES + upSlot];
+
+        Action a = ACTIONS[e & NO_SPLIT];
+        if(a == Action.DOUBLE && !canDouble || a == Action.SURRENDER && !canSurrender) a = ACTIONS[e >> ACTION_BITS];
+        return a;
+    }
+
+    // ===============================================================================================
+    // BASIC STRATEGY CHART
+    // ===============================================================================================
+
+    // Multi-deck, stand on soft 17 with double after split; H17 and the other
+    // rules are applied on top while compiling. Columns are up cards 2..10, A.
+    //   H hit  S stand  D double else hit  Ds double else stand  P split
+    //   Ph split if doubling after split is allowed, else hit
+    //   Rh / Rs / Rp surrender, else hit / stand / split    - play the pair by its total
+    // The last row of each covers every total above it. In a holder class, as
+    // the presets above are built while TableRules is still initialising.
+    private static final class Charts {
+        static final String[] HARD = {
+                /* 8 */ "H  H  H  H  H  H  H  H  H  H",
+                /* 9 */ "H  D  D  D  D  H  H  H  H  H",
+                /*10 */ "D  D  D  D  D  D  D  D  H  H",
+                /*11 */ "D  D  D  D  D  D  D  D  D  H",
+                /*12 */ "H  H  S  S  S  H  H  H  H  H",
+                /*13 */ "S  S  S  S  S  H  H  H  H  H",
+                /*14 */ "S  S  S  S  S  H  H  H  H  H",
+                /*15 */ "S  S  S  S  S  H  H  H  Rh H",
+                /*16 */ "S  S  S  S  S  H  H  Rh Rh Rh",
+                /*17 */ "S  S  S  S  S  S  S  S  S  S",
+                /*18 */ "S  S  S  S  S  S  S  S  S  S",
+        };
+        static final String[] SOFT = {
+                /*13 */ "H  H  H  D  D  H  H  H  H  H",
+                /*14 */ "H  H  H  D  D  H  H  H  H  H",
+                /*15 */ "H  H  D  D  D  H  H  H  H  H",
+                /*16 */ "H  H  D  D  D  H  H  H  H  H",
+                /*17 */ "H  D  D  D  D  H  H  H  H  H",
+                /*18 */ "S  Ds Ds Ds Ds S  S  H  H  H",
+                /*19 */ "S  S  S  S  S  S  S  S  S  S",
+                /*20 */ "S  S  S  S  S  S  S  S  S  S",
+        };
+        static final String[] PAIR = {
+                /* A */ "P  P  P  P  P  P  P  P  P  P",
+                /* 2 */ "Ph Ph P  P  P  P  H  H  H  H",
+                /* 3 */ "Ph Ph P  P  P  P  H  H  H  H",
+                /* 4 */ "H  H  H  Ph Ph H  H  H  H  H",
+                /* 5 */ "-  -  -  -  -  -  -  -  -  -",
+                /* 6 */ "Ph P  P  P  P  H  H  H  H  H",
+                /* 7 */ "P  P  P  P  P  P  H  H  H  H",
+                /* 8 */ "P  P  P  P  P  P  P  P  P  P",
+                /* 9 */ "P  P  P  P  P  S  P  P  S  S",
+                /*10 */ "-  -  -  -  -  -  -  -  -  -",
+        };
+    }
+
+    private void compileChart(){
+        String[][] hard = cells(Charts.HARD);
+        String[][] soft = cells(Charts.SOFT);
+        String[][] pair = cells(Charts.PAIR);
+
+        if(hitSoft17){
+            hard[11 - 8][9] = "D";          // 11 v A
+            hard[15 - 8][9] = "Rh";         // 15 v A
+            hard[17 - 8][9] = "Rs";         // 17 v A
+            soft[18 - 13][0] = "Ds";        // A7 v 2
+            soft[19 - 13][4] = "Ds";        // A8 v 6
+            pair[7][9] = "Rp";              // 88 v A
+        }
+
+        for(int total = 0; total < 32; total++){
+            for(int up = 0; up < CardModel.VALUES; up++){
+                String h = total <= 8 ? "H" : hard[Math.min(total, 18) - 8][column(up)];
+                String s = total <= 12 ? "H" : soft[Math.min(total, 20) - 13][column(up)];
+                chart[HARD + total * CardModel.VALUES + up] = entry(h);
+                chart[SOFT + total * CardModel.VALUES + up] = entry(s);
+            }
+        }
+        for(int slot = 0; slot < CardModel.VALUES; slot++){
+            for(int up = 0; up < CardModel.VALUES; up++){
+                chart[PAIR + slot * CardModel.VALUES + up] = entry(pair[slot][column(up)]);
+            }
+        }
+    }
+
+    // Slot order is A, 2..10; the charts read 2..10, A
+    private static int column(int upSlot){
+        return upSlot == 0 ? 9 : upSlot - 1;
+    }
+
+    private static String[][] cells(String[] rows){
+        String[][] out = new String[rows.length][];
+        for(int i = 0; i < rows.length; i++) out[i] = rows[i].trim().split("\\s+");
+        return out;
+    }
+
+    // Rules that decide between an action and its fallback are settled here, once
+    private byte entry(String cell){
+        switch(cell){
+            case "H":  return pack(Action.HIT, Action.HIT);
+            case "S":  return pack(Action.STAND, Action.STAND);
+            case "D":  return pack(Action.DOUBLE, Action.HIT);
+            case "Ds": return pack(Action.DOUBLE, Action.STAND);
+            case "P":  return pack(Action.SPLIT, Action.SPLIT);
+            case "Ph": return doubleAfterSplit ? pack(Action.SPLIT, Action.SPLIT) : pack(Action.HIT, Action.HIT);
+            case "Rh": return lateSurrender ? pack(Action.SURRENDER, Action.HIT) : pack(Action.HIT, Action.HIT);
+            case "Rs": return lateSurrender ? pack(Action.SURRENDER, Action.STAND) : pack(Action.STAND, Action.STAND);
+            case "Rp": return lateSurrender ? pack(Action.SURRENDER, Action.SPLIT) : pack(Action.SPLIT, Action.SPLIT);
+            case "-":  return NO_SPLIT;
+            default: throw new IllegalStateException("Bad chart cell " + cell);
+        }
+    }
+
+    private static byte pack(Action a, Action fallback){
+        return (byte) (fallback.ordinal() << ACTION_BITS | a.ordinal());
+    }
+
+    // ===============================================================================================
+    // SPEC
+    // ===============================================================================================
+
+    public static TableRules parse(String spec){
+        String[] tokens = spec.trim().toUpperCase(Locale.ROOT).split("[\\s,]+");
+        TableRules base = CLASSIC;
+        int from = 0;
+        for(TableRules p : PRESETS){
+            if(p.name.equals(tokens[0])){
+                base = p;
+                from = 1;
+            }
+        }
+        if(from == tokens.length) return base;
+
+        boolean h17 = base.hitSoft17, das = base.doubleAfterSplit, rsa = base.resplitAces;
+        boolean ls = base.lateSurrender, ins = base.insurance, peek = base.peek;
+        int wins = base.blackjackWins, stakes = base.blackjackStakes, dbl = base.doubleOn, hands = base.maxHands;
+
+        for(int i = from; i < tokens.length; i++){
+            String t = tokens[i];
+            if(t.isEmpty()) continue;
+            switch(t){
+                case "S17": h17 = false; break;
+                case "H17": h17 = true; break;
+                case "DA": dbl = DOUBLE_ANY; break;
+                case "D9": dbl = DOUBLE_9_11; break;
+                case "D10": dbl = DOUBLE_10_11; break;
+                case "DAS": das = true; break;
+                case "NDAS": das = false; break;
+                case "NS": hands = 1; break;
+                case "RSA": rsa = true; break;
+                case "NRSA": rsa = false; break;
+                case "LS": ls = true; break;
+                case "NLS": ls = false; break;
+                case "INS": ins = true; break;
+                case "NINS": ins = false; break;
+                case "PEEK": peek = true; break;
+                case "ENHC": peek = false; break;
+                default:
+                    try {
+                        if(t.startsWith("SP")){
+                            hands = Integer.parseInt(t.substring(2));
+                        } else if(t.contains(":")){
+                            wins = Integer.parseInt(t.substring(0, t.indexOf(':')));
+                            stakes = Integer.parseInt(t.substring(t.indexOf(':') + 1));
+                        } else {
+                            throw new IllegalArgumentException("Unknown rule " + t);
+                        }
+                    } catch(NumberFormatException ex){
+                        throw new IllegalArgumentException("Bad rule " + t);
+                    }
+            }
+        }
+        return new TableRules(spec.trim(), h17, wins, stakes, dbl, das, hands, rsa, ls, ins, peek);
+    }
+
+    // Full spec; parse(spec()) gives the same rules
+    public String spec(){
+        return (hitSoft17 ? "H17" : "S17")
+                + " " + blackjackWins + ":" + blackjackStakes
+                + " " + DOUBLE_NAMES[doubleOn]
+                + (doubleAfterSplit ? " DAS" : " NDAS")
+                + (maxHands == 1 ? " NS" : " SP" + maxHands)
+                + (resplitAces ? " RSA" : " NRSA")
+                + (lateSurrender ? " LS" : " NLS")
+                + (insurance ? " INS" : " NINS")
+                + (peek ? " PEEK" : " ENHC");
+    }
+
+    @Override
+    public String toString(){
+        return name + " (" + spec() + ")";
+    }
+}
@@ -0,0 +1,408 @@
+package blackjack;
+
+import blackjack.CardModel.Card;
+import blackjack.CardModel.Shoe;
+import blackjack.RoundEngine.Outcome;
+import blackjack.RoundEngine.Phase;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.random.RandomGenerator;
+
+// Hosts many independent tables from one JVM over a line-based TCP protocol.
+// Each connection is one seat at its own table: its own RoundEngine, shoe and
+// balance, touched only by the connection's thread, so tables share nothing
+// but two counters. Connections run on virtual threads when the runtime has
+// them (Java 21+) and on small-stack platform threads otherwise.
+//
+// One request per line, one reply per line:
+//
+//   BET n       DEAL p1 p2 up total      or INSURANCE p1 p2 up total, or END (natural)
+//   INSURE      DEAL p1 p2 up total      or END (dealer blackjack)
+//   NOINSURE    same
+//   HIT         CARD code total          or HAND / END when the hand busts
+//   DOUBLE      HAND or END
+//   STAND       HAND or END
+//   SPLIT       HAND
+//   SURRENDER   END
+//   RULES spec  RULES spec               this table's TableRules from now on; RULES alone reports them
+//   BALANCE     BALANCE n
+//   REFILL      BALANCE n                back to the starting balance
+//   QUIT        closes the connection
+//
+//   HAND i c1 c2 total                   hand i of a split is now in play
+//   END outcome net balance dealer-total
+//
+// Cards are CardModel codes. A request out of turn gets "ERR message".
+public class TableServer {
+
+    public static final int DEFAULT_PORT = 7021;
+    private static final int BACKLOG = 4096;
+    private static final int PLATFORM_STACK = 256 * 1024;
+
+    private final ServerSocket server;
+    private final int startBalance;
+    private final TableRules rules;                                     // until a table asks for others
+    private final RandomGenerator seeds = Rngs.create(Rngs.DEFAULT);     // accept thread only
+
+    private final LongAdder rounds = new LongAdder();
+    private final AtomicInteger tables = new AtomicInteger();
+    private volatile boolean closed;
+
+    public TableServer(int port, int startBalance) throws IOException {
+        this(port, startBalance, TableRules.CLASSIC);
+    }
+
+    public TableServer(int port, int startBalance, TableRules rules) throws IOException {
+        server = new ServerSocket();
+        server.setReuseAddress(true);
+        server.bind(new InetSocketAddress(port), BACKLOG);
+        this.startBalance = startBalance;
+        this.rules = rules;
+    }
+
+    public int port(){ return server.getLocalPort(); }
+    public long rounds(){ return rounds.sum(); }
+    public int tables(){ return tables.get(); }
+
+    // Accept until close(); call on a thread of its own
+    public void serve(){
+        while(!closed){
+            try {
+                Socket s = server.accept();
+                s.setTcpNoDelay(true);
+                RandomGenerator stream = Rngs.streams(seeds, 1)[0];
+                spawn("table", () -> seat(s, stream));
+            } catch(IOException ex){
+                if(!closed) System.err.println("Accept failed: " + ex);
+            }
+        }
+    }
+
+    public void close(){
+        closed = true;
+        try {
+            server.close();
+        } catch(IOException ignored){
+        }
+    }
+
+    // ===============================================================================================
+    // THREADS
+    // ===============================================================================================
+
+    // Thread.startVirtualThread from Java 21, where virtual threads are final
+    // (on 19 and 20 they are a preview and throw without --enable-preview).
+    // Looked up reflectively so this still compiles for the Java 17 baseline.
+    private static final Method START_VIRTUAL = findStartVirtual();
+
+    private static Method findStartVirtual(){
+        if(Runtime.version().feature() < 21) return null;
+        try {
+            return Thread.class.getMethod("startVirtualThread", Runnable.class);
+        } catch(NoSuchMethodException ex){
+            return null;
+        }
+    }
+
+    public static boolean virtualThreads(){
+        return START_VIRTUAL != null;
+    }
+
+    // Start a task on a virtual thread, or on a daemon platform thread with a small stack
+    static Thread spawn(String name, Runnable task){
+        if(START_VIRTUAL != null){
+            try {
+                return (Thread) START_VIRTUAL.invoke(null, task);
+            } catch(ReflectiveOperationException ex){
+                // fall through to a platform thread
+            }
+        }
+        Thread t = new Thread(null, task, name, PLATFORM_STACK);
+        t.setDaemon(true);
+        t.start();
+        return t;
+    }
+
+    // ===============================================================================================
+    // TABLE
+    // ===============================================================================================
+
+    private void seat(Socket socket, RandomGenerator random){
+        tables.incrementAndGet();
+        Table table = new Table(new RoundEngine(new Shoe(6, 0.75, random), rules), startBalance);
+
+        try(socket;
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII))){
+
+            StringBuilder reply = new StringBuilder(64);
+            String line;
+            while((line = in.readLine()) != null){
+                reply.setLength(0);
+                if(!table.handle(line.trim(), reply)) break;
+                out.append(reply).append('\n');
+                out.flush();
+            }
+        } catch(IOException ignored){
+            // client went away
+        } finally {
+            tables.decrementAndGet();
+        }
+    }
+
+    // Same round flow as EngineThread, answering in text instead of GameEvents.
+    // The engine's phase says which requests apply.
+    private class Table {
+        RoundEngine engine;
+        int balance;
+
+        Table(RoundEngine engine, int balance){
+            this.engine = engine;
+            this.balance = balance;
+        }
+
+        // Returns false on QUIT
+        boolean handle(String line, StringBuilder reply){
+            int space = line.indexOf(' ');
+            String cmd = space < 0 ? line : line.substring(0, space);
+
+            switch(cmd.toUpperCase()){
+                case "BET":
+                    bet(space < 0 ? "" : line.substring(space + 1).trim(), reply);
+                    break;
+                case "HIT":
+                    hit(reply);
+                    break;
+                case "DOUBLE":
+                    doubleDown(reply);
+                    break;
+                case "STAND":
+                    stand(reply);
+                    break;
+                case "SPLIT":
+                    split(reply);
+                    break;
+                case "SURRENDER":
+                    surrender(reply);
+                    break;
+                case "INSURE":
+                case "NOINSURE":
+                    insure(cmd.equalsIgnoreCase("INSURE"), reply);
+                    break;
+                case "RULES":
+                    rules(space < 0 ? "" : line.substring(space + 1).trim(), reply);
+                    break;
+                case "BALANCE":
+                    reply.append("BALANCE ").append(balance);
+                    break;
+                case "REFILL":
+                    if(inPlay()) reply.append("ERR hand in play");
+                    else reply.append("BALANCE ").append(balance = startBalance);
+                    break;
+                case "QUIT":
+                    return false;
+                default:
+                    reply.append("ERR unknown command ").append(cmd);
+            }
+            return true;
+        }
+
+        boolean inPlay(){
+            return engine.phase() == Phase.INSURANCE || engine.phase() == Phase.PLAYER_TURN;
+        }
+
+        // Same shoe, new rules; only between rounds
+        void rules(String spec, StringBuilder reply){
+            if(!spec.isEmpty()){
+                if(inPlay()){
+                    reply.append("ERR hand in play");
+                    return;
+                }
+                try {
+                    engine = new RoundEngine(engine.shoe(), TableRules.parse(spec));
+                } catch(IllegalArgumentException ex){
+                    reply.append("ERR ").append(ex.getMessage());
+                    return;
+                }
+            }
+            reply.append("RULES ").append(engine.rules().spec());
+        }
+
+        void bet(String arg, StringBuilder reply){
+            if(inPlay()){
+                reply.append("ERR hand in play");
+                return;
+            }
+
+            int bet;
+            try {
+                bet = Integer.parseInt(arg);
+            } catch(NumberFormatException ex){
+                reply.append("ERR bad bet");
+                return;
+            }
+            if(bet <= 0){
+                reply.append("ERR bad bet");
+                return;
+            }
+            if(bet > balance){
+                reply.append("ERR balance ").append(balance);
+                return;
+            }
+
+            engine.begin(bet);
+            balance -= bet;
+            engine.deal();
+            if(engine.isOver()) settle(engine.outcome(), reply);
+            else deal(engine.phase() == Phase.INSURANCE ? "INSURANCE " : "DEAL ", reply);
+        }
+
+        void deal(String kind, StringBuilder reply){
+            Hand p = engine.playerHand();
+            reply.append(kind).append(p.code(0)).append(' ').append(p.code(1)).append(' ')
+                    .append(engine.dealerHand().code(0)).append(' ').append(engine.playerTotal());
+        }
+
+        void insure(boolean take, StringBuilder reply){
+            if(engine.phase() != Phase.INSURANCE){
+                reply.append("ERR no insurance offered");
+                return;
+            }
+            if(take && balance < engine.bet() / 2){
+                reply.append("ERR balance ").append(balance);
+                return;
+            }
+            engine.insure(take);
+            balance -= engine.insurance();
+            if(engine.isOver()) settle(engine.outcome(), reply);
+            else deal("DEAL ", reply);
+        }
+
+        void hit(StringBuilder reply){
+            if(!engine.canHit()){
+                reply.append("ERR cannot hit");
+                return;
+            }
+            int hand = engine.currentHand();
+            Card c = engine.hit();
+            if(engine.phase() == Phase.PLAYER_TURN && engine.currentHand() == hand){
+                reply.append("CARD ").append(c.code).append(' ').append(engine.playerTotal());
+            } else {
+                next(reply);
+            }
+        }
+
+        void split(StringBuilder reply){
+            if(!engine.canSplit()){
+                reply.append("ERR cannot split");
+                return;
+            }
+            if(balance < engine.bet()){
+                reply.append("ERR balance ").append(balance);
+                return;
+            }
+            balance -= engine.bet();
+            engine.split();
+            next(reply);
+        }
+
+        void surrender(StringBuilder reply){
+            if(!engine.canSurrender()){
+                reply.append("ERR cannot surrender");
+                return;
+            }
+            engine.surrender();
+            next(reply);
+        }
+
+        // The hand now in play, or the dealer's turn and the settlement
+        void next(StringBuilder reply){
+            if(engine.phase() == Phase.DEALER_TURN) engine.playDealer();
+            if(engine.isOver()){
+                settle(engine.outcome(), reply);
+                return;
+            }
+            Hand p = engine.playerHand();
+            reply.append("HAND ").append(engine.currentHand()).append(' ').append(p.code(0)).append(' ')
+                    .append(p.code(1)).append(' ').append(engine.playerTotal());
+        }
+
+        void doubleDown(StringBuilder reply){
+            if(engine.phase() != Phase.PLAYER_TURN){
+                reply.append("ERR no hand in play");
+                return;
+            }
+            if(!engine.canDouble()){
+                reply.append("ERR cannot double");
+                return;
+            }
+            if(balance < engine.bet()){
+                reply.append("ERR balance ").append(balance);
+                return;
+            }
+            balance -= engine.bet();
+            engine.doubleDown();
+            next(reply);
+        }
+
+        void stand(StringBuilder reply){
+            if(engine.phase() != Phase.PLAYER_TURN){
+                reply.append("ERR no hand in play");
+                return;
+            }
+            engine.stand();
+            next(reply);
+        }
+
+        void settle(Outcome o, StringBuilder reply){
+            balance += engine.payout();
+            rounds.increment();
+            reply.append("END ").append(o.name()).append(' ').append(engine.net()).append(' ')
+                    .append(balance).append(' ').append(engine.dealerTotal());
+        }
+    }
+
+    // ===============================================================================================
+    // MAIN
+    // ===============================================================================================
+
+    // java blackjack.TableServer [port] [start balance] [rules]
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int balance = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        TableRules rules = args.length > 2 ? TableRules.parse(args[2]) : TableRules.CLASSIC;
+
+        TableServer s = new TableServer(port, balance, rules);
+        System.out.printf("Serving tables on port %d (%s threads), rules %s%n", s.port(), virtualThreads() ? "virtual" : "platform", rules);
+
+        Thread report = new Thread(() -> {
+            long last = 0;
+            while(true){
+                try {
+                    Thread.sleep(5000);
+                } catch(InterruptedException ex){
+                    return;
+                }
+                long now = s.rounds();
+                System.out.printf("tables=%,d  rounds=%,d  %,.0f rounds/s%n", s.tables(), now, (now - last) / 5.0);
+                last = now;
+            }
+        }, "report");
+        report.setDaemon(true);
+        report.start();
+
+        s.serve();
+    }
+}
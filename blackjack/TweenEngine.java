@@ -0,0 +1,185 @@
+package blackjack;
+
+import javafx.animation.AnimationTimer;
+import javafx.scene.Node;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+// Minimal tween scheduler: one AnimationTimer drives every running tween and
+// tween objects are pooled, so dealing a card allocates no animation objects.
+// The timer only runs while something is in flight. FX thread only.
+public class TweenEngine {
+
+    // ===== Animated properties =====
+    public static final int TRANSLATE_X = 0;
+    public static final int TRANSLATE_Y = 1;
+    public static final int ROTATE = 2;
+    public static final int SCALE_X = 3;
+    public static final int OPACITY = 4;
+
+    // ===== Easing =====
+    public static final int LINEAR = 0;
+    public static final int EASE_OUT = 1;
+    public static final int EASE_BOTH = 2;
+
+    private static final class Tween {
+        Node node;
+        int property;
+        double from;
+        double to;
+        long queued;         // nanos of the first frame that saw it; the delay counts from here
+        long start;          // nanos; 0 until the first frame after the delay
+        long delay;
+        long duration;
+        int easing;
+        Runnable onFinish;
+    }
+
+    private final ArrayDeque<Tween> pool = new ArrayDeque<>();
+    private Tween[] active = new Tween[32];
+    private int activeCount;
+
+    private Tween[] finished = new Tween[32];
+
+    private boolean running;
+    private double speed = 1;
+
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now){
+            tick(now);
+        }
+    };
+
+    // Animate node.property from its value when the tween starts to `to`
+    public void to(Node node, int property, double to, double millis, double delayMillis,
+                   int easing, Runnable onFinish){
+        Tween t = pool.isEmpty() ? new Tween() : pool.pop();
+        t.node = node;
+        t.property = property;
+        t.to = to;
+        t.queued = 0;
+        t.start = 0;
+        t.delay = (long) (delayMillis / speed * 1_000_000);
+        t.duration = Math.max(1, (long) (millis / speed * 1_000_000));
+        t.easing = easing;
+        t.onFinish = onFinish;
+
+        if(activeCount == active.length) active = Arrays.copyOf(active, activeCount * 2);
+        active[activeCount++] = t;
+
+        if(!running){
+            running = true;
+            timer.start();
+        }
+    }
+
+    // Playback rate for tweens scheduled from now on; 2 runs them twice as fast
+    public void setSpeed(double speed){
+        this.speed = speed;
+    }
+
+    // Jump every tween to its end value and run the callbacks, including those
+    // of tweens the callbacks start along the way
+    public void finishAll(){
+        while(activeCount > 0){
+            int done = activeCount;
+            if(finished.length < done) finished = Arrays.copyOf(finished, done);
+            System.arraycopy(active, 0, finished, 0, done);
+            Arrays.fill(active, 0, done, null);
+            activeCount = 0;
+
+            for(int i = 0; i < done; i++){
+                Tween t = finished[i];
+                finished[i] = null;
+                set(t.node, t.property, t.to);
+
+                Runnable cb = t.onFinish;
+                t.node = null;
+                t.onFinish = null;
+                pool.push(t);
+
+                if(cb != null) cb.run();
+            }
+        }
+        timer.stop();
+        running = false;
+    }
+
+    // Tweens currently scheduled or running
+    public int inFlight(){
+        return activeCount;
+    }
+
+    private void tick(long now){
+        int done = 0;
+
+        for(int i = 0; i < activeCount; i++){
+            Tween t = active[i];
+
+            if(t.start == 0){
+                if(t.queued == 0) t.queued = now;
+                if(now - t.queued < t.delay) continue;
+                t.start = now;
+                t.from = get(t.node, t.property);
+            }
+
+            double f = Math.min(1.0, (double) (now - t.start) / t.duration);
+            set(t.node, t.property, t.from + (t.to - t.from) * ease(t.easing, f));
+
+            if(f >= 1.0){
+                if(done == finished.length) finished = Arrays.copyOf(finished, done * 2);
+                finished[done++] = t;
+                active[i--] = active[--activeCount];
+                active[activeCount] = null;
+            }
+        }
+
+        // Callbacks may schedule new tweens, so run them after the sweep
+        for(int i = 0; i < done; i++){
+            Tween t = finished[i];
+            finished[i] = null;
+
+            Runnable cb = t.onFinish;
+            t.node = null;
+            t.onFinish = null;
+            pool.push(t);
+
+            if(cb != null) cb.run();
+        }
+
+        if(activeCount == 0){
+            timer.stop();
+            running = false;
+        }
+    }
+
+    private static double ease(int easing, double f){
+        switch(easing){
+            case EASE_OUT: return 1 - (1 - f) * (1 - f);
+            case EASE_BOTH: return f * f * (3 - 2 * f);
+            default: return f;
+        }
+    }
+
+    private static double get(Node n, int property){
+        switch(property){
+            case TRANSLATE_X: return n.getTranslateX();
+            case TRANSLATE_Y: return n.getTranslateY();
+            case ROTATE: return n.getRotate();
+            case SCALE_X: return n.getScaleX();
+            default: return n.getOpacity();
+        }
+    }
+
+    private static void set(Node n, int property, double v){
+        switch(property){
+            case TRANSLATE_X: n.setTranslateX(v); break;
+            case TRANSLATE_Y: n.setTranslateY(v); break;
+            case ROTATE: n.setRotate(v); break;
+            case SCALE_X: n.setScaleX(v); break;
+            default: n.setOpacity(v);
+        }
+    }
+}
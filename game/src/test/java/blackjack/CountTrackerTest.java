@@ -0,0 +1,89 @@
+package blackjack;
+
+import blackjack.CardModel.Shoe;
+import blackjack.CountTracker.CountSystem;
+import blackjack.RoundEngine.Phase;
+import org.junit.jupiter.api.Test;
+
+import static blackjack.StackedShoe.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CountTrackerTest {
+
+    // Each lane must match a plain per-system sum, negative ones included
+    @Test
+    void lanesMatchPlainSums(){
+        Shoe shoe = new Shoe(6, 1.0, Rngs.DEFAULT, 3);
+        CountTracker t = new CountTracker(6);
+        shoe.setTracker(t);
+
+        int[] sums = new int[CountSystem.values().length];
+        for(CountSystem s : CountSystem.values()) sums[s.ordinal()] = s.initial(6);
+
+        for(int i = 0; i < shoe.capacity(); i++){
+            int code = shoe.drawCode();
+            for(CountSystem s : CountSystem.values()){
+                sums[s.ordinal()] += s.tag(code);
+                assertEquals(sums[s.ordinal()], t.running(s), s.label + " after " + (i + 1) + " cards");
+            }
+        }
+        assertEquals(0, t.unseen());
+    }
+
+    @Test
+    void fullShoeCountsBackToItsPivot(){
+        Shoe shoe = new Shoe(8, 1.0, Rngs.DEFAULT, 11);
+        CountTracker t = new CountTracker(8);
+        shoe.setTracker(t);
+        assertEquals(-28, t.running(CountSystem.KO));
+
+        for(int i = 0; i < shoe.capacity(); i++) shoe.drawCode();
+        assertEquals(0, t.running(CountSystem.HI_LO));
+        assertEquals(0, t.running(CountSystem.OMEGA_II));
+        assertEquals(4, t.running(CountSystem.KO));
+    }
+
+    @Test
+    void lanesHoldTheirExtremes(){
+        CountTracker t = new CountTracker(1);
+        for(int i = 0; i < 20; i++) t.seen(KING);         // Hi-Lo -20, KO -20, Omega II -40
+        assertEquals(-20, t.running(CountSystem.HI_LO));
+        assertEquals(-20, t.running(CountSystem.KO));
+        assertEquals(-40, t.running(CountSystem.OMEGA_II));
+
+        for(int i = 0; i < 40; i++) t.seen(FIVE);          // Hi-Lo +20, KO +20, Omega II +40
+        assertEquals(20, t.running(CountSystem.HI_LO));
+        assertEquals(20, t.running(CountSystem.KO));
+        assertEquals(40, t.running(CountSystem.OMEGA_II));
+    }
+
+    @Test
+    void trueCountIsPerDeckLeft(){
+        CountTracker t = new CountTracker(2);
+        for(int i = 0; i < 26; i++) t.seen(TWO);
+        assertEquals(26 / 1.5, t.trueCount(CountSystem.HI_LO), 1e-9);
+        assertEquals(t.running(CountSystem.KO), t.trueCount(CountSystem.KO), 1e-9);
+    }
+
+    // The hole card stays out of the count the player sees until it is turned
+    @Test
+    void stampLeavesOutTheHoleCard(){
+        Shoe shoe = StackedShoe.of(TEN, NINE, SEVEN, FIVE);
+        CountTracker t = new CountTracker(shoe.decks());
+        shoe.setTracker(t);
+        RoundEngine r = new RoundEngine(shoe, TableRules.CLASSIC);
+        r.begin(100);
+        r.deal();
+        assertEquals(Phase.PLAYER_TURN, r.phase());
+
+        GameEvent e = new GameEvent(GameEvent.DECISION);
+        t.stamp(e, r);
+        assertEquals(-1, CountTracker.running(e.count, CountSystem.HI_LO));    // 10 and 9 seen, the 5 is not
+        assertEquals(t.unseen() + 1, e.countUnseen);
+
+        r.stand();
+        t.stamp(e, r);
+        assertEquals(0, CountTracker.running(e.count, CountSystem.HI_LO));
+        assertEquals(t.unseen(), e.countUnseen);
+    }
+}
@@ -0,0 +1,77 @@
+package blackjack;
+
+import org.junit.jupiter.api.Test;
+
+import static blackjack.StackedShoe.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class DealerOddsTest {
+
+    private static final int SLOT_A = 0;
+    private static final int SLOT_TEN = 9;
+    private static final int SLOT_17 = 0;
+    private static final int SLOT_21 = 4;
+
+    // Six decks less the ace upcard, per composition slot
+    private static int[] sixDecksUnderAnAce(){
+        int[] unseen = new int[CardModel.VALUES];
+        for(int v = 0; v < CardModel.VALUES; v++) unseen[v] = 6 * (v == SLOT_TEN ? 16 : 4);
+        unseen[SLOT_A]--;
+        return unseen;
+    }
+
+    // A up over a 10, 6 or 5, S17. Unpeeked: 21, 17, or A,5 draws on to bust.
+    // Peeked: the 10 is ruled out and the 6 and 5 share the hole card evenly.
+    @Test
+    void peekRulesOutTheNaturalHoleCard(){
+        int[] unseen = new int[CardModel.VALUES];
+        unseen[SLOT_TEN] = 1;
+        unseen[SIX] = 1;
+        unseen[FIVE] = 1;
+        DealerOdds odds = new DealerOdds(TableRules.CLASSIC);
+
+        double[] open = odds.finalTotals(SLOT_A, unseen, false);
+        assertEquals(1.0 / 3, open[SLOT_21], 1e-12);
+        assertEquals(1.0 / 3, open[SLOT_17], 1e-12);
+        assertEquals(1.0 / 3, open[DealerOdds.BUST], 1e-12);
+
+        double[] peeked = odds.finalTotals(SLOT_A, unseen, true);
+        assertEquals(0.0, peeked[SLOT_21], 1e-12);
+        assertEquals(0.5, peeked[SLOT_17], 1e-12);
+        assertEquals(0.5, peeked[DealerOdds.BUST], 1e-12);
+    }
+
+    // A natural never busts, so the peek scales bust by 1 / P(no ten in the hole),
+    // and takes exactly the naturals out of 21
+    @Test
+    void peekedBustUnderAnAceIsConditionedOnNoNatural(){
+        int[] unseen = sixDecksUnderAnAce();
+        int left = 6 * 52 - 1;
+        double ten = 96.0 / left;
+        DealerOdds odds = new DealerOdds(TableRules.VEGAS);
+
+        double[] open = odds.finalTotals(SLOT_A, unseen, false);
+        double[] peeked = odds.finalTotals(SLOT_A, unseen);
+        assertEquals(open[DealerOdds.BUST] / (1 - ten), peeked[DealerOdds.BUST], 1e-12);
+        assertEquals((open[SLOT_21] - ten) / (1 - ten), peeked[SLOT_21], 1e-12);
+
+        // Six decks, S17, ace up: about 11.7% bust in all, 16.9% once a natural is ruled out
+        assertEquals(0.117, open[DealerOdds.BUST], 0.002);
+        assertEquals(0.169, peeked[DealerOdds.BUST], 0.002);
+    }
+
+    @Test
+    void peekedAndOpenResultsAreCachedApart(){
+        int[] unseen = sixDecksUnderAnAce();
+        DealerOdds odds = new DealerOdds(TableRules.VEGAS);
+        double[] peeked = odds.finalTotals(SLOT_A, unseen, true);
+        double[] open = odds.finalTotals(SLOT_A, unseen, false);
+        assertEquals(2, odds.misses());
+        assertSame(peeked, odds.finalTotals(SLOT_A, unseen, true));
+        assertSame(open, odds.finalTotals(SLOT_A, unseen, false));
+
+        // Other upcards have no natural to rule out
+        assertSame(odds.finalTotals(SIX, unseen, false), odds.finalTotals(SIX, unseen, true));
+    }
+}
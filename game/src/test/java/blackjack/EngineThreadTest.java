@@ -0,0 +1,107 @@
+package blackjack;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The table disables its buttons after every command and waits for the engine,
+// so a command the round does not allow must still be answered
+class EngineThreadTest {
+
+    private static final long TIMEOUT_NANOS = 5_000_000_000L;
+
+    private final EngineThread engine = new EngineThread(1_000_000, 42, TableRules.CLASSIC, () -> {}, null, null, null);
+    private final ArrayDeque<GameEvent> received = new ArrayDeque<>();
+
+    // The next DECISION, OUTCOME or NOTICE; cards and the rest are skipped
+    private GameEvent answer(){
+        long deadline = System.nanoTime() + TIMEOUT_NANOS;
+        while(System.nanoTime() < deadline){
+            engine.drain(received::add);
+            GameEvent e;
+            while((e = received.poll()) != null){
+                if(e.type == GameEvent.DECISION || e.type == GameEvent.OUTCOME || e.type == GameEvent.NOTICE) return e;
+            }
+            Thread.onSpinWait();
+        }
+        return null;
+    }
+
+    // Deal until a round waits on the player
+    private GameEvent decision(){
+        for(int i = 0; i < 50; i++){
+            engine.deal(100);
+            GameEvent e = answer();
+            assertNotNull(e);
+            if(e.type == GameEvent.DECISION) return e;
+        }
+        throw new AssertionError("No round reached a decision");
+    }
+
+    @Test
+    void disallowedSurrenderAsksAgain(){
+        GameEvent first = decision();
+        assertFalse(first.canSurrender);
+
+        engine.surrender();
+        GameEvent e = answer();
+        assertNotNull(e);
+        assertEquals(GameEvent.DECISION, e.type);
+    }
+
+    @Test
+    void noDoubleOnThreeCardsAndAskedAgain(){
+        for(int i = 0; i < 50; i++){
+            assertTrue(decision().canDouble);
+            engine.hit();
+            GameEvent e = answer();
+            assertNotNull(e);
+            if(e.type != GameEvent.DECISION) continue;     // bust, next round
+
+            assertFalse(e.canDouble);
+            engine.doubleDown();
+            GameEvent again = answer();
+            assertNotNull(again);
+            assertEquals(GameEvent.DECISION, again.type);
+            return;
+        }
+        throw new AssertionError("Every hit went bust");
+    }
+
+    @Test
+    void shutdownStopsTurboBeforeTheJournalCloses(@TempDir Path dir) throws Exception {
+        RoundJournal journal = RoundJournal.open(dir, 1_000_000);
+        EngineThread t = new EngineThread(1_000_000, 7, TableRules.CLASSIC, () -> {}, journal, null, null);
+        t.startTurbo(Strategies.BASIC, 0, 1);
+        Thread.sleep(200);
+        t.shutdown();
+
+        long first = records(dir);
+        Thread.sleep(300);
+        assertTrue(first > 0);
+        assertEquals(first, records(dir));
+    }
+
+    private static long records(Path dir) throws IOException {
+        RoundJournal j = RoundJournal.open(dir, 0);
+        long n = j.totals().records;
+        j.close();
+        return n;
+    }
+
+    @Test
+    void commandBetweenRoundsGetsANotice(){
+        engine.stand();
+        GameEvent e = answer();
+        assertNotNull(e);
+        assertEquals(GameEvent.NOTICE, e.type);
+    }
+}
@@ -0,0 +1,164 @@
+package blackjack;
+
+import blackjack.CardModel.Shoe;
+import blackjack.RoundEngine.Outcome;
+import blackjack.RoundEngine.Phase;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static blackjack.StackedShoe.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HandHistoryTest {
+
+    @TempDir
+    Path dir;
+
+    // What the reader should give back for one round
+    private static final class Round {
+        int bet, net, shoe;
+        boolean insured;
+        Outcome outcome;
+        Outcome[] outcomes;
+        int[][] player;
+        int[] dealer;
+    }
+
+    private static Round expected(RoundEngine r, int bet, int shoe){
+        Round x = new Round();
+        x.bet = bet;
+        x.net = r.net();
+        x.shoe = shoe;
+        x.insured = r.insurance() > 0;
+        x.outcome = r.outcome();
+        x.outcomes = new Outcome[r.hands()];
+        x.player = new int[r.hands()][];
+        for(int h = 0; h < r.hands(); h++){
+            x.outcomes[h] = r.hands() > 1 ? r.outcome(h) : r.outcome();
+            x.player[h] = codes(r.hand(h));
+        }
+        x.dealer = codes(r.dealerHand());
+        return x;
+    }
+
+    private static int[] codes(Hand hand){
+        int[] c = new int[hand.size()];
+        for(int k = 0; k < c.length; k++) c[k] = hand.code(k);
+        return c;
+    }
+
+    // Basic strategy with insurance taken at random, so every end code turns up
+    private static List<Round> play(RoundEngine r, int rounds){
+        SplittableRandom random = new SplittableRandom(7);
+        List<Round> played = new ArrayList<>();
+        for(int i = 0; i < rounds; i++){
+            int bet = 10 * (1 + random.nextInt(5));
+            r.begin(bet);
+            int shoe = r.shoe().size();         // after any reshuffle, as the writer sees it
+            r.deal();
+            if(r.phase() == Phase.INSURANCE) r.insure(random.nextBoolean());
+            while(r.phase() == Phase.PLAYER_TURN){
+                switch(Strategies.BASIC.decide(r)){
+                    case HIT: if(r.canHit()) r.hit(); else r.stand(); break;
+                    case DOUBLE: r.doubleDown(); break;
+                    case SPLIT: r.split(); break;
+                    case SURRENDER: r.surrender(); break;
+                    default: r.stand();
+                }
+            }
+            if(r.phase() == Phase.DEALER_TURN) r.playDealer();
+            played.add(expected(r, bet, shoe));
+        }
+        return played;
+    }
+
+    @Test
+    void roundTripsEveryRound() throws IOException {
+        Path file = dir.resolve("hands.bjh");
+        HandHistoryWriter w = new HandHistoryWriter(file);
+        RoundEngine r = new RoundEngine(new Shoe(6, 0.75, Rngs.DEFAULT, 42), TableRules.parse("VEGAS H17"));
+        r.setRecorder(w);
+        List<Round> played = play(r, HandHistoryWriter.BLOCK_HANDS + 5000);     // more than one block
+        w.close();
+
+        int[] ends = new int[8];
+        int n = 0;
+        try(HandHistoryReader in = new HandHistoryReader(file)){
+            while(in.next()){
+                for(int i = 0; i < in.hands(); i++, n++){
+                    Round x = played.get(n);
+                    assertEquals(x.bet, in.bet(i));
+                    assertEquals(x.shoe, in.shoeRemaining(i));
+                    assertEquals(x.net, in.net(i));
+                    assertEquals(x.outcome, in.outcome(i));
+                    assertEquals(x.insured, in.insured(i));
+                    assertEquals(x.player.length, in.playerHands(i));
+                    for(int h = 0; h < x.player.length; h++){
+                        assertEquals(x.outcomes[h], in.handOutcome(i, h));
+                        assertEquals(x.player[h].length, in.handCards(i, h));
+                        for(int k = 0; k < x.player[h].length; k++) assertEquals(x.player[h][k], in.handCard(i, h, k));
+                    }
+                    assertEquals(x.dealer.length, in.dealerCards(i));
+                    for(int k = 0; k < x.dealer.length; k++) assertEquals(x.dealer[k], in.dealerCard(i, k));
+                    ends[in.end(i)]++;
+                }
+            }
+        }
+        assertEquals(played.size(), n);
+        assertEquals(played.size(), w.hands());
+        for(int end = HandHistoryWriter.NATURAL; end <= HandHistoryWriter.SPLIT; end++){
+            assertTrue(ends[end] > 0, "no round ended with " + end);
+        }
+    }
+
+    @Test
+    void splitHandsKeepTheirOwnEnds() throws IOException {
+        // 8,8 v 10,7: the first hand doubles on 8,3 and draws 10, the second stands on 8,10
+        Path file = dir.resolve("split.bjh");
+        HandHistoryWriter w = new HandHistoryWriter(file);
+        RoundEngine r = new RoundEngine(StackedShoe.of(EIGHT, TEN, EIGHT, SEVEN, THREE, TEN, TEN), TableRules.VEGAS);
+        r.setRecorder(w);
+        r.begin(100);
+        r.deal();
+        r.split();
+        r.doubleDown();
+        r.stand();
+        r.playDealer();
+        w.close();
+
+        try(HandHistoryReader in = new HandHistoryReader(file)){
+            assertTrue(in.next());
+            assertEquals(1, in.hands());
+            assertEquals(HandHistoryWriter.SPLIT, in.end(0));
+            assertEquals(2, in.playerHands(0));
+            assertEquals(HandHistoryWriter.DOUBLE, in.handEnd(0, 0));
+            assertEquals(HandHistoryWriter.STAND, in.handEnd(0, 1));
+            assertEquals(3, in.handCards(0, 0));
+            assertEquals(EIGHT, in.handCard(0, 1, 0));
+            assertEquals(TEN, in.handCard(0, 1, 1));
+            assertEquals(300, in.net(0));
+            assertFalse(in.next());
+        }
+    }
+
+    @Test
+    void rejectsAnUnknownVersion() throws IOException {
+        Path file = dir.resolve("future.bjh");
+        try(DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))){
+            out.writeInt(HandHistoryWriter.FILE_MAGIC);
+            out.writeInt(HandHistoryWriter.VERSION + 1);
+        }
+        assertThrows(IOException.class, () -> new HandHistoryReader(file));
+    }
+}
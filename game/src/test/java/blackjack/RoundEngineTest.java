@@ -0,0 +1,236 @@
+package blackjack;
+
+import blackjack.RoundEngine.Outcome;
+import blackjack.RoundEngine.Phase;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static blackjack.StackedShoe.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Deal order is P1, D1, P2, D2, then the player's draws, then the dealer's
+class RoundEngineTest {
+
+    private static RoundEngine engine(TableRules rules, int... codes){
+        return new RoundEngine(StackedShoe.of(codes), rules);
+    }
+
+    private static List<Phase> phases(RoundEngine r){
+        List<Phase> seen = new ArrayList<>();
+        r.setRecorder((round, event) -> {
+            if(RoundEvent.kind(event) == RoundEvent.PHASE) seen.add(RoundEvent.phase(event));
+        });
+        return seen;
+    }
+
+    // ===== Phase transitions =====
+
+    @Test
+    void plainRoundWalksEveryPhase(){
+        RoundEngine r = engine(TableRules.CLASSIC, TEN, NINE, SEVEN, EIGHT);
+        List<Phase> seen = phases(r);
+        assertEquals(Phase.BETTING, r.phase());
+
+        r.begin(100);
+        r.deal();
+        assertEquals(Phase.PLAYER_TURN, r.phase());
+        r.stand();
+        assertEquals(Phase.DEALER_TURN, r.phase());
+        assertEquals(Outcome.PUSH, r.playDealer());
+
+        assertEquals(List.of(Phase.DEALING, Phase.PLAYER_TURN, Phase.DEALER_TURN, Phase.SETTLED), seen);
+        assertEquals(0, r.net());
+    }
+
+    @Test
+    void naturalSettlesOnTheDeal(){
+        RoundEngine r = engine(TableRules.CLASSIC, A, NINE, KING, EIGHT);
+        r.begin(100);
+        r.deal();
+        assertTrue(r.isOver());
+        assertEquals(Outcome.BLACKJACK, r.outcome());
+        assertEquals(150, r.net());
+    }
+
+    @Test
+    void bustEndsTheRoundWithoutTheDealer(){
+        RoundEngine r = engine(TableRules.CLASSIC, TEN, NINE, SIX, EIGHT, KING);
+        List<Phase> seen = phases(r);
+        r.begin(100);
+        r.deal();
+        r.hit();
+        assertEquals(Outcome.PLAYER_BUST, r.outcome());
+        assertFalse(seen.contains(Phase.DEALER_TURN));
+        assertEquals(2, r.dealerHand().size());
+    }
+
+    @Test
+    void stepsOutOfPhaseThrow(){
+        RoundEngine r = engine(TableRules.CLASSIC, TEN, NINE, SEVEN, EIGHT);
+        assertThrows(IllegalStateException.class, r::hit);
+        assertThrows(IllegalStateException.class, r::deal);
+
+        r.begin(100);
+        assertThrows(IllegalStateException.class, () -> r.begin(100));
+        r.deal();
+        assertThrows(IllegalStateException.class, () -> r.insure(true));
+        r.stand();
+        assertThrows(IllegalStateException.class, r::stand);
+        assertThrows(IllegalStateException.class, r::doubleDown);
+    }
+
+    // ===== What the player may do =====
+
+    @Test
+    void doubleOnlyOnTheFirstTwoCards(){
+        RoundEngine r = engine(TableRules.CLASSIC, TEN, NINE, TWO, EIGHT, THREE);
+        r.begin(100);
+        r.deal();
+        assertTrue(r.canDouble());
+        r.hit();
+        assertEquals(Phase.PLAYER_TURN, r.phase());
+        assertFalse(r.canDouble());
+        assertThrows(IllegalStateException.class, r::doubleDown);
+    }
+
+    @Test
+    void doubleFollowsTheRules(){
+        RoundEngine r = engine(TableRules.parse("D10"), FIVE, NINE, FOUR, EIGHT);
+        r.begin(100);
+        r.deal();
+        assertFalse(r.canDouble());         // hard 9
+    }
+
+    @Test
+    void doubleTakesOneCardAndDoublesTheStake(){
+        RoundEngine r = engine(TableRules.CLASSIC, SIX, NINE, FIVE, EIGHT, TEN);
+        r.begin(100);
+        r.deal();
+        r.doubleDown();
+        assertEquals(Phase.DEALER_TURN, r.phase());
+        assertEquals(200, r.staked());
+        assertEquals(Outcome.WIN, r.playDealer());
+        assertEquals(200, r.net());
+    }
+
+    @Test
+    void surrenderReturnsHalf(){
+        RoundEngine r = engine(TableRules.VEGAS, TEN, NINE, SIX, SEVEN, TWO);
+        r.begin(100);
+        r.deal();
+        assertTrue(r.canSurrender());
+        r.surrender();
+        assertEquals(Outcome.SURRENDER, r.outcome());
+        assertEquals(-50, r.net());
+    }
+
+    @Test
+    void noSurrenderAfterAHitOrWithoutTheRule(){
+        RoundEngine r = engine(TableRules.VEGAS, TEN, NINE, TWO, SEVEN, TWO);
+        r.begin(100);
+        r.deal();
+        r.hit();
+        assertFalse(r.canSurrender());
+
+        RoundEngine classic = engine(TableRules.CLASSIC, TEN, NINE, SIX, SEVEN);
+        classic.begin(100);
+        classic.deal();
+        assertFalse(classic.canSurrender());
+    }
+
+    // ===== Insurance and the peek =====
+
+    @Test
+    void insuranceAgainstADealerBlackjackBreaksEven(){
+        RoundEngine r = engine(TableRules.VEGAS, TEN, A, NINE, KING);
+        r.begin(100);
+        r.deal();
+        assertEquals(Phase.INSURANCE, r.phase());
+        r.insure(true);
+        assertEquals(Outcome.DEALER_BLACKJACK, r.outcome());
+        assertEquals(150, r.staked());
+        assertEquals(0, r.net());
+    }
+
+    @Test
+    void declinedInsuranceWithoutADealerBlackjackPlaysOn(){
+        RoundEngine r = engine(TableRules.VEGAS, TEN, A, NINE, SEVEN);
+        r.begin(100);
+        r.deal();
+        r.insure(false);
+        assertEquals(Phase.PLAYER_TURN, r.phase());
+        assertEquals(0, r.insurance());
+    }
+
+    @Test
+    void peekEndsTheRoundUnderATen(){
+        RoundEngine r = engine(TableRules.VEGAS, TEN, KING, NINE, A);
+        r.begin(100);
+        r.deal();
+        assertEquals(Outcome.DEALER_BLACKJACK, r.outcome());
+        assertEquals(-100, r.net());
+    }
+
+    // Without the peek the player acts first, but a three-card 21 still loses to A,K
+    @Test
+    void unpeekedNaturalBeatsAThreeCard21(){
+        RoundEngine r = engine(TableRules.CLASSIC, SEVEN, A, SEVEN, KING, SEVEN);
+        r.begin(100);
+        r.deal();
+        assertEquals(Phase.PLAYER_TURN, r.phase());
+        r.hit();
+        assertEquals(21, r.playerHand().total());
+        r.stand();
+        assertEquals(Outcome.DEALER_BLACKJACK, r.playDealer());
+        assertEquals(-100, r.net());
+
+        RoundEngine doubled = engine(TableRules.CLASSIC, SIX, A, FIVE, KING, TEN);
+        doubled.begin(100);
+        doubled.deal();
+        doubled.doubleDown();
+        assertEquals(Outcome.DEALER_BLACKJACK, doubled.playDealer());
+        assertEquals(-200, doubled.net());
+    }
+
+    // ===== Splits =====
+
+    @Test
+    void splitPlaysEachHandInTurn(){
+        // 8,8 v 10,7: the first hand draws 3 (11) and stands, the second draws 10 (18)
+        RoundEngine r = engine(TableRules.VEGAS, EIGHT, TEN, EIGHT, SEVEN, THREE, TEN);
+        r.begin(100);
+        r.deal();
+        assertTrue(r.canSplit());
+        r.split();
+        assertEquals(2, r.hands());
+        assertEquals(0, r.currentHand());
+        assertEquals(11, r.playerTotal());
+
+        r.stand();
+        assertEquals(Phase.PLAYER_TURN, r.phase());
+        assertEquals(1, r.currentHand());
+        assertEquals(18, r.playerTotal());
+
+        r.stand();
+        assertEquals(Phase.DEALER_TURN, r.phase());
+        r.playDealer();
+        assertEquals(Outcome.LOSS, r.outcome(0));
+        assertEquals(Outcome.WIN, r.outcome(1));
+        assertEquals(200, r.staked());
+        assertEquals(0, r.net());
+        assertEquals(Outcome.PUSH, r.outcome());
+    }
+
+    @Test
+    void noSplitWithoutTheRule(){
+        RoundEngine r = engine(TableRules.CLASSIC, EIGHT, TEN, EIGHT, SEVEN);
+        r.begin(100);
+        r.deal();
+        assertFalse(r.canSplit());
+    }
+}
@@ -0,0 +1,77 @@
+package blackjack;
+
+import blackjack.CardModel.Shoe;
+import blackjack.RoundEngine.Outcome;
+import blackjack.RoundEngine.Phase;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RoundReplayTest {
+
+    private static final int ROUNDS = 3000;
+
+    @Test
+    void replayReproducesEveryLoggedRound(){
+        RoundLog log = new RoundLog();
+        RoundEngine live = new RoundEngine(new Shoe(6, 0.75, Rngs.DEFAULT, 42), TableRules.parse("VEGAS H17"));
+        live.setRecorder(log);
+
+        // Basic strategy with varied bets and insurance, so splits, surrenders and insured rounds are logged
+        SplittableRandom random = new SplittableRandom(5);
+        Outcome[] outcomes = new Outcome[ROUNDS];
+        int[] nets = new int[ROUNDS];
+        for(int i = 0; i < ROUNDS; i++){
+            live.begin(10 * (1 + random.nextInt(10)));
+            live.deal();
+            if(live.phase() == Phase.INSURANCE) live.insure(random.nextBoolean());
+            while(live.phase() == Phase.PLAYER_TURN){
+                switch(Strategies.BASIC.decide(live)){
+                    case HIT: if(live.canHit()) live.hit(); else live.stand(); break;
+                    case DOUBLE: live.doubleDown(); break;
+                    case SPLIT: live.split(); break;
+                    case SURRENDER: live.surrender(); break;
+                    default: live.stand();
+                }
+            }
+            if(live.phase() == Phase.DEALER_TURN) live.playDealer();
+            outcomes[i] = live.outcome();
+            nets[i] = live.net();
+        }
+        assertEquals(ROUNDS, log.rounds());
+
+        // Newest first, so every round is reached by restoring its shoe rather than by playing on
+        RoundReplay replay = new RoundReplay(log);
+        int shuffles = 0;
+        for(int i = ROUNDS - 1; i >= 0; i--){
+            RoundEngine r = replay.play(i);
+            assertEquals(outcomes[i], r.outcome(), "round " + i);
+            assertEquals(nets[i], r.net(), "round " + i);
+            assertTrue(replay.verify(i), "round " + i);
+            if(log.shuffled(i)) shuffles++;
+        }
+        assertTrue(shuffles > 0);
+    }
+
+    @Test
+    void shuffleRoundReplaysOnItsOwn(){
+        RoundLog log = new RoundLog();
+        RoundEngine live = new RoundEngine(new Shoe(1, 0.5, Rngs.DEFAULT, 9), TableRules.CLASSIC);
+        live.setRecorder(log);
+        int first = -1;
+        for(int i = 0; i < 200 && first < 0; i++){
+            live.playRound(100, Strategies.BASIC);
+            if(log.shuffled(i)) first = i;
+        }
+        assertTrue(first > 0);
+        Outcome o = live.outcome();
+        int net = live.net();
+
+        RoundEngine r = new RoundReplay(log).play(first);
+        assertEquals(o, r.outcome());
+        assertEquals(net, r.net());
+    }
+}
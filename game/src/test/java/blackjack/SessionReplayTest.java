@@ -0,0 +1,97 @@
+package blackjack;
+
+import blackjack.CardModel.Shoe;
+import blackjack.RoundEngine.Phase;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SessionReplayTest {
+
+    private static final int ROUNDS = 3 * SessionRecorder.KEYFRAME_EVERY + 40;
+
+    @TempDir
+    Path dir;
+
+    // Rounds of basic strategy with insurance and a refill, recorded the way EngineThread does
+    private Path record() throws IOException {
+        Path file = dir.resolve("session.bjr");
+        SessionRecorder session = new SessionRecorder(file, 10_000);
+        RoundEngine engine = new RoundEngine(new Shoe(6, 0.75, Rngs.DEFAULT, 17), TableRules.VEGAS);
+        engine.setRecorder(session::event);
+        session.start(engine.shoe(), TableRules.VEGAS);
+
+        SplittableRandom random = new SplittableRandom(3);
+        for(int i = 0; i < ROUNDS; i++){
+            if(i == SessionRecorder.KEYFRAME_EVERY + 7) session.refill(5_000, engine.shoe());
+            engine.begin(10 * (1 + random.nextInt(10)));
+            engine.deal();
+            if(engine.phase() == Phase.INSURANCE) engine.insure(random.nextBoolean());
+            while(engine.phase() == Phase.PLAYER_TURN){
+                switch(Strategies.BASIC.decide(engine)){
+                    case HIT: if(engine.canHit()) engine.hit(); else engine.stand(); break;
+                    case DOUBLE: engine.doubleDown(); break;
+                    case SPLIT: engine.split(); break;
+                    case SURRENDER: engine.surrender(); break;
+                    default: engine.stand();
+                }
+            }
+            if(engine.phase() == Phase.DEALER_TURN) engine.playDealer();
+        }
+        session.close();
+        return file;
+    }
+
+    @Test
+    void seekMatchesLinearPlayback() throws IOException {
+        Path file = record();
+
+        // Totals and shoe position before every record, played straight through
+        long n;
+        RoundJournal.Totals[] totals;
+        long[] shoeIndex;
+        int[] dealt;
+        try(SessionReplay linear = new SessionReplay(file)){
+            n = linear.records();
+            assertEquals(ROUNDS + 1, n);
+            totals = new RoundJournal.Totals[(int) n + 1];
+            shoeIndex = new long[(int) n + 1];
+            dealt = new int[(int) n + 1];
+            for(int k = 0; k <= n; k++){
+                totals[k] = linear.totals();
+                shoeIndex[k] = linear.engine().shoe().index();
+                dealt[k] = linear.engine().shoe().dealt();
+                if(k < n) linear.next(null);
+            }
+        }
+
+        int[] targets = {0, 1, 255, 256, 257, 263, 264, 265, 511, 512, 513, 700, (int) n - 1, (int) n, 300, 5};
+        try(SessionReplay replay = new SessionReplay(file)){
+            for(int k : targets){
+                replay.seek(k);
+                assertEquals(k, replay.position());
+                assertTotals(totals[k], replay.totals(), k);
+                assertEquals(shoeIndex[k], replay.engine().shoe().index(), "shoe index at " + k);
+                assertEquals(dealt[k], replay.engine().shoe().dealt(), "cards dealt at " + k);
+            }
+        }
+    }
+
+    private static void assertTotals(RoundJournal.Totals want, RoundJournal.Totals got, int k){
+        String at = "record " + k;
+        assertEquals(want.records, got.records, at);
+        assertEquals(want.balance, got.balance, at);
+        assertEquals(want.games, got.games, at);
+        assertEquals(want.wins, got.wins, at);
+        assertEquals(want.losses, got.losses, at);
+        assertEquals(want.pushes, got.pushes, at);
+        assertEquals(want.currentStreak, got.currentStreak, at);
+        assertEquals(want.bestStreak, got.bestStreak, at);
+        assertEquals(want.biggestWin, got.biggestWin, at);
+    }
+}
@@ -0,0 +1,71 @@
+package blackjack;
+
+import blackjack.CardModel.Shoe;
+
+import java.util.random.RandomGenerator;
+
+// A shoe that deals the given cards first. The shuffle's random draws are
+// scripted so Fisher-Yates leaves them at the front, in order.
+final class StackedShoe {
+
+    private StackedShoe(){}
+
+    // ===== Card codes of the first suit =====
+    static final int A = 0, TWO = 1, THREE = 2, FOUR = 3, FIVE = 4, SIX = 5, SEVEN = 6,
+            EIGHT = 7, NINE = 8, TEN = 9, JACK = 10, QUEEN = 11, KING = 12;
+
+    static Shoe of(int... codes){
+        return new Shoe(6, 0.75, script(6 * CardModel.CODES, codes));
+    }
+
+    private static RandomGenerator script(int size, int[] front){
+        int[] cards = new int[size];
+        for(int i = 0; i < size; i++) cards[i] = i % CardModel.CODES;
+
+        // Copies of each code still needed in front of position i
+        int[] needed = new int[CardModel.CODES];
+        for(int c : front) needed[c]++;
+
+        int[] draws = new int[size];
+        for(int i = size - 1; i > 0; i--){
+            int j;
+            if(i < front.length){
+                j = find(cards, i, front[i]);
+                needed[front[i]]--;
+            } else {
+                j = i;
+                while(needed[cards[j]] > 0 && count(cards, i, cards[j]) <= needed[cards[j]]) j--;
+            }
+            int t = cards[i];
+            cards[i] = cards[j];
+            cards[j] = t;
+            draws[i] = j;
+        }
+
+        return new RandomGenerator(){
+            private int i = size - 1;
+
+            @Override
+            public int nextInt(int bound){
+                return draws[i--];
+            }
+
+            @Override
+            public long nextLong(){
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    private static int find(int[] cards, int upTo, int code){
+        for(int j = upTo; j >= 0; j--) if(cards[j] == code) return j;
+        throw new IllegalArgumentException("Not enough copies of card " + code);
+    }
+
+    // Copies of code in cards[0..upTo]
+    private static int count(int[] cards, int upTo, int code){
+        int n = 0;
+        for(int j = 0; j <= upTo; j++) if(cards[j] == code) n++;
+        return n;
+    }
+}
@@ -0,0 +1,106 @@
+package blackjack;
+
+import blackjack.CardModel.Rank;
+import blackjack.CardModel.Suit;
+import blackjack.RoundEngine.Action;
+import blackjack.RoundEngine.Outcome;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TableRulesTest {
+
+    private static final int ACE_UP = 0;
+    private static final TableRules H17_LS = TableRules.parse("DOWNTOWN LS");
+
+    private static Hand hand(Rank a, Rank b){
+        Hand h = new Hand();
+        h.add(CardModel.code(Suit.values()[0], a));
+        h.add(CardModel.code(Suit.values()[1], b));
+        return h;
+    }
+
+    // ===== H17 overrides land on the right chart rows =====
+
+    @Test
+    void h17SurrendersEightsAgainstAnAce(){
+        TableRules r = H17_LS;
+        assertTrue(r.hitSoft17 && r.lateSurrender);
+
+        Hand eights = hand(Rank.EIGHT, Rank.EIGHT);
+        assertEquals(Action.SURRENDER, r.basic(eights, ACE_UP, true, true, true));
+        assertEquals(Action.SPLIT, r.basic(eights, ACE_UP, true, true, false));
+    }
+
+    @Test
+    void h17StandsNinesAgainstAnAce(){
+        Hand nines = hand(Rank.NINE, Rank.NINE);
+        assertEquals(Action.STAND, H17_LS.basic(nines, ACE_UP, true, true, true));
+        assertEquals(Action.STAND, H17_LS.basic(nines, ACE_UP, true, true, false));
+        assertEquals(Action.STAND, TableRules.DOWNTOWN.basic(nines, ACE_UP, true, true, false));
+    }
+
+    @Test
+    void s17SplitsEightsAgainstAnAce(){
+        Hand eights = hand(Rank.EIGHT, Rank.EIGHT);
+        assertEquals(Action.SPLIT, TableRules.VEGAS.basic(eights, ACE_UP, true, true, true));
+    }
+
+    @Test
+    void h17OverridesOnHardAndSoftTotals(){
+        TableRules h17 = H17_LS, s17 = TableRules.VEGAS;
+        Hand eleven = hand(Rank.FIVE, Rank.SIX);
+        assertEquals(Action.DOUBLE, h17.basic(eleven, ACE_UP, true, false, true));
+        assertEquals(Action.HIT, s17.basic(eleven, ACE_UP, true, false, true));
+
+        Hand seventeen = hand(Rank.TEN, Rank.SEVEN);
+        assertEquals(Action.SURRENDER, h17.basic(seventeen, ACE_UP, true, false, true));
+        assertEquals(Action.STAND, s17.basic(seventeen, ACE_UP, true, false, true));
+
+        Hand softEighteen = hand(Rank.ACE, Rank.SEVEN);
+        assertEquals(Action.DOUBLE, h17.basic(softEighteen, 1, true, false, true));
+        assertEquals(Action.STAND, h17.basic(softEighteen, 1, false, false, true));
+    }
+
+    // ===== Compiled rule tables =====
+
+    @Test
+    void dealerStandsOnMatchesSoft17Rule(){
+        assertEquals(17, TableRules.CLASSIC.dealerStandsOn(true));
+        assertEquals(18, TableRules.DOWNTOWN.dealerStandsOn(true));
+        assertEquals(17, TableRules.DOWNTOWN.dealerStandsOn(false));
+    }
+
+    @Test
+    void doublingRestrictions(){
+        TableRules d10 = TableRules.parse("D10 NDAS");
+        assertTrue(d10.canDouble(10, false, false));
+        assertFalse(d10.canDouble(9, false, false));
+        assertFalse(d10.canDouble(18, true, false));
+        assertFalse(d10.canDouble(11, false, true));
+    }
+
+    @Test
+    void blackjackPayout(){
+        assertEquals(250, TableRules.CLASSIC.payout(Outcome.BLACKJACK, 100));
+        assertEquals(220, TableRules.SIX_FIVE.payout(Outcome.BLACKJACK, 100));
+        assertEquals(50, TableRules.VEGAS.payout(Outcome.SURRENDER, 100));
+        assertEquals(200, TableRules.VEGAS.payout(Outcome.WIN, 100));
+    }
+
+    @Test
+    void blackjackMessageNamesThePayout(){
+        assertEquals("Blackjack! You win (3:2)", TableRules.CLASSIC.message(Outcome.BLACKJACK));
+        assertEquals("Blackjack! You win (6:5)", TableRules.SIX_FIVE.message(Outcome.BLACKJACK));
+        assertEquals(Outcome.WIN.message, TableRules.SIX_FIVE.message(Outcome.WIN));
+    }
+
+    @Test
+    void specRoundTrips(){
+        for(TableRules r : TableRules.PRESETS){
+            assertEquals(r.spec(), TableRules.parse(r.spec()).spec());
+        }
+    }
+}
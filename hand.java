@@ -1,9 +0,0 @@
-
-public interface hand {
-
-    static int size() {
-       
-        throw new UnsupportedOperationException("Unimplemented method 'size'");
-    }
-
-}